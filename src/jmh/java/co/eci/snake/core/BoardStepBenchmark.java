@@ -0,0 +1,86 @@
+package co.eci.snake.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * Costo de Board.step con 1/8/64/512 serpientes. Cada hilo de JMH (-t N) mueve su propio
+ * subconjunto de serpientes, así que la métrica con varios hilos mide la contención del
+ * tablero: regionSize=0 usa el lock global y los demás valores el lock por regiones.
+ * Las serpientes que chocan giran en lugar de morir, para que la población no cambie.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardStepBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class World {
+    @Param({"1", "8", "64", "512"})
+    int snakes;
+
+    @Param({"0", "16"})
+    int regionSize;
+
+    Board board;
+    List<Snake> all;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+      int side = 200;
+      board = regionSize > 0 ? new Board(side, side, regionSize) : new Board(side, side);
+      var rnd = new SplittableRandom(42);
+      var dirs = Direction.values();
+      for (int i = 0; i < snakes; i++) {
+        board.addSnake(Snake.of(rnd.nextInt(side), rnd.nextInt(side), dirs[rnd.nextInt(dirs.length)], i + 1));
+      }
+      all = board.getSnakes();
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Driver {
+    List<Snake> mine;
+    SplittableRandom rnd;
+    int next;
+
+    @Setup(Level.Iteration)
+    public void setUp(World world, ThreadParams threads) {
+      mine = new ArrayList<>();
+      for (int i = threads.getThreadIndex(); i < world.all.size(); i += threads.getThreadCount()) {
+        mine.add(world.all.get(i));
+      }
+      rnd = new SplittableRandom(threads.getThreadIndex());
+    }
+  }
+
+  @Benchmark
+  public Board.MoveResult step(World world, Driver driver) {
+    if (driver.mine.isEmpty()) return null;
+    Snake s = driver.mine.get(driver.next);
+    driver.next = (driver.next + 1) % driver.mine.size();
+    var res = world.board.step(s);
+    if (res == Board.MoveResult.HIT_OBSTACLE) {
+      s.turn(Direction.values()[driver.rnd.nextInt(4)]);
+    }
+    return res;
+  }
+}
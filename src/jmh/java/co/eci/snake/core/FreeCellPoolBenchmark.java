@@ -0,0 +1,56 @@
+package co.eci.snake.core;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Costo de tomar una celda libre aleatoria (lo que hace Board.takeRandomFree) según
+ * qué fracción del tablero está ocupada. Cada operación toma y devuelve una celda para
+ * que el nivel de llenado se mantenga constante durante la medición.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FreeCellPoolBenchmark {
+
+  @Param({"35x28", "200x200", "1000x1000"})
+  String size;
+
+  @Param({"0.0", "0.5", "0.9", "0.99"})
+  double fill;
+
+  FreeCellPool pool;
+  SplittableRandom random = new SplittableRandom(42);
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    String[] dims = size.split("x");
+    int cells = Integer.parseInt(dims[0]) * Integer.parseInt(dims[1]);
+    pool = new FreeCellPool(cells);
+    int taken = (int) (cells * fill);
+    for (int i = 0; i < taken; i++) pool.takeRandom(random);
+  }
+
+  @Benchmark
+  public int takeAndRelease() {
+    int cell = pool.takeRandom(random);
+    pool.release(cell);
+    return cell;
+  }
+}
@@ -0,0 +1,63 @@
+package co.eci.snake.core;
+
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Costo de Snake.snapshot, Snake.forEachCell y Snake.advance según la longitud de la serpiente. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SnakeBenchmark {
+
+  @Param({"5", "100", "1000"})
+  int length;
+
+  Snake snake;
+  int[] path;
+  int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    int width = 2000;
+    path = new int[width];
+    for (int x = 0; x < width; x++) path[x] = Position.pack(x, 0);
+    snake = Snake.of(0, 0, Direction.RIGHT, 1);
+    for (int i = 1; snake.length() < length; i++) snake.advance(path[i], true);
+    next = length;
+  }
+
+  @Benchmark
+  public Deque<Position> snapshot() {
+    return snake.snapshot();
+  }
+
+  @Benchmark
+  public int forEachCell() {
+    int[] sum = new int[1];
+    snake.forEachCell(c -> sum[0] += c);
+    return sum[0];
+  }
+
+  @Benchmark
+  public int advance() {
+    snake.advance(path[next], false);
+    next = (next + 1) % path.length;
+    return snake.headCell();
+  }
+}
@@ -0,0 +1,64 @@
+package co.eci.snake.core.engine;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.Snake;
+import co.eci.snake.core.steering.GreedySteering;
+
+/**
+ * Costo de un tick completo con miles de serpientes en un solo tablero, moviéndolas en
+ * orden desde un hilo (sequential) o repartiendo cada fase en el ForkJoinPool común
+ * (parallel). El tablero se rearma en cada iteración porque la población va bajando.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TickEngineBenchmark {
+
+  @Param({"2000", "20000"})
+  int snakes;
+
+  @Param({"sequential", "parallel"})
+  String engine;
+
+  TickEngine tickEngine;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    int side = 1000;
+    var rnd = new SplittableRandom(42);
+    var board = new Board(side, side, rnd.split());
+    var dirs = Direction.values();
+    for (int i = 0; i < snakes; i++) {
+      board.addSnake(Snake.of(rnd.nextInt(side), rnd.nextInt(side), dirs[rnd.nextInt(dirs.length)], i + 1));
+    }
+    tickEngine = new TickEngine(board, new GreedySteering(board),
+        "parallel".equals(engine) ? ForkJoinPool.commonPool() : null);
+  }
+
+  @Benchmark
+  public long tick() {
+    tickEngine.tick();
+    return tickEngine.moves();
+  }
+}
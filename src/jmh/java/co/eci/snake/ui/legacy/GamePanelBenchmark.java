@@ -0,0 +1,92 @@
+package co.eci.snake.ui.legacy;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.Snake;
+
+/**
+ * Costo de pintar cuadros del GamePanel en una imagen fuera de pantalla, sin necesidad de
+ * display (java.awt.headless=true). {@code paint} pinta siempre la misma foto; {@code frame}
+ * mueve todas las serpientes, publica y pinta, para comparar el modo completo con el
+ * incremental (ambos incluyen el mismo costo de simulación).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class GamePanelBenchmark {
+
+  @Param({"35", "200"})
+  int side;
+
+  @Param({"2", "64"})
+  int snakes;
+
+  @Param({"false", "true"})
+  boolean incremental;
+
+  Board board;
+  SnakeApp.GamePanel panel;
+  BufferedImage image;
+  Graphics2D graphics;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    board = new Board(side, side);
+    var rnd = new SplittableRandom(7);
+    var dirs = Direction.values();
+    for (int i = 0; i < snakes; i++) {
+      var s = Snake.of(rnd.nextInt(side), rnd.nextInt(side), dirs[rnd.nextInt(dirs.length)], i + 1);
+      board.addSnake(s);
+      for (int k = 0; k < 20; k++) board.step(s);
+    }
+    board.publish();
+    panel = new SnakeApp.GamePanel(board::snapshot, incremental);
+    panel.setSize(panel.getPreferredSize());
+    image = new BufferedImage(panel.getWidth(), panel.getHeight(), BufferedImage.TYPE_INT_RGB);
+    graphics = image.createGraphics();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    graphics.dispose();
+  }
+
+  @Benchmark
+  public BufferedImage paint() {
+    panel.paint(graphics);
+    return image;
+  }
+
+  @Benchmark
+  public BufferedImage frame() {
+    for (Snake s : board.getSnakes()) {
+      if (board.step(s) == Board.MoveResult.HIT_OBSTACLE) s.turn(Direction.values()[(s.getId() + 1) % 4]);
+    }
+    board.publish();
+    panel.refresh();
+    panel.paint(graphics);
+    return image;
+  }
+}
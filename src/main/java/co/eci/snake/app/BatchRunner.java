@@ -0,0 +1,133 @@
+package co.eci.snake.app;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.Position;
+import co.eci.snake.core.Snake;
+import co.eci.snake.core.engine.TickEngine;
+import co.eci.snake.core.steering.GreedySteering;
+import co.eci.snake.core.steering.SteeringStrategy;
+
+/**
+ * Punto de entrada sin interfaz gráfica: corre K carreras independientes en paralelo
+ * (una por núcleo a la vez) con el {@link TickEngine} y escribe el resultado de cada una
+ * en un archivo CSV, en el orden de las carreras: con la misma semilla el archivo es el
+ * mismo sin importar el número de hilos. No carga ninguna clase de AWT/Swing.
+ *
+ * <pre>
+ * mvn -q exec:java -Dexec.mainClass=co.eci.snake.app.BatchRunner \
+ *     -Draces=1000 -Dwidth=35 -Dheight=28 -Dsnakes=8 -Dseed=42 -Dout=races.csv
+ * </pre>
+ * Con -Dengine=parallel además cada tick de una carrera se reparte en el ForkJoinPool
+ * común, para tableros con muchas serpientes; el resultado no cambia.
+ */
+public final class BatchRunner {
+
+  /** Resultado de una carrera */
+  record RaceResult(int race, long seed, int winner, long ticks, long moves, String lengths, String deaths) {
+    String toCsv() {
+      return race + "," + seed + "," + winner + "," + ticks + "," + moves + "," + lengths + "," + deaths;
+    }
+  }
+
+  private BatchRunner() {}
+
+  public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+    int races = Integer.getInteger("races", 100);
+    int width = Integer.getInteger("width", 35);
+    int height = Integer.getInteger("height", 28);
+    int snakes = Integer.getInteger("snakes", 8);
+    long seed = Long.getLong("seed", System.nanoTime());
+    long maxTicks = Long.getLong("maxTicks", 100_000);
+    int threads = Integer.getInteger("threads", Runtime.getRuntime().availableProcessors());
+    Path out = Path.of(System.getProperty("out", "races.csv"));
+    boolean greedy = "greedy".equals(System.getProperty("steering"));
+    boolean parallel = "parallel".equals(System.getProperty("engine"));
+
+    long start = System.nanoTime();
+    try (BufferedWriter writer = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+      runAll(writer, races, seed, width, height, snakes, maxTicks, threads, greedy, parallel);
+    }
+    long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+    System.out.println(races + " carreras en " + elapsedMs + " ms -> " + out.toAbsolutePath());
+  }
+
+  /**
+   * Corre las carreras en un pool de threads hilos y escribe el CSV en out. Las filas salen
+   * en el orden de las carreras, no en el que terminan; una fila espera a las anteriores.
+   */
+  static void runAll(BufferedWriter out, int races, long seed, int width, int height, int snakes, long maxTicks,
+                     int threads, boolean greedy, boolean parallel)
+      throws IOException, InterruptedException, ExecutionException {
+    // Una semilla por carrera derivada de la semilla raíz, independiente del orden de ejecución
+    var root = new SplittableRandom(seed);
+    long[] seeds = new long[races];
+    for (int i = 0; i < races; i++) seeds[i] = root.nextLong();
+
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<RaceResult>> results = new ArrayList<>(races);
+      for (int i = 0; i < races; i++) {
+        final int race = i;
+        results.add(pool.submit(() -> runRace(race, seeds[race], width, height, snakes, maxTicks, greedy, parallel)));
+      }
+      out.write("race,seed,winner,ticks,moves,lengths,deaths");
+      out.newLine();
+      for (Future<RaceResult> result : results) {
+        out.write(result.get().toCsv());
+        out.newLine();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /** Corre una carrera completa y resume su resultado */
+  static RaceResult runRace(int race, long seed, int width, int height, int snakes, long maxTicks,
+                            boolean greedy, boolean parallel) {
+    var rnd = new SplittableRandom(seed);
+    var board = new Board(width, height, rnd.split());
+    var dirs = Direction.values();
+    for (int i = 0; i < snakes; i++) {
+      // Cada serpiente arranca en una celda sin elementos ni otras serpientes
+      Position start = board.freeCell(rnd);
+      if (start == null) break;
+      board.addSnake(Snake.of(start.x(), start.y(), dirs[rnd.nextInt(dirs.length)], i + 1));
+    }
+
+    var engine = new TickEngine(board, greedy ? new GreedySteering(board) : SteeringStrategy.random(),
+        parallel ? ForkJoinPool.commonPool() : null);
+    var deaths = new StringJoiner(";");
+    int recordedDeaths = 0;
+    while (engine.ticks() < maxTicks && !board.isGameOver()) {
+      engine.tick();
+      // Solo las muertes nuevas: copiar la lista en cada tick costaría O(muertas)
+      for (int dead = board.deadSnakeCount(); recordedDeaths < dead; recordedDeaths++) {
+        deaths.add(board.getDeadSnake(recordedDeaths).getId() + "@" + engine.ticks());
+      }
+    }
+    engine.release();
+
+    var lengths = new StringJoiner(";");
+    for (Snake s : board.getSnakes()) lengths.add(s.getId() + ":" + s.length());
+    for (Snake s : board.getDeadSnakes()) lengths.add(s.getId() + ":" + s.length());
+    Snake winner = board.getWinner();
+    return new RaceResult(race, seed, winner != null ? winner.getId() : -1,
+        engine.ticks(), engine.moves(), lengths.toString(), deaths.toString());
+  }
+}
@@ -0,0 +1,83 @@
+package co.eci.snake.app;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.Position;
+import co.eci.snake.core.Snake;
+import co.eci.snake.core.steering.GreedySteering;
+import co.eci.snake.core.steering.SteeringStrategy;
+import co.eci.snake.server.HostedRace;
+import co.eci.snake.server.RaceManager;
+
+/**
+ * Punto de entrada sin interfaz gráfica: mantiene muchas carreras simultáneas en un
+ * {@link RaceManager} (cuando una termina se aloja otra) e imprime cada segundo los
+ * movimientos por segundo de todos los tableros.
+ *
+ * <pre>
+ * mvn -q exec:java -Dexec.mainClass=co.eci.snake.app.RaceServer \
+ *     -Dboards=500 -Dwidth=35 -Dheight=28 -Dsnakes=8 -Dcarriers=4 -Dseconds=30
+ * </pre>
+ */
+public final class RaceServer {
+
+  private RaceServer() {}
+
+  public static void main(String[] args) throws InterruptedException {
+    int boards = Integer.getInteger("boards", 200);
+    int width = Integer.getInteger("width", 35);
+    int height = Integer.getInteger("height", 28);
+    int snakes = Integer.getInteger("snakes", 8);
+    int carriers = Integer.getInteger("carriers", Runtime.getRuntime().availableProcessors());
+    int seconds = Integer.getInteger("seconds", 30);
+    long seed = Long.getLong("seed", System.nanoTime());
+    boolean greedy = "greedy".equals(System.getProperty("steering"));
+
+    var defaults = RaceManager.Limits.defaults();
+    var limits = new RaceManager.Limits(carriers, boards, boards * snakes,
+        Long.getLong("sliceMs", defaults.sliceMillis()), Integer.getInteger("movesPerSlice", defaults.movesPerSlice()));
+    var root = new SplittableRandom(seed);
+    var finished = new AtomicLong();
+    try (var manager = new RaceManager(limits)) {
+      for (int i = 0; i < boards; i++) {
+        hostNext(manager, root, width, height, snakes, greedy, finished);
+      }
+      for (int s = 1; s <= seconds; s++) {
+        Thread.sleep(1000);
+        System.out.printf("%3d s: %d tableros, %d serpientes, %d carreras terminadas, %.0f movimientos/s%n",
+            s, manager.boards(), manager.snakes(), finished.get(), manager.movesPerSecond());
+      }
+      System.out.println(manager.moves() + " movimientos en " + seconds + " s");
+    }
+  }
+
+  /** Aloja un tablero nuevo y, cuando termine, otro en su lugar */
+  private static void hostNext(RaceManager manager, SplittableRandom root, int width, int height,
+                               int snakes, boolean greedy, AtomicLong finished) {
+    SplittableRandom rnd;
+    synchronized (root) {
+      rnd = root.split();
+    }
+    var board = new Board(width, height, rnd.split());
+    var dirs = Direction.values();
+    for (int i = 0; i < snakes; i++) {
+      // Cada serpiente arranca en una celda sin elementos ni otras serpientes
+      Position start = board.freeCell(rnd);
+      if (start == null) break;
+      board.addSnake(Snake.of(start.x(), start.y(), dirs[rnd.nextInt(dirs.length)], i + 1));
+    }
+    try {
+      HostedRace race = manager.host(board, greedy ? new GreedySteering(board) : SteeringStrategy.random());
+      race.finished().thenRun(() -> {
+        finished.incrementAndGet();
+        hostNext(manager, root, width, height, snakes, greedy, finished);
+      });
+    } catch (RejectedExecutionException e) {
+      // El servidor se está cerrando o está lleno: no se reemplaza el tablero
+    }
+  }
+}
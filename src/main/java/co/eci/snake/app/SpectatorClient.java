@@ -0,0 +1,139 @@
+package co.eci.snake.app;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.WorldSnapshot;
+import co.eci.snake.core.replay.DeltaReader;
+import co.eci.snake.server.GameServer;
+import co.eci.snake.server.NetProtocol;
+
+/**
+ * Cliente de prueba de {@link GameServer}: abre una o muchas conexiones en un solo hilo,
+ * reconstruye el tablero en cada una e imprime cada segundo el tick, las serpientes vivas
+ * y los bytes recibidos. Con -Dsteer=id la primera conexión gira esa serpiente al azar.
+ *
+ * <pre>
+ * mvn -q exec:java -Dexec.mainClass=co.eci.snake.app.SpectatorClient \
+ *     -Dhost=localhost -Dport=7777 -Dclients=1000 -Dseconds=30
+ * </pre>
+ */
+public final class SpectatorClient {
+
+  /** Una conexión con su buffer de entrada y el tablero reconstruido */
+  private static final class Connection {
+    final SocketChannel channel;
+    ByteBuffer in = ByteBuffer.allocate(1 << 16);
+    DeltaReader reader;
+    long bytes = 0;
+    long frames = 0;
+
+    Connection(SocketChannel channel) {
+      this.channel = channel;
+    }
+
+    /** Procesa los mensajes completos del buffer */
+    void drain() {
+      in.flip();
+      while (in.remaining() >= 4 && in.remaining() >= 4 + in.getInt(in.position())) {
+        int length = in.getInt();
+        byte type = in.get();
+        ByteBuffer body = in.slice(in.position(), length - 1);
+        in.position(in.position() + length - 1);
+        if (type == NetProtocol.HELLO) {
+          reader = new DeltaReader(body);
+        } else if (reader != null) {
+          reader.apply(body);
+        }
+        frames++;
+      }
+      in.compact();
+      // Un mensaje más grande que el buffer (p. ej. un cuadro clave de un tablero enorme)
+      if (!in.hasRemaining()) {
+        ByteBuffer grown = ByteBuffer.allocate(in.capacity() * 2);
+        in = grown.put(in.flip());
+      }
+    }
+  }
+
+  private SpectatorClient() {}
+
+  public static void main(String[] args) throws IOException {
+    String host = System.getProperty("host", "localhost");
+    int port = Integer.getInteger("port", 7777);
+    int clients = Integer.getInteger("clients", 1);
+    int seconds = Integer.getInteger("seconds", 30);
+    int steer = Integer.getInteger("steer", -1);
+
+    List<Connection> connections = new ArrayList<>(clients);
+    try (Selector selector = Selector.open()) {
+      var address = new InetSocketAddress(host, port);
+      for (int i = 0; i < clients; i++) {
+        SocketChannel ch = SocketChannel.open(address);
+        ch.configureBlocking(false);
+        Connection c = new Connection(ch);
+        ch.register(selector, SelectionKey.OP_READ, c);
+        connections.add(c);
+      }
+      var rnd = new SplittableRandom();
+      var dirs = Direction.values();
+      ByteBuffer command = ByteBuffer.allocate(NetProtocol.COMMAND_SIZE);
+      long end = System.nanoTime() + seconds * 1_000_000_000L;
+      long nextReport = System.nanoTime() + 1_000_000_000L;
+      long lastBytes = 0;
+      while (System.nanoTime() < end && !connections.isEmpty()) {
+        selector.select(100);
+        Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+        while (it.hasNext()) {
+          SelectionKey key = it.next();
+          it.remove();
+          Connection c = (Connection) key.attachment();
+          int n = c.channel.read(c.in);
+          if (n < 0) {
+            key.cancel();
+            c.channel.close();
+            connections.remove(c);
+            continue;
+          }
+          c.bytes += n;
+          c.drain();
+        }
+        if (System.nanoTime() >= nextReport && !connections.isEmpty()) {
+          nextReport += 1_000_000_000L;
+          Connection first = connections.get(0);
+          long bytes = 0;
+          long frames = 0;
+          for (Connection c : connections) {
+            bytes += c.bytes;
+            frames += c.frames;
+          }
+          String board = "sin tablero";
+          if (first.reader != null) {
+            WorldSnapshot w = first.reader.snapshot();
+            board = "tick " + first.reader.tick() + ", " + w.snakes().size() + " vivas, "
+                + w.items().mice().size() + " ratones";
+          }
+          System.out.printf("%d conexiones, %s, %d mensajes, %.1f KB/s%n",
+              connections.size(), board, frames, (bytes - lastBytes) / 1024.0);
+          lastBytes = bytes;
+          if (steer >= 0) {
+            command.clear();
+            NetProtocol.writeTurn(command, steer, dirs[rnd.nextInt(dirs.length)]);
+            first.channel.write(command.flip());
+          }
+        }
+      }
+    } finally {
+      for (Connection c : connections) c.channel.close();
+    }
+  }
+}
@@ -0,0 +1,236 @@
+package co.eci.snake.concurrency;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.GameState;
+import co.eci.snake.core.Snake;
+import co.eci.snake.core.engine.GameClock;
+import co.eci.snake.core.events.EventBus;
+import co.eci.snake.core.events.GameEventHandler;
+import co.eci.snake.core.engine.TickEngine;
+import co.eci.snake.core.replay.ReplayRecorder;
+import co.eci.snake.core.steering.GreedySteering;
+import co.eci.snake.core.steering.SteeringStrategy;
+
+/**
+ * Ciclo de vida de una carrera: es dueña del tablero, de los hilos de las serpientes y del
+ * reloj, y permite arrancar, detener y reiniciar carreras seguidas en la misma JVM sin
+ * dejar hilos ni memoria atrás. Los runners de cada carrera viven en su propio ejecutor de
+ * hilos virtuales, que hace de ámbito estructurado (StructuredTaskScope sigue en preview
+ * en Java 21): {@link #stop(Duration)} los cancela a todos y espera su fin con un plazo.
+ * El reloj, con su hilo, se reutiliza entre carreras y solo se cierra con {@link #close()}.
+ */
+public final class Race implements AutoCloseable {
+  /** Plazo de {@link #close()} para que terminen los hilos de la carrera */
+  public static final Duration DEFAULT_SHUTDOWN = Duration.ofSeconds(2);
+
+  /**
+   * Configuración de una carrera.
+   * @param tickEngine true para mover las serpientes con {@link TickEngine} en el hilo del reloj
+   * @param greedy true para usar {@link GreedySteering}; si no, giros aleatorios
+   * @param frameMillis período base de los cuadros; 0 para correr sin pintar
+   * @param record archivo donde grabar cada carrera (se reemplaza al reiniciar), o null
+   */
+  public record Settings(int width, int height, int snakes, boolean tickEngine, boolean greedy,
+                         long tickMillis, long frameMillis, Path record) {}
+
+  private final Settings settings;
+  private final GameClock clock;
+  private final List<Map.Entry<String, GameEventHandler>> handlers = new CopyOnWriteArrayList<>();
+  private GameState state = GameState.STOPPED;
+  private long races = 0;
+
+  // Estado de la carrera en curso; el reloj lee board y simulation desde su hilo
+  private volatile Board board;
+  private volatile Runnable simulation;
+  private TickEngine engine;  // Null en el modo con hilos
+  private ExecutorService runners;
+  private ReplayRecorder recorder;
+  private EventBus events;
+  private long ticks = 0;  // Ticks del reloj en el modo con hilos
+
+  /**
+   * Crea una carrera detenida.
+   * @param renderer ejecutor donde se pintan los cuadros (p. ej. SwingUtilities::invokeLater)
+   * @param frame pinta un cuadro en el ejecutor de render; ignorado si frameMillis es 0
+   */
+  public Race(Settings settings, Executor renderer, Runnable frame) {
+    this.settings = Objects.requireNonNull(settings, "settings");
+    this.clock = new GameClock(settings.tickMillis(), this::simulate, settings.frameMillis(),
+        () -> board.publish(), renderer, frame);
+  }
+
+  /** Retorna el tablero de la carrera actual (o de la última, si está detenida) */
+  public Board board() {
+    return board;
+  }
+
+  /** Retorna el estado de la carrera */
+  public synchronized GameState state() {
+    return state;
+  }
+
+  /** Retorna cuántas carreras se han arrancado */
+  public synchronized long races() {
+    return races;
+  }
+
+  /** Retorna el reloj de la carrera */
+  public GameClock clock() {
+    return clock;
+  }
+
+  /**
+   * Suscribe un consumidor a los eventos de esta carrera y de las siguientes (cada carrera
+   * tiene su propio {@link EventBus}). El consumidor corre en su propio hilo y no debe
+   * llamar de vuelta a la carrera de forma sincrónica (p. ej. que lo haga por el EDT).
+   */
+  public synchronized void subscribe(String name, GameEventHandler handler) {
+    handlers.add(Map.entry(name, Objects.requireNonNull(handler, "handler")));
+    if (events != null) events.subscribe(name, handler);
+  }
+
+  /** Retorna la serpiente viva con el id dado en la carrera actual, o null */
+  public Snake snake(int id) {
+    Board b = board;
+    if (b == null) return null;
+    for (Snake s : b.getSnakes()) {
+      if (s.getId() == id) return s;
+    }
+    return null;
+  }
+
+  /** Arma un tablero nuevo con sus serpientes e hilos y deja la carrera en pausa */
+  public synchronized void start() {
+    if (state != GameState.STOPPED) return;
+    Board b = new Board(settings.width(), settings.height());
+    for (int i = 0; i < settings.snakes(); i++) {
+      int x = 2 + (i * 3) % b.width();
+      int y = 2 + (i * 2) % b.height();
+      var dir = Direction.values()[i % Direction.values().length];
+      b.addSnake(Snake.of(x, y, dir, i + 1));
+    }
+    b.setPaused(true);
+    if (settings.record() != null) {
+      try {
+        recorder = ReplayRecorder.start(b, settings.record(), 100);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    events = EventBus.attach(b);
+    for (var h : handlers) events.subscribe(h.getKey(), h.getValue());
+
+    SteeringStrategy steering = settings.greedy() ? new GreedySteering(b) : SteeringStrategy.random();
+    if (settings.tickEngine()) {
+      engine = new TickEngine(b, steering);
+      simulation = engine::tick;
+    } else {
+      runners = Executors.newVirtualThreadPerTaskExecutor();
+      for (Snake s : b.getSnakes()) {
+        runners.submit(new SnakeRunner(s, b, steering));
+      }
+      ticks = 0;
+      simulation = () -> b.tickCompleted(++ticks);
+    }
+    b.publish();
+    board = b;
+    races++;
+    state = GameState.PAUSED;
+    clock.start();
+  }
+
+  /** Pone la carrera en marcha */
+  public synchronized void resume() {
+    if (state != GameState.PAUSED) return;
+    board.setPaused(false);
+    clock.resume();
+    state = GameState.RUNNING;
+  }
+
+  /** Pausa la carrera; al retornar ningún movimiento está en curso y se pinta un cuadro */
+  public synchronized void pause() {
+    if (state != GameState.RUNNING) return;
+    clock.pause();
+    board.setPaused(true);
+    clock.requestFrame();
+    state = GameState.PAUSED;
+  }
+
+  /**
+   * Detiene la carrera: espera que terminen los movimientos en curso, detiene el reloj,
+   * interrumpe los runners y los espera a lo sumo timeout. El tablero queda consultable.
+   * @return true si todos los hilos terminaron dentro del plazo
+   */
+  public synchronized boolean stop(Duration timeout) {
+    if (state == GameState.STOPPED) return true;
+    long deadline = System.nanoTime() + timeout.toNanos();
+    board.setPaused(true);
+    clock.stop();
+    simulation = null;
+    if (engine != null) {
+      engine.release();
+      engine = null;
+    }
+    boolean finished = true;
+    if (runners != null) {
+      runners.shutdownNow();
+      try {
+        finished = runners.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        finished = false;
+      }
+      runners = null;
+    }
+    events.close();  // Entrega lo pendiente, p. ej. el fin de la carrera
+    events = null;
+    if (recorder != null) {
+      try {
+        recorder.close();
+      } catch (IOException e) {
+        System.err.println("No se pudo completar la grabación: " + e.getMessage());
+      }
+      recorder = null;
+    }
+    state = GameState.STOPPED;
+    return finished;
+  }
+
+  /**
+   * Detiene la carrera actual y arranca otra con un tablero nuevo, en pausa.
+   * @return true si los hilos de la carrera anterior terminaron dentro del plazo
+   */
+  public synchronized boolean restart(Duration timeout) {
+    boolean finished = stop(timeout);
+    start();
+    return finished;
+  }
+
+  /** Detiene la carrera y libera el hilo del reloj */
+  @Override
+  public synchronized void close() {
+    stop(DEFAULT_SHUTDOWN);
+    clock.close();
+  }
+
+  /** Un tick de simulación de la carrera en curso; no hace nada si está detenida */
+  private void simulate() {
+    Runnable s = simulation;
+    if (s != null) s.run();
+  }
+}
@@ -1,57 +1,115 @@
 package co.eci.snake.concurrency;
 
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
 
 import co.eci.snake.core.Board;
 import co.eci.snake.core.Direction;
 import co.eci.snake.core.Snake;
+import co.eci.snake.core.steering.SteeringStrategy;
+import co.eci.snake.metrics.Metrics;
 
 public final class SnakeRunner implements Runnable {
+  /** Resultado de {@link #stepOnce()} cuando la serpiente chocó y murió */
+  public static final long DEAD = -1;
+  /** Resultado de {@link #stepOnce()} cuando el tablero está en pausa */
+  public static final long PAUSED = -2;
+
   private final Snake snake;
   private final Board board;
   private final int baseSleepMs = 80;
   private final int turboSleepMs = 40;
   private int turboTicks = 0;
+  private final SteeringStrategy steering;
+  private final LongAdder moves;  // Movimientos de esta serpiente, null sin métricas
+  private final SplittableRandom random;  // Generador de los giros, solo de este runner
 
+  /** Runner con giros aleatorios */
   public SnakeRunner(Snake snake, Board board) {
+    this(snake, board, SteeringStrategy.random());
+  }
+
+  /** Runner que decide los giros con la estrategia dada y un generador derivado del tablero */
+  public SnakeRunner(Snake snake, Board board, SteeringStrategy steering) {
+    this(snake, board, steering, board.newRandom());
+  }
+
+  /** Runner que decide los giros con la estrategia y el generador dados */
+  public SnakeRunner(Snake snake, Board board, SteeringStrategy steering, SplittableRandom random) {
     this.snake = snake;
     this.board = board;
+    this.steering = steering;
+    this.random = random;
+    this.moves = Metrics.ENABLED ? Metrics.registerSnake(board, snake.getId()) : null;
   }
 
   /** Ejecuta el hilo de la serpiente */
   @Override
   public void run() {
+    var gate = board.pauseGate();
     try {
       while (!Thread.currentThread().isInterrupted()) {
-        // Esperar si el juego está pausado (sin bloquear el lock de Board)
-        board.waitIfPaused();
-        
-        maybeTurn();  // para qutar el movimiento aleatorio y hacer que la serpiente siga una trayectoria más predecible
-        var res = board.step(snake);
-        if (res == Board.MoveResult.HIT_OBSTACLE) {
-        board.addDeadSnake(snake);
-        break;  // Si choca con un obstáculo, intenta girar para evitarlo
-        } else if (res == Board.MoveResult.ATE_TURBO) {
-          turboTicks = 100;
+        long delay = stepOnce();
+        if (delay == DEAD) {
+          break;
+        } else if (delay == PAUSED) {
+          gate.awaitResume();
+        } else {
+          Thread.sleep(delay);
         }
-        int sleep = (turboTicks > 0) ? turboSleepMs : baseSleepMs;
-        if (turboTicks > 0) turboTicks--;
-        Thread.sleep(sleep);
       }
     } catch (InterruptedException ie) {
       Thread.currentThread().interrupt();
+    } finally {
+      release();
     }
   }
 
-  /** Decide aleatoriamente si la serpiente debe girar */
-  private void maybeTurn() {
-    double p = (turboTicks > 0) ? 0.05 : 0.10;
-    if (ThreadLocalRandom.current().nextDouble() < p) randomTurn();
+  /**
+   * Retira el contador de la serpiente de las métricas. {@link #run()} lo hace al terminar;
+   * quien usa {@link #stepOnce()} lo llama cuando la carrera termina.
+   */
+  public void release() {
+    if (Metrics.ENABLED) Metrics.unregisterSnake(board, snake.getId());
   }
-  
-  /** Realiza un giro aleatorio de la serpiente */
-  private void randomTurn() {
-    var dirs = Direction.values();
-    snake.turn(dirs[ThreadLocalRandom.current().nextInt(dirs.length)]);
+
+  /**
+   * Hace un solo movimiento sin bloquearse, para quien reparte las serpientes en sus
+   * propios hilos (p. ej. un planificador de muchos tableros).
+   * @return milisegundos hasta el próximo movimiento, {@link #DEAD} si la serpiente murió
+   *     o {@link #PAUSED} si el tablero está en pausa y no se movió
+   */
+  public long stepOnce() {
+    var gate = board.pauseGate();
+    // Cada movimiento es una sección crítica de la pausa
+    if (!gate.tryEnter()) {
+      return PAUSED;
+    }
+    Board.MoveResult res;
+    try {
+      maybeTurn();  // para qutar el movimiento aleatorio y hacer que la serpiente siga una trayectoria más predecible
+      res = board.step(snake);
+      if (Metrics.ENABLED) moves.increment();
+      if (res == Board.MoveResult.HIT_OBSTACLE) {
+        board.addDeadSnake(snake);
+      }
+    } finally {
+      gate.exit();
+    }
+    if (res == Board.MoveResult.HIT_OBSTACLE) {
+      release();
+      return DEAD;
+    } else if (res == Board.MoveResult.ATE_TURBO) {
+      turboTicks = 100;
+    }
+    int sleep = (turboTicks > 0) ? turboSleepMs : baseSleepMs;
+    if (turboTicks > 0) turboTicks--;
+    return sleep;
+  }
+
+  /** Pregunta a la estrategia si la serpiente debe girar */
+  private void maybeTurn() {
+    Direction dir = steering.steer(snake, turboTicks > 0, random);
+    if (dir != null) snake.turn(dir);
   }
 }
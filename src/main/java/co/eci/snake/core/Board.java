@@ -1,57 +1,158 @@
 package co.eci.snake.core;
 
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import co.eci.snake.metrics.Metrics;
 
 public final class Board {
 
     private final int width;
     private final int height;
 
-    private final Set<Position> mice = new HashSet<>();
-    private final Set<Position> obstacles = new HashSet<>();
-    private final Set<Position> turbo = new HashSet<>();
-    private final Map<Position, Position> teleports = new HashMap<>();
-    private final Set<Position> freePositions = new HashSet<>();  // Pool de posiciones libres
+    // Códigos de la grilla de ocupación (un byte por celda, índice = y * width + x)
+    private static final byte EMPTY = 0;
+    private static final byte MOUSE = 1;
+    private static final byte OBSTACLE = 2;
+    private static final byte TURBO = 3;
+    private static final byte TELEPORT = 4;
+    private static final Item[] ITEMS = Item.values();  // Elemento de cada código, desde MOUSE
+
+    private static final int TELEPORT_PAIRS = 2;
+
+    // Formato de los puntos de control (ver checkpoint)
+    private static final int CHECKPOINT_MAGIC = 0x534E4B43;  // "SNKC"
+    private static final int CHECKPOINT_VERSION = 1;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final CellGrid grid;  // Contenido de cada celda (densa o dispersa)
+    private final int[] teleportCells = new int[2 * TELEPORT_PAIRS];  // Celdas con teletransportador
+    private final int[] teleportTargets = new int[2 * TELEPORT_PAIRS];  // Destino de cada una
+    private int teleportCount;
+    private final BodyIndex bodies;  // Ocupación de los cuerpos de las serpientes vivas
+    private final FreeCellPool freeCells;  // Pool de celdas libres, null en modo disperso
+    private final ReentrantLock freeCellsLock = new ReentrantLock();  // Protege el pool (siempre el último lock)
+    private final RegionLocks locks;  // Locks por región de la grilla y del índice de cuerpos
     private final List<Snake> snakes = new ArrayList<>();  // Lista de serpientes vivas
     private final List<Snake> deadSnakes = new ArrayList<>();  // Lista de serpientes muertas
-    private boolean paused = false;
-    private Object pauseLock = new Object();
+    private final AtomicLong itemsVersion = new AtomicLong();  // Cambia cada vez que cambia un elemento
+    private volatile WorldSnapshot snapshot;  // Última foto publicada
+    private final PauseGate pauseGate = new PauseGate();  // Pausa global como corte consistente
+    private volatile BoardListener[] listeners = new BoardListener[0];  // Observadores de eventos
+    private final SplittableRandom random;  // Raíz de los generadores del tablero (protegido por this)
 
     /** Resultados posibles al mover una serpiente */
     public enum MoveResult {
         MOVED, ATE_MOUSE, HIT_OBSTACLE, ATE_TURBO, TELEPORTED
     }
 
-    /** Crea un tablero de las dimensiones dadas y posiciona elementos iniciales */
+    /** Crea un tablero de las dimensiones dadas, protegido por un único lock global */
     public Board(int width, int height) {
+        this(width, height, Math.max(width, height));
+    }
+
+    /**
+     * Crea un tablero dividido en regiones de regionSize x regionSize celdas con un lock
+     * cada una, para que serpientes en regiones distintas avancen en paralelo.
+     */
+    public Board(int width, int height, int regionSize) {
+        this(width, height, regionSize, new SplittableRandom());
+    }
+
+    /** Crea un tablero con un único lock cuya aleatoriedad sale del generador dado */
+    public Board(int width, int height, SplittableRandom random) {
+        this(width, height, Math.max(width, height), random);
+    }
+
+    /**
+     * Crea un tablero por regiones cuya aleatoriedad sale del generador dado: la ubicación
+     * inicial de los elementos y, por cada serpiente agregada, un generador derivado con
+     * el que se eligen los elementos que aparecen cuando come. Con el mismo generador y las
+     * mismas serpientes, un motor por ticks reproduce la carrera exacta.
+     */
+    public Board(int width, int height, int regionSize, SplittableRandom random) {
+        this(width, height, regionSize, false, true, random);
+    }
+
+    /**
+     * Crea un tablero disperso para arenas enormes: las celdas viven en bloques que se
+     * reservan solo donde hay entidades y las celdas libres se eligen por muestreo con
+     * rechazo, así que construirlo es inmediato y la memoria no depende del área.
+     */
+    public static Board sparse(int width, int height) {
+        return sparse(width, height, Math.max(width, height));
+    }
+
+    /** Crea un tablero disperso con locks por regiones (redondeadas a bloques completos) */
+    public static Board sparse(int width, int height, int regionSize) {
+        return sparse(width, height, regionSize, new SplittableRandom());
+    }
+
+    /** Crea un tablero disperso cuya aleatoriedad sale del generador dado */
+    public static Board sparse(int width, int height, int regionSize, SplittableRandom random) {
+        return new Board(width, height, regionSize, true, true, random);
+    }
+
+    /** populate es false al restaurar un punto de control: el tablero queda sin elementos */
+    private Board(int width, int height, int regionSize, boolean sparse, boolean populate,
+                  SplittableRandom random) {
         if (width <= 0 || height <= 0) {
             throw new IllegalArgumentException("Board dimensions must be positive");
         }
+        if (width > 65536 || height > 65536) {
+            throw new IllegalArgumentException("Board dimensions must fit packed cells (max 65536)");
+        }
+        if ((long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Board area must fit an int cell index");
+        }
+        if (regionSize <= 0) {
+            throw new IllegalArgumentException("regionSize must be positive");
+        }
         this.width = width;
         this.height = height;
-        // Inicializar pool con todas las posiciones
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                freePositions.add(new Position(x, y));
-            }
+        this.random = Objects.requireNonNull(random, "random");
+        if (sparse) {
+            // Cada bloque debe quedar dentro de una sola región de lock
+            regionSize = (regionSize + SparseGrid.CHUNK - 1) / SparseGrid.CHUNK * SparseGrid.CHUNK;
+            this.grid = new SparseGrid(width, height);
+            this.freeCells = null;
+        } else {
+            this.grid = new DenseGrid(width * height);
+            this.freeCells = new FreeCellPool(width * height);
+        }
+        this.bodies = new BodyIndex(width, height, grid);
+        this.locks = new RegionLocks(width, height, regionSize);
+        if (!populate) {
+            return;
         }
         for (int i = 0; i < 6; i++) {
-            mice.add(takeRandomFree());
+            place(takeRandomFree(random), MOUSE);
         }
         for (int i = 0; i < 4; i++) {
-            obstacles.add(takeRandomFree());
+            place(takeRandomFree(random), OBSTACLE);
         }
         for (int i = 0; i < 3; i++) {
-            turbo.add(takeRandomFree());
+            place(takeRandomFree(random), TURBO);
         }
-        createTeleportPairs(2);
+        createTeleportPairs(TELEPORT_PAIRS);
+        publish();
     }
 
     /** Retorna el ancho del tablero */
@@ -64,83 +165,251 @@ public final class Board {
         return height;
     }
 
+    /** Indica si el tablero usa la grilla dispersa */
+    public boolean isSparse() {
+        return freeCells == null;
+    }
+
     /** Retorna una copia del conjunto de posiciones de ratones */
-    public synchronized Set<Position> mice() {
-        return new HashSet<>(mice);
+    public Set<Position> mice() {
+        return positionsOf(MOUSE);
     }
 
     /** Retorna una copia del conjunto de posiciones de obstáculos */
-    public synchronized Set<Position> obstacles() {
-        return new HashSet<>(obstacles);
+    public Set<Position> obstacles() {
+        return positionsOf(OBSTACLE);
     }
 
     /** Retorna una copia del conjunto de posiciones de turbo */
-    public synchronized Set<Position> turbo() {
-        return new HashSet<>(turbo);
+    public Set<Position> turbo() {
+        return positionsOf(TURBO);
     }
 
     /** Retorna una copia del mapa de teletransportadores */
-    public synchronized Map<Position, Position> teleports() {
-        return new HashMap<>(teleports);
+    public Map<Position, Position> teleports() {
+        // Los teletransportadores no cambian después de construir el tablero
+        Map<Position, Position> result = new HashMap<>();
+        for (int i = 0; i < teleportCount; i++) {
+            result.put(positionOf(teleportCells[i]), positionOf(teleportTargets[i]));
+        }
+        return result;
+    }
+
+    /** Retorna la versión de los elementos; cambia cada vez que aparece o se come alguno */
+    public long itemsVersion() {
+        return itemsVersion.get();
     }
 
     /**
-     * Espera si el juego está pausado. Debe llamarse ANTES de step().
-     * Esto evita deadlock porque no adquiere el lock de Board.
+     * Predice sin tomar locks a dónde llegaría la cabeza si la serpiente avanzara en la
+     * dirección dada. Es una lectura aproximada, pensada para decidir giros.
+     * @return la celda empaquetada donde quedaría la cabeza, o -1 si chocaría
      */
-    public void waitIfPaused() {
-        synchronized (pauseLock) {
-            while (paused) {
-                try {
-                    pauseLock.wait();
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    return;
+    public int probe(Snake snake, Direction dir) {
+        int next = nextCell(snake, dir);
+        if (isBlocked(snake, next)) {
+            return -1;
+        }
+        int landing = landingOf(next);
+        return Position.pack(landing % width, landing / width);
+    }
+
+    /** Retorna el índice de la celda a la que entraría la cabeza en la dirección dada */
+    int nextCell(Snake snake, Direction dir) {
+        int head = snake.headCell();
+        return index(Math.floorMod(Position.packedX(head) + dir.dx, width),
+                Math.floorMod(Position.packedY(head) + dir.dy, height));
+    }
+
+    /** Retorna dónde queda la cabeza al entrar a la celda: el otro extremo si es un teletransportador */
+    int landingOf(int next) {
+        return grid.item(next) == TELEPORT ? teleportTarget(next) : next;
+    }
+
+    /** Indica si entrar a la celda mataría a la serpiente (obstáculo o cuerpo de otra, también a la salida) */
+    boolean isBlocked(Snake snake, int next) {
+        return grid.item(next) == OBSTACLE || bodies.occupiedByOther(next, snake.indexKey())
+                || bodies.occupiedByOther(landingOf(next), snake.indexKey());
+    }
+
+    /** Retorna el código de la celda */
+    byte itemAt(int cell) {
+        return grid.item(cell);
+    }
+
+    /** Indica si el código es un elemento que se come al llegar (ratón o turbo) */
+    static boolean isEdible(byte item) {
+        return item == MOUSE || item == TURBO;
+    }
+
+    /** Retorna el índice en la grilla de una celda empaquetada */
+    int cellIndex(int packed) {
+        return cellOf(packed);
+    }
+
+    /** Retorna la región de locks de la celda; las regiones sirven de baldosas para repartir trabajo */
+    int regionOf(int cell) {
+        return locks.regionOf(cell);
+    }
+
+    /** Retorna el número de regiones de locks */
+    int regions() {
+        return locks.regions();
+    }
+
+    /** Retorna la grilla de celdas (para verificar invariantes en las pruebas) */
+    CellGrid grid() {
+        return grid;
+    }
+
+    /** Retorna el pool de celdas libres, o null en modo disperso (para las pruebas) */
+    FreeCellPool freeCells() {
+        return freeCells;
+    }
+
+    /** Retorna la última foto publicada del tablero, sin tomar ningún lock */
+    public WorldSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Publica una foto nueva del tablero si algo cambió desde la anterior y la retorna.
+     * Copia solo lo que cambió: los elementos si cambió alguno y el cuerpo de las
+     * serpientes que se movieron; el resto se comparte con la foto anterior.
+     */
+    public WorldSnapshot publish() {
+        locks.lockAll();
+        try {
+            synchronized (this) {
+                WorldSnapshot prev = snapshot;
+                WorldSnapshot.Items items = prev != null && prev.items().version() == itemsVersion.get()
+                        ? prev.items() : buildItems(prev);
+                boolean changed = prev == null || items != prev.items();
+
+                Map<Snake, WorldSnapshot.SnakeView> previousViews = new IdentityHashMap<>();
+                if (prev != null) {
+                    for (WorldSnapshot.SnakeView v : prev.snakes()) previousViews.put(v.source, v);
+                }
+                List<WorldSnapshot.SnakeView> alive = new ArrayList<>(snakes.size());
+                for (Snake s : snakes) {
+                    WorldSnapshot.SnakeView v = previousViews.get(s);
+                    if (v == null || v.moves != s.moves()) {
+                        v = new WorldSnapshot.SnakeView(s, s.moves(), s.getId(), s.copyCells());
+                        changed = true;
+                    }
+                    alive.add(v);
+                }
+                changed |= prev == null || alive.size() != prev.snakes().size();
+
+                List<WorldSnapshot.SnakeView> dead = prev != null ? prev.deadSnakes() : List.of();
+                if (dead.size() != deadSnakes.size()) {
+                    List<WorldSnapshot.SnakeView> grown = new ArrayList<>(dead);
+                    for (int i = dead.size(); i < deadSnakes.size(); i++) {
+                        Snake s = deadSnakes.get(i);
+                        grown.add(new WorldSnapshot.SnakeView(s, s.moves(), s.getId(), s.copyCells()));
+                    }
+                    dead = List.copyOf(grown);
+                    changed = true;
                 }
+
+                if (changed) {
+                    long version = prev != null ? prev.version() + 1 : 0;
+                    snapshot = new WorldSnapshot(version, width, height, items, List.copyOf(alive), dead);
+                }
+                return snapshot;
             }
+        } finally {
+            locks.unlockAll();
         }
     }
 
-    /** Avanza la serpiente una posición en su dirección actual */
-    public synchronized MoveResult step(Snake snake) {
+    /**
+     * Retorna la barrera de pausa del tablero. Quien mueva serpientes debe hacerlo dentro
+     * de pauseGate().tryEnter() / exit() para que la pausa lo espere.
+     */
+    public PauseGate pauseGate() {
+        return pauseGate;
+    }
+
+    /**
+     * Avanza la serpiente una posición en su dirección actual. Solo bloquea las regiones
+     * de la celda siguiente, del destino del teletransporte y de la cola.
+     */
+    public MoveResult step(Snake snake) {
         Objects.requireNonNull(snake, "snake");
-        var head = snake.head();
-        var dir = snake.direction();
-        Position next = new Position(head.x() + dir.dx, head.y() + dir.dy).wrap(width, height);
+        return step(snake, snake.nextDirection());
+    }
 
-        if (obstacles.contains(next)) {
-            return MoveResult.HIT_OBSTACLE;
+    /** Como {@link #step(Snake)}, pero en la dirección ya tomada de la serpiente */
+    MoveResult step(Snake snake, Direction dir) {
+        if (!Metrics.ENABLED) {
+            return move(snake, dir);
         }
+        long start = System.nanoTime();
+        try {
+            return move(snake, dir);
+        } finally {
+            Metrics.STEP.record(System.nanoTime() - start);
+            Metrics.MOVES.increment();
+        }
+    }
 
-        for (Snake other : snakes) {
-            if (other != snake && other.snapshot().contains(next)) {
+    /** Cuerpo de {@link #step(Snake, Direction)} */
+    private MoveResult move(Snake snake, Direction dir) {
+        int head = snake.headCell();
+        int next = nextCell(snake, dir);
+        // Los teletransportadores son fijos, así que el destino se resuelve antes de bloquear
+        int landing = landingOf(next);
+        int tail = cellOf(snake.tailCell());
+        boolean ateMouse;
+        boolean ateTurbo;
+
+        long lockStart = Metrics.ENABLED ? System.nanoTime() : 0;
+        locks.lock(next, landing, tail);
+        if (Metrics.ENABLED) {
+            Metrics.LOCK_WAIT.record(System.nanoTime() - lockStart);
+        }
+        try {
+            if (grid.item(next) == OBSTACLE) {
                 return MoveResult.HIT_OBSTACLE;
             }
-        }
 
-        boolean teleported = false;
-        if (teleports.containsKey(next)) {
-            next = teleports.get(next);
-            teleported = true;
-        }
+            // A la salida de un teletransportador también se choca: dos cuerpos nunca comparten celda
+            if (bodies.occupiedByOther(next, snake.indexKey()) || bodies.occupiedByOther(landing, snake.indexKey())) {
+                return MoveResult.HIT_OBSTACLE;
+            }
+
+            byte item = grid.item(landing);
+            ateMouse = item == MOUSE;
+            ateTurbo = item == TURBO;
 
-        boolean ateMouse = mice.remove(next);
-        boolean ateTurbo = turbo.remove(next);
-        
-        // Devolver posiciones liberadas al pool
-        if (ateMouse) releasePosition(next);
-        if (ateTurbo) releasePosition(next);
+            // Devolver posiciones liberadas al pool
+            if (ateMouse || ateTurbo) {
+                grid.setItem(landing, EMPTY);
+                itemsVersion.incrementAndGet();
+                releaseCell(landing);
+            }
+
+            int to = Position.pack(landing % width, landing / width);
+            snake.advance(to, ateMouse);
 
-        snake.advance(next, ateMouse);
+            BoardListener[] ls = listeners;
+            for (BoardListener l : ls) {
+                if (landing != next) l.teleported(snake, Position.pack(next % width, next / width), to);
+                if (ateMouse || ateTurbo) l.itemEaten(snake, ITEMS[item - 1], to);
+                l.snakeMoved(snake, head, to, ateMouse);
+            }
+        } finally {
+            locks.unlock(next, landing, tail);
+        }
 
+        // Los nuevos elementos caen en cualquier región: se ubican después de liberar los locks
         if (ateMouse) {
-            Position newMouse = takeRandomFree();
-            Position newObstacle = takeRandomFree();
-            if (newMouse != null) mice.add(newMouse);
-            if (newObstacle != null) obstacles.add(newObstacle);
-            if (ThreadLocalRandom.current().nextDouble() < 0.2) {
-                Position newTurbo = takeRandomFree();
-                if (newTurbo != null) turbo.add(newTurbo);
+            SplittableRandom rnd = snake.random();
+            spawn(MOUSE, rnd);
+            spawn(OBSTACLE, rnd);
+            if (rnd.nextDouble() < 0.2) {
+                spawn(TURBO, rnd);
             }
         }
 
@@ -150,7 +419,7 @@ public final class Board {
         if (ateMouse) {
             return MoveResult.ATE_MOUSE;
         }
-        if (teleported) {
+        if (landing != next) {
             return MoveResult.TELEPORTED;
         }
         return MoveResult.MOVED;
@@ -161,64 +430,513 @@ public final class Board {
      */
     private void createTeleportPairs(int pairs) {
         for (int i = 0; i < pairs; i++) {
-            Position a = takeRandomFree();
-            Position b = takeRandomFree();
-            if (a != null && b != null) {
-                teleports.put(a, b);
-                teleports.put(b, a);
+            int ia = takeRandomFree(random);
+            place(ia, TELEPORT);  // Marcada antes de elegir la otra para que el muestreo no la repita
+            int ib = takeRandomFree(random);
+            if (ia < 0 || ib < 0) {
+                if (ia >= 0) {
+                    grid.setItem(ia, EMPTY);
+                    releaseCell(ia);
+                }
+                return;
             }
+            place(ib, TELEPORT);
+            teleportCells[teleportCount] = ia;
+            teleportTargets[teleportCount++] = ib;
+            teleportCells[teleportCount] = ib;
+            teleportTargets[teleportCount++] = ia;
         }
     }
 
+    /** Retorna el destino del teletransportador en la celda dada */
+    private int teleportTarget(int cell) {
+        for (int i = 0; i < teleportCount; i++) {
+            if (teleportCells[i] == cell) {
+                return teleportTargets[i];
+            }
+        }
+        return cell;
+    }
+
+    /** Retorna el índice en la grilla de la celda (x, y) */
+    private int index(int x, int y) {
+        return y * width + x;
+    }
+
+    /** Retorna el índice de una celda empaquetada, envolviendo las que quedan fuera del tablero */
+    private int cellOf(int packed) {
+        return index(Position.packedX(packed) % width, Position.packedY(packed) % height);
+    }
+
+    /** Retorna la posición de un índice de la grilla */
+    private Position positionOf(int cell) {
+        return new Position(cell % width, cell / width);
+    }
+
+    /** Toma una celda libre y la marca con el código dado bajo el lock de su región */
+    private void spawn(byte code, SplittableRandom rnd) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        try {
+            spawnOnce(code, rnd);
+        } finally {
+            if (Metrics.ENABLED) {
+                Metrics.SPAWN.record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /** Cuerpo de {@link #spawn(byte, SplittableRandom)} */
+    private void spawnOnce(byte code, SplittableRandom rnd) {
+        while (true) {
+            int cell = takeRandomFree(rnd);
+            if (cell < 0) {
+                return;
+            }
+            locks.lock(cell);
+            try {
+                // En modo disperso la celda es solo candidata: otro hilo pudo ocuparla antes
+                if (grid.item(cell) == EMPTY) {
+                    grid.setItem(cell, code);
+                    itemsVersion.incrementAndGet();
+                    for (BoardListener l : listeners) {
+                        l.itemSpawned(ITEMS[code - 1], Position.pack(cell % width, cell / width));
+                    }
+                    return;
+                }
+            } finally {
+                locks.unlock(cell);
+            }
+        }
+    }
+
+    /** Marca la celda con el código indicado (ignora celdas inválidas, -1) */
+    private void place(int cell, byte code) {
+        if (cell >= 0) {
+            grid.setItem(cell, code);
+        }
+    }
+
+    /** Construye los elementos de una foto, reutilizando los teletransportadores, que no cambian */
+    private WorldSnapshot.Items buildItems(WorldSnapshot prev) {
+        long version = itemsVersion.get();
+        Map<Position, Position> tp = prev != null ? prev.items().teleports() : Map.copyOf(teleports());
+        return new WorldSnapshot.Items(version, Set.copyOf(positionsOf(MOUSE)), Set.copyOf(positionsOf(OBSTACLE)),
+                Set.copyOf(positionsOf(TURBO)), tp);
+    }
+
+    /** Construye el conjunto de posiciones cuyas celdas tienen el código dado */
+    private Set<Position> positionsOf(byte code) {
+        Set<Position> result = new HashSet<>();
+        locks.lockAll();
+        try {
+            grid.forEachItem(code, cell -> result.add(positionOf(cell)));
+        } finally {
+            locks.unlockAll();
+        }
+        return result;
+    }
+
     /**
-     * Obtiene y remueve una posición aleatoria del pool de posiciones libres.
-     * Complejidad O(n) para conversión a lista, pero evita loops infinitos.
-     * @return posición libre aleatoria, o null si no hay posiciones disponibles
+     * Obtiene y remueve una celda aleatoria del pool de celdas libres en O(1).
+     * En modo disperso la muestrea por rechazo (ver {@link #sampleFree(SplittableRandom)}).
+     * El generador es de un solo hilo: el del tablero al construirlo o el de la serpiente que comió.
+     * @return celda libre aleatoria, o -1 si no hay celdas disponibles
      */
-    private Position takeRandomFree() {
-        if (freePositions.isEmpty()) {
-            return null;  // No hay posiciones libres
+    private int takeRandomFree(SplittableRandom rnd) {
+        if (freeCells == null) {
+            return sampleFree(rnd);
+        }
+        freeCellsLock.lock();
+        try {
+            return freeCells.takeRandom(rnd);
+        } finally {
+            freeCellsLock.unlock();
+        }
+    }
+
+    /** Como {@link #takeRandomFree(SplittableRandom)} pero sin remover la celda del pool */
+    private int peekRandomFree(SplittableRandom rnd) {
+        if (freeCells == null) {
+            return sampleFree(rnd);
+        }
+        freeCellsLock.lock();
+        try {
+            return freeCells.peekRandom(rnd);
+        } finally {
+            freeCellsLock.unlock();
         }
-        List<Position> freeList = new ArrayList<>(freePositions);
-        int idx = ThreadLocalRandom.current().nextInt(freeList.size());
-        Position selected = freeList.get(idx);
-        freePositions.remove(selected);
-        return selected;
     }
 
     /**
-     * Devuelve una posición al pool de posiciones libres.
+     * Devuelve una celda al pool de celdas libres. Es idempotente, por lo que una
+     * celda liberada por más de un motivo no queda duplicada en el pool.
      */
-    private void releasePosition(Position p) {
-        if (p != null) {
-            freePositions.add(p);
+    private void releaseCell(int cell) {
+        if (freeCells == null) {
+            return;
+        }
+        freeCellsLock.lock();
+        try {
+            freeCells.release(cell);
+        } finally {
+            freeCellsLock.unlock();
         }
     }
 
-    /** Establece el estado de pausa del juego */
+    /**
+     * Elige al azar una celda sin elementos probando celdas hasta dar con una vacía.
+     * Se lee sin lock, así que es solo candidata hasta marcarla bajo el lock de su región.
+     * Si el tablero está casi lleno recorre desde un punto aleatorio.
+     * @return celda candidata, o -1 si no hay celdas libres
+     */
+    private int sampleFree(SplittableRandom random) {
+        long area = (long) width * height;
+        if (grid.itemCount() >= area) {
+            return -1;
+        }
+        for (int i = 0; i < 64; i++) {
+            int cell = (int) random.nextLong(area);
+            if (grid.item(cell) == EMPTY) {
+                return cell;
+            }
+        }
+        long start = random.nextLong(area);
+        for (long i = 0; i < area; i++) {
+            int cell = (int) ((start + i) % area);
+            if (grid.item(cell) == EMPTY) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Establece el estado de pausa del juego. Al pausar retorna solo cuando ningún
+     * movimiento está en curso, así que lo que se lea después es un estado consistente.
+     */
     public void setPaused(boolean paused) {
-        synchronized (pauseLock) {
-            this.paused = paused;
-            if (!paused) {
-                pauseLock.notifyAll();
+        if (paused) {
+            pauseGate.pause();
+        } else {
+            pauseGate.resume();
+        }
+    }
+
+    /** Indica si el juego está en pausa */
+    public boolean isPaused() {
+        return pauseGate.isPaused();
+    }
+
+    /**
+     * Guarda el estado completo del tablero en un punto de control escrito por un archivo
+     * mapeado en memoria: dimensiones, teletransportadores, el código de cada celda (en
+     * modo disperso, solo las celdas con elementos) y el cuerpo, la dirección y la
+     * longitud objetivo de cada serpiente. Bloquea todo el tablero mientras copia, así que
+     * conviene pausarlo antes; el archivo se reemplaza si existe.
+     *
+     * <pre>
+     * MAGIC VERSION ancho alto región disperso(1) versión-elementos(8)
+     * n [celda destino]*                               teletransportadores
+     * denso: código(1) por celda | disperso: n [celda código(1)]*
+     * vivas [serpiente]* muertas [serpiente]*
+     * serpiente: id dirección(1) longitud-objetivo movimientos(8) largo [celda]*
+     * </pre>
+     * Todo va en enteros de 4 bytes salvo lo indicado.
+     */
+    public void checkpoint(Path file) throws IOException {
+        MappedByteBuffer out;
+        locks.lockAll();
+        try {
+            synchronized (this) {
+                long size = checkpointSize();
+                if (size > Integer.MAX_VALUE) {
+                    throw new IOException("Checkpoint too large for a single mapping: " + size + " bytes");
+                }
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                }
+                writeCheckpoint(out);
             }
+        } finally {
+            locks.unlockAll();
+        }
+        out.force();  // El disco se sincroniza con el tablero ya liberado
+    }
+
+    /**
+     * Reconstruye un tablero guardado con {@link #checkpoint(Path)}, sin observadores. Las
+     * serpientes quedan en el tablero; hay que volver a ponerlas en marcha (runners o motor).
+     * @throws IOException si el archivo no es un punto de control válido
+     */
+    public static Board restore(Path file) throws IOException {
+        return restore(file, new SplittableRandom());
+    }
+
+    /**
+     * Reconstruye un tablero guardado cuya aleatoriedad en adelante sale del generador
+     * dado, p. ej. para lanzar varias simulaciones distintas desde el mismo estado.
+     */
+    public static Board restore(Path file, SplittableRandom random) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return readCheckpoint(in, random);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException
+                 | NegativeArraySizeException e) {
+            throw new IOException("Corrupt checkpoint " + file, e);
         }
     }
 
+    /** Bytes que ocupa el punto de control del estado actual */
+    private long checkpointSize() {
+        long size = 4L * 5 + 1 + 8 + 4 + 8L * teleportCount;
+        size += isSparse() ? 4 + 5 * grid.itemCount() : (long) width * height;
+        size += 8;
+        for (Snake s : snakes) size += 21 + 4L * s.length();
+        for (Snake s : deadSnakes) size += 21 + 4L * s.length();
+        return size;
+    }
+
+    private void writeCheckpoint(ByteBuffer out) {
+        out.putInt(CHECKPOINT_MAGIC).putInt(CHECKPOINT_VERSION);
+        out.putInt(width).putInt(height).putInt(locks.regionSize()).put((byte) (isSparse() ? 1 : 0));
+        out.putLong(itemsVersion.get());
+        out.putInt(teleportCount);
+        for (int i = 0; i < teleportCount; i++) {
+            out.putInt(teleportCells[i]).putInt(teleportTargets[i]);
+        }
+        if (isSparse()) {
+            out.putInt((int) grid.itemCount());
+            for (byte code = MOUSE; code <= TELEPORT; code++) {
+                byte c = code;
+                grid.forEachItem(code, cell -> out.putInt(cell).put(c));
+            }
+        } else {
+            ((DenseGrid) grid).writeItems(out);
+        }
+        writeSnakes(out, snakes);
+        writeSnakes(out, deadSnakes);
+    }
+
+    private static void writeSnakes(ByteBuffer out, List<Snake> list) {
+        out.putInt(list.size());
+        for (Snake s : list) {
+            int length = s.length();
+            out.putInt(s.getId()).put((byte) s.direction().ordinal()).putInt(s.targetLength());
+            out.putLong(s.moves()).putInt(length);
+            for (int i = 0; i < length; i++) out.putInt(s.cellAt(i));
+        }
+    }
+
+    private static Board readCheckpoint(ByteBuffer in, SplittableRandom random) throws IOException {
+        if (in.remaining() < 8 || in.getInt() != CHECKPOINT_MAGIC) {
+            throw new IOException("Not a board checkpoint");
+        }
+        int version = in.getInt();
+        if (version != CHECKPOINT_VERSION) {
+            throw new IOException("Unsupported checkpoint version " + version);
+        }
+        int width = in.getInt();
+        int height = in.getInt();
+        int regionSize = in.getInt();
+        boolean sparse = in.get() != 0;
+        Board b = new Board(width, height, regionSize, sparse, false, random);
+        b.itemsVersion.set(in.getLong());
+        int teleports = in.getInt();
+        if (teleports < 0 || teleports > b.teleportCells.length) {
+            throw new IOException("Invalid teleport count: " + teleports);
+        }
+        int area = width * height;
+        for (int i = 0; i < teleports; i++) {
+            int cell = in.getInt();
+            int target = in.getInt();
+            if (cell < 0 || cell >= area || target < 0 || target >= area) {
+                throw new IOException("Teleport outside the board: " + cell + " -> " + target);
+            }
+            b.teleportCells[i] = cell;
+            b.teleportTargets[i] = target;
+        }
+        b.teleportCount = teleports;
+        if (sparse) {
+            int n = in.getInt();
+            for (int i = 0; i < n; i++) {
+                int cell = in.getInt();
+                byte code = in.get();
+                if (cell < 0 || cell >= area || code < MOUSE || code > TELEPORT) {
+                    throw new IOException("Invalid item " + code + " at cell " + cell);
+                }
+                b.grid.setItem(cell, code);
+            }
+        } else {
+            ((DenseGrid) b.grid).readItems(in);
+            for (int cell = 0; cell < area; cell++) {
+                if (b.grid.item(cell) != EMPTY) b.freeCells.remove(cell);
+            }
+        }
+        for (Snake s : readSnakes(in)) b.addSnake(s);
+        b.deadSnakes.addAll(readSnakes(in));
+        b.publish();
+        return b;
+    }
+
+    private static List<Snake> readSnakes(ByteBuffer in) {
+        int n = in.getInt();
+        List<Snake> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int id = in.getInt();
+            Direction dir = DIRECTIONS[in.get()];
+            int target = in.getInt();
+            long moves = in.getLong();
+            int[] cells = new int[in.getInt()];
+            in.asIntBuffer().get(cells);
+            in.position(in.position() + 4 * cells.length);
+            list.add(Snake.restore(id, dir, target, moves, cells));
+        }
+        return list;
+    }
+
+    /**
+     * Deriva un generador independiente del generador del tablero, p. ej. para los giros
+     * de cada serpiente. Los generadores derivados en el mismo orden son los mismos.
+     */
+    public synchronized SplittableRandom newRandom() {
+        return random.split();
+    }
+
     /** Retorna una copia de la lista de serpientes muertas */
     public synchronized List<Snake> getDeadSnakes() {
         return new ArrayList<>(deadSnakes);
     }
     
     /** Agrega una serpiente muerta al tablero */
-    public synchronized void addDeadSnake(Snake snake) {
-        this.deadSnakes.add(snake);
-        this.snakes.remove(snake);
+    public void addDeadSnake(Snake snake) {
+        // El cuerpo puede cruzar cualquier región: se retira del índice con todas bloqueadas
+        locks.lockAll();
+        try {
+            boolean wasAlive;
+            synchronized (this) {
+                this.deadSnakes.add(snake);
+                wasAlive = this.snakes.remove(snake);
+            }
+            if (wasAlive) {
+                snake.detach();
+                for (BoardListener l : listeners) {
+                    l.snakeDied(snake);
+                }
+            }
+        } finally {
+            locks.unlockAll();
+        }
+    }
+
+    /**
+     * Elige al azar una celda sin elementos ni cuerpos de serpientes, como punto de partida
+     * de una serpiente nueva. Las candidatas salen del pool de celdas libres (o se muestrean
+     * en modo disperso) y se descartan las ocupadas; la celda sigue libre hasta usarla.
+     * @return posición libre, o null si no queda ninguna
+     */
+    public Position freeCell(SplittableRandom rnd) {
+        locks.lockAll();
+        try {
+            for (int i = 0; i < 64; i++) {
+                int cell = peekRandomFree(rnd);
+                if (cell < 0) {
+                    return null;
+                }
+                if (!bodies.occupiedByOther(cell, 0)) {
+                    return positionOf(cell);
+                }
+            }
+            // Tablero casi lleno de cuerpos: recorre desde un punto aleatorio
+            long area = (long) width * height;
+            long start = rnd.nextLong(area);
+            for (long i = 0; i < area; i++) {
+                int cell = (int) ((start + i) % area);
+                if (grid.item(cell) == EMPTY && !bodies.occupiedByOther(cell, 0)) {
+                    return positionOf(cell);
+                }
+            }
+            return null;
+        } finally {
+            locks.unlockAll();
+        }
     }
 
     /** Agrega una serpiente al tablero */
-    public synchronized void addSnake(Snake snake) {
-        snakes.add(snake);
+    public void addSnake(Snake snake) {
+        locks.lockAll();
+        try {
+            synchronized (this) {
+                snakes.add(snake);
+                snake.attach(bodies, random.split());
+            }
+            for (BoardListener l : listeners) {
+                l.snakeAdded(snake);
+            }
+        } finally {
+            locks.unlockAll();
+        }
+    }
+
+    /**
+     * Registra un observador de eventos. Con todo el tablero bloqueado le entrega primero
+     * el estado actual como eventos (elementos que no son teletransportadores, que no
+     * cambian, y serpientes vivas), así que parte de un corte consistente sin perder nada.
+     */
+    public void addListener(BoardListener listener) {
+        Objects.requireNonNull(listener, "listener");
+        locks.lockAll();
+        try {
+            List<Snake> alive;
+            synchronized (this) {
+                BoardListener[] grown = Arrays.copyOf(listeners, listeners.length + 1);
+                grown[grown.length - 1] = listener;
+                listeners = grown;
+                alive = new ArrayList<>(snakes);
+            }
+            for (byte code = MOUSE; code < TELEPORT; code++) {
+                Item item = ITEMS[code - 1];
+                grid.forEachItem(code, cell -> listener.itemSpawned(item, Position.pack(cell % width, cell / width)));
+            }
+            for (Snake s : alive) {
+                listener.snakeAdded(s);
+            }
+        } finally {
+            locks.unlockAll();
+        }
+    }
+
+    /** Elimina un observador de eventos */
+    public void removeListener(BoardListener listener) {
+        locks.lockAll();
+        try {
+            synchronized (this) {
+                List<BoardListener> rest = new ArrayList<>(Arrays.asList(listeners));
+                rest.remove(listener);
+                listeners = rest.toArray(new BoardListener[0]);
+            }
+        } finally {
+            locks.unlockAll();
+        }
+    }
+
+    /**
+     * Avisa a los observadores que terminó un tick (o un cuadro, en el modo con hilos).
+     * Se notifica con todo el tablero bloqueado, así que ven un corte consistente.
+     */
+    public void tickCompleted(long tick) {
+        BoardListener[] ls = listeners;
+        if (ls.length == 0) {
+            return;
+        }
+        locks.lockAll();
+        try {
+            for (BoardListener l : ls) {
+                l.tickCompleted(tick);
+            }
+        } finally {
+            locks.unlockAll();
+        }
     }
 
     /** Retorna una copia de la lista de serpientes */
@@ -237,6 +955,17 @@ public final class Board {
         return snakes.size();
     }
 
+    /** Retorna la serpiente muerta en el índice dado (en orden de muerte), sin copiar la lista */
+    public synchronized Snake getDeadSnake(int index) {
+        if (index < 0 || index >= deadSnakes.size()) return null;
+        return deadSnakes.get(index);
+    }
+
+    /** Retorna el número de serpientes muertas */
+    public synchronized int deadSnakeCount() {
+        return deadSnakes.size();
+    }
+
     /** Verifica si el juego terminó (1 o menos serpientes vivas) */
     public synchronized boolean isGameOver() {
         return snakes.size() <= 1;
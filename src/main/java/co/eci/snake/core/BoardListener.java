@@ -0,0 +1,32 @@
+package co.eci.snake.core;
+
+/**
+ * Observador de los cambios del tablero. Cada evento se emite bajo el lock de las regiones
+ * que cambia, así que los eventos de una misma celda llegan en el orden en que ocurrieron;
+ * eventos de regiones distintas pueden llegar a la vez desde hilos distintos. Las celdas
+ * van empaquetadas con {@link Position#pack(int, int)}. Los métodos deben ser rápidos y
+ * no deben llamar de vuelta al tablero salvo desde {@link #tickCompleted(long)}.
+ */
+public interface BoardListener {
+
+  /** Una serpiente se agregó al tablero (o ya estaba al registrar el observador) */
+  default void snakeAdded(Snake snake) {}
+
+  /** La serpiente avanzó de la celda from a la celda to, creciendo si grew */
+  default void snakeMoved(Snake snake, int from, int to, boolean grew) {}
+
+  /** La serpiente entró al teletransportador en entry y salió por exit */
+  default void teleported(Snake snake, int entry, int exit) {}
+
+  /** Apareció un elemento en la celda (o ya estaba al registrar el observador) */
+  default void itemSpawned(Item item, int cell) {}
+
+  /** La serpiente se comió el elemento de la celda */
+  default void itemEaten(Snake snake, Item item, int cell) {}
+
+  /** La serpiente murió */
+  default void snakeDied(Snake snake) {}
+
+  /** Terminó el tick indicado; se llama con todo el tablero bloqueado */
+  default void tickCompleted(long tick) {}
+}
@@ -0,0 +1,47 @@
+package co.eci.snake.core;
+
+/**
+ * Índice incremental de ocupación de los cuerpos de las serpientes por celda.
+ * Por cada celda guarda cuántos segmentos la ocupan, la suma de las claves de sus
+ * dueños y la suma de sus cuadrados: si la suma es n*k y la de cuadrados n*k^2,
+ * todos los segmentos pertenecen a la serpiente k (la varianza es cero). Así se
+ * responde en O(1) y sin asignar si otra serpiente ocupa una celda, aunque una
+ * serpiente se solape consigo misma. Los contadores viven en la {@link CellGrid}.
+ */
+final class BodyIndex {
+  private final int width;
+  private final int height;
+  private final CellGrid grid;
+  private int nextKey = 1;
+
+  BodyIndex(int width, int height, CellGrid grid) {
+    this.width = width;
+    this.height = height;
+    this.grid = grid;
+  }
+
+  /** Asigna una clave única a una serpiente que se registra en el índice */
+  int newKey() {
+    return nextKey++;
+  }
+
+  /** Registra un segmento de la serpiente con clave key en la celda empaquetada dada */
+  void enter(int packed, int key) {
+    grid.enterSegment(cellOf(packed), key);
+  }
+
+  /** Elimina un segmento de la serpiente con clave key de la celda empaquetada dada */
+  void leave(int packed, int key) {
+    grid.leaveSegment(cellOf(packed), key);
+  }
+
+  /** Retorna el índice de la celda empaquetada, envolviendo las que quedan fuera del tablero */
+  private int cellOf(int packed) {
+    return (Position.packedY(packed) % height) * width + Position.packedX(packed) % width;
+  }
+
+  /** Indica si alguna serpiente distinta a la de clave key ocupa la celda */
+  boolean occupiedByOther(int cell, int key) {
+    return grid.occupiedByOther(cell, key);
+  }
+}
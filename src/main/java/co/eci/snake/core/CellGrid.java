@@ -0,0 +1,37 @@
+package co.eci.snake.core;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Almacenamiento por celda del tablero: el código del elemento que la ocupa y los
+ * contadores del índice de cuerpos (ver {@link BodyIndex}). Las celdas se identifican
+ * por su índice y * width + x. Cada celda solo se modifica bajo el lock de su región.
+ */
+interface CellGrid {
+
+  /** Retorna el código del elemento en la celda */
+  byte item(int cell);
+
+  /** Cambia el código del elemento en la celda */
+  void setItem(int cell, byte code);
+
+  /** Registra un segmento de la serpiente con clave key en la celda */
+  void enterSegment(int cell, int key);
+
+  /** Elimina un segmento de la serpiente con clave key de la celda */
+  void leaveSegment(int cell, int key);
+
+  /** Indica si alguna serpiente distinta a la de clave key ocupa la celda */
+  boolean occupiedByOther(int cell, int key);
+
+  /** Recorre las celdas cuyo elemento tiene el código dado */
+  void forEachItem(byte code, IntConsumer action);
+
+  /** Retorna el número de celdas con algún elemento */
+  long itemCount();
+
+  /** Indica si la celda está ocupada por n segmentos que no son todos de la serpiente key */
+  static boolean mixed(long n, long keySum, long keySquareSum, int key) {
+    return n > 0 && (keySum != n * key || keySquareSum != n * key * key);
+  }
+}
@@ -0,0 +1,83 @@
+package co.eci.snake.core;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/** Grilla densa: arreglos planos con una entrada por celda, reservados al construir */
+final class DenseGrid implements CellGrid {
+  private final byte[] items;
+  private final int[] count;
+  private final long[] keySum;
+  private final long[] keySquareSum;
+  private final AtomicLong itemCount = new AtomicLong();
+
+  DenseGrid(int area) {
+    this.items = new byte[area];
+    this.count = new int[area];
+    this.keySum = new long[area];
+    this.keySquareSum = new long[area];
+  }
+
+  @Override
+  public byte item(int cell) {
+    return items[cell];
+  }
+
+  @Override
+  public void setItem(int cell, byte code) {
+    byte old = items[cell];
+    items[cell] = code;
+    if ((old == 0) != (code == 0)) {
+      itemCount.addAndGet(code == 0 ? -1 : 1);
+    }
+  }
+
+  @Override
+  public void enterSegment(int cell, int key) {
+    count[cell]++;
+    keySum[cell] += key;
+    keySquareSum[cell] += (long) key * key;
+  }
+
+  @Override
+  public void leaveSegment(int cell, int key) {
+    count[cell]--;
+    keySum[cell] -= key;
+    keySquareSum[cell] -= (long) key * key;
+  }
+
+  @Override
+  public boolean occupiedByOther(int cell, int key) {
+    return CellGrid.mixed(count[cell], keySum[cell], keySquareSum[cell], key);
+  }
+
+  @Override
+  public void forEachItem(byte code, IntConsumer action) {
+    for (int i = 0; i < items.length; i++) {
+      if (items[i] == code) {
+        action.accept(i);
+      }
+    }
+  }
+
+  @Override
+  public long itemCount() {
+    return itemCount.get();
+  }
+
+  /** Copia el código de cada celda al buffer, un byte por celda */
+  void writeItems(ByteBuffer out) {
+    out.put(items);
+  }
+
+  /** Reemplaza el código de cada celda por los del buffer, un byte por celda */
+  void readItems(ByteBuffer in) {
+    in.get(items);
+    long n = 0;
+    for (byte code : items) {
+      if (code != 0) n++;
+    }
+    itemCount.set(n);
+  }
+}
@@ -0,0 +1,77 @@
+package co.eci.snake.core;
+
+import java.util.SplittableRandom;
+
+/**
+ * Pool de celdas libres respaldado por un arreglo denso y un mapa inverso de índices.
+ * Tomar una celda aleatoria y devolverla cuesta O(1) sin asignar memoria: la celda
+ * elegida se intercambia con la última del prefijo libre (swap-remove).
+ */
+final class FreeCellPool {
+  private final int[] cells;  // Prefijo [0, size) con las celdas libres
+  private final int[] slots;  // Posición de cada celda en cells, -1 si no está libre
+  private int size;
+
+  /** Crea un pool con todas las celdas [0, capacity) libres */
+  FreeCellPool(int capacity) {
+    this.cells = new int[capacity];
+    this.slots = new int[capacity];
+    for (int i = 0; i < capacity; i++) {
+      cells[i] = i;
+      slots[i] = i;
+    }
+    this.size = capacity;
+  }
+
+  /** Retorna el número de celdas libres */
+  int size() {
+    return size;
+  }
+
+  /** Indica si la celda está en el pool */
+  boolean contains(int cell) {
+    return slots[cell] >= 0;
+  }
+
+  /**
+   * Obtiene y remueve una celda libre elegida con el generador dado.
+   * @return celda libre, o -1 si no hay celdas disponibles
+   */
+  int takeRandom(SplittableRandom random) {
+    if (size == 0) {
+      return -1;
+    }
+    int cell = cells[random.nextInt(size)];
+    remove(cell);
+    return cell;
+  }
+
+  /**
+   * Elige una celda libre con el generador dado sin removerla del pool.
+   * @return celda libre, o -1 si no hay celdas disponibles
+   */
+  int peekRandom(SplittableRandom random) {
+    return size == 0 ? -1 : cells[random.nextInt(size)];
+  }
+
+  /** Remueve la celda del pool si está libre */
+  void remove(int cell) {
+    int slot = slots[cell];
+    if (slot < 0) {
+      return;
+    }
+    int last = cells[--size];
+    cells[slot] = last;
+    slots[last] = slot;
+    slots[cell] = -1;
+  }
+
+  /** Devuelve la celda al pool; devolver una celda que ya está libre no tiene efecto */
+  void release(int cell) {
+    if (slots[cell] >= 0) {
+      return;
+    }
+    cells[size] = cell;
+    slots[cell] = size++;
+  }
+}
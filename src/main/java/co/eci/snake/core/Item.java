@@ -0,0 +1,4 @@
+package co.eci.snake.core;
+
+/** Elementos que pueden ocupar una celda del tablero */
+public enum Item { MOUSE, OBSTACLE, TURBO, TELEPORT }
@@ -0,0 +1,292 @@
+package co.eci.snake.core;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Mueve muchas serpientes de un tablero en paralelo con el mismo resultado que moverlas una
+ * por una, en el orden dado, con {@link Board#step(Snake)} (y {@link Board#addDeadSnake} a
+ * las que chocan, justo después de su paso). Cada paso tiene tres fases:
+ * <ol>
+ *   <li>Intención, en paralelo y repartida por baldosas (las regiones de locks): cada
+ *   serpiente toma su giro y calcula su celda siguiente, su destino y lo que hay en ellas
+ *   en el tablero tal como está al empezar el paso, sin tomar locks.</li>
+ *   <li>Conflictos, secuencial y determinista: una serpiente es independiente si no choca
+ *   ni come y ninguna otra escribe (con su cabeza nueva o su cola que se retira) las celdas
+ *   que ella lee, ni lee las que ella escribe. Las independientes conmutan con todas.</li>
+ *   <li>Confirmación, en el orden dado: las independientes se acumulan y se mueven en bloque
+ *   en paralelo; las demás (choques de cabezas, cabeza contra cuerpo, comidas) se mueven
+ *   solas en su turno, después del bloque anterior, así que el desempate es el orden.</li>
+ * </ol>
+ * Comer hace aparecer elementos en celdas al azar, que pueden caer donde una serpiente
+ * independiente posterior iba a entrar; por eso cada una se revisa al confirmarla y, si su
+ * celda cambió, se mueve sola. Una instancia la usa un solo hilo a la vez.
+ */
+public final class ParallelStep {
+  /** Por debajo de este número de serpientes se mueven una por una sin repartir */
+  private static final int SEQUENTIAL_THRESHOLD = 256;
+  /** Serpientes por tarea al repartir */
+  private static final int GRAIN = 256;
+
+  private final Board board;
+  private final ForkJoinPool pool;
+  private final Claims claims = new Claims();
+
+  // Plan del paso en curso, por posición en el orden; se reutiliza entre pasos
+  private Direction[] dirs = new Direction[0];
+  private int[] next = new int[0];
+  private int[] landing = new int[0];
+  private int[] tail = new int[0];
+  private byte[] nextItem = new byte[0];
+  private byte[] landingItem = new byte[0];
+  private boolean[] alone = new boolean[0];  // Se mueve sola en su turno
+  private int[] byTile = new int[0];  // Posiciones ordenadas por la baldosa de su cabeza
+  private int[] tileStart = new int[0];
+  private int[] run = new int[0];  // Bloque de independientes pendiente de confirmar
+
+  public ParallelStep(Board board, ForkJoinPool pool) {
+    this.board = Objects.requireNonNull(board, "board");
+    this.pool = Objects.requireNonNull(pool, "pool");
+  }
+
+  /**
+   * Mueve snakes[0, count) una celda cada una y deja el resultado de cada una en results.
+   * Las que chocan quedan agregadas a las muertas del tablero.
+   */
+  public void step(Snake[] snakes, int count, Board.MoveResult[] results) {
+    if (count < SEQUENTIAL_THRESHOLD || pool.getParallelism() == 1) {
+      for (int i = 0; i < count; i++) results[i] = stepAlone(snakes[i], snakes[i].nextDirection());
+      return;
+    }
+    ensureCapacity(count);
+    sortByTile(snakes, count);
+    pool.invoke(new PlanTask(snakes, 0, count));
+    findConflicts(count);
+    commit(snakes, count, results);
+  }
+
+  private Board.MoveResult stepAlone(Snake snake, Direction dir) {
+    Board.MoveResult res = board.step(snake, dir);
+    if (res == Board.MoveResult.HIT_OBSTACLE) board.addDeadSnake(snake);
+    return res;
+  }
+
+  private void ensureCapacity(int count) {
+    if (dirs.length >= count) return;
+    int n = Math.max(count, dirs.length * 2);
+    dirs = new Direction[n];
+    next = new int[n];
+    landing = new int[n];
+    tail = new int[n];
+    nextItem = new byte[n];
+    landingItem = new byte[n];
+    alone = new boolean[n];
+    byTile = new int[n];
+    run = new int[n];
+  }
+
+  /** Ordena las posiciones por la baldosa de la cabeza (conteo), para que cada tarea lea celdas vecinas */
+  private void sortByTile(Snake[] snakes, int count) {
+    int tiles = board.regions();
+    if (tileStart.length < tiles + 1) tileStart = new int[tiles + 1];
+    Arrays.fill(tileStart, 0, tiles + 1, 0);
+    for (int i = 0; i < count; i++) tileStart[tileOf(snakes[i]) + 1]++;
+    for (int t = 0; t < tiles; t++) tileStart[t + 1] += tileStart[t];
+    for (int i = 0; i < count; i++) byTile[tileStart[tileOf(snakes[i])]++] = i;
+  }
+
+  private int tileOf(Snake snake) {
+    return board.regionOf(board.cellIndex(snake.headCell()));
+  }
+
+  /** Fase 1 para la serpiente en la posición i; solo lee el tablero */
+  private void plan(Snake snake, int i) {
+    Direction dir = snake.nextDirection();
+    int n = board.nextCell(snake, dir);
+    int l = board.landingOf(n);
+    dirs[i] = dir;
+    next[i] = n;
+    landing[i] = l;
+    tail[i] = board.cellIndex(snake.tailCell());
+    nextItem[i] = board.itemAt(n);
+    landingItem[i] = board.itemAt(l);
+    alone[i] = board.isBlocked(snake, n) || Board.isEdible(landingItem[i]);
+  }
+
+  /** Fase 2: marca para moverse sola a cada serpiente cuyas celdas toca otra */
+  private void findConflicts(int count) {
+    claims.reset(4 * count);
+    for (int i = 0; i < count; i++) {
+      claims.read(next[i], i);
+      claims.read(landing[i], i);
+      claims.write(landing[i], i);
+      claims.write(tail[i], i);
+    }
+    for (int i = 0; i < count; i++) {
+      if (!alone[i]) {
+        alone[i] = claims.writtenByOther(next[i], i) || claims.writtenByOther(landing[i], i)
+            || claims.readByOther(landing[i], i) || claims.readByOther(tail[i], i);
+      }
+    }
+  }
+
+  /** Fase 3: confirma en orden, en bloque las independientes y una por una las demás */
+  private void commit(Snake[] snakes, int count, Board.MoveResult[] results) {
+    int pending = 0;
+    for (int i = 0; i < count; i++) {
+      // Una aparición pudo caer en las celdas que lee: entonces ya no es independiente
+      if (!alone[i] && (board.itemAt(next[i]) != nextItem[i] || board.itemAt(landing[i]) != landingItem[i])) {
+        alone[i] = true;
+      }
+      if (!alone[i]) {
+        run[pending++] = i;
+        continue;
+      }
+      flush(snakes, pending, results);
+      pending = 0;
+      results[i] = stepAlone(snakes[i], dirs[i]);
+    }
+    flush(snakes, pending, results);
+  }
+
+  private void flush(Snake[] snakes, int pending, Board.MoveResult[] results) {
+    if (pending == 0) return;
+    if (pending < GRAIN) {
+      commitRange(snakes, 0, pending, results);
+    } else {
+      pool.invoke(new CommitTask(snakes, 0, pending, results));
+    }
+  }
+
+  private void commitRange(Snake[] snakes, int from, int to, Board.MoveResult[] results) {
+    for (int k = from; k < to; k++) {
+      int i = run[k];
+      results[i] = board.step(snakes[i], dirs[i]);
+    }
+  }
+
+  /** Fase 1 repartida por rangos de byTile, es decir, por grupos de baldosas contiguas */
+  @SuppressWarnings("serial")  // Tarea de un paso; nunca se serializa
+  private final class PlanTask extends RecursiveAction {
+    private final Snake[] snakes;
+    private final int from;
+    private final int to;
+
+    PlanTask(Snake[] snakes, int from, int to) {
+      this.snakes = snakes;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= GRAIN) {
+        for (int k = from; k < to; k++) {
+          int i = byTile[k];
+          plan(snakes[i], i);
+        }
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(new PlanTask(snakes, from, mid), new PlanTask(snakes, mid, to));
+    }
+  }
+
+  /** Confirmación de un bloque de independientes; los locks de región protegen la grilla */
+  @SuppressWarnings("serial")
+  private final class CommitTask extends RecursiveAction {
+    private final Snake[] snakes;
+    private final int from;
+    private final int to;
+    private final Board.MoveResult[] results;
+
+    CommitTask(Snake[] snakes, int from, int to, Board.MoveResult[] results) {
+      this.snakes = snakes;
+      this.from = from;
+      this.to = to;
+      this.results = results;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= GRAIN) {
+        commitRange(snakes, from, to, results);
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(new CommitTask(snakes, from, mid, results), new CommitTask(snakes, mid, to, results));
+    }
+  }
+
+  /**
+   * Celdas tocadas en un paso con quién las lee y quién las escribe: nadie, una sola
+   * serpiente o varias. Tabla con direccionamiento abierto que se vacía cambiando de sello.
+   */
+  private static final class Claims {
+    private static final int NONE = -1;
+    private static final int MANY = -2;
+
+    private int[] cells = new int[0];
+    private int[] readers = new int[0];
+    private int[] writers = new int[0];
+    private int[] stamps = new int[0];
+    private int stamp = 0;
+    private int mask;
+
+    void reset(int expected) {
+      int capacity = Integer.highestOneBit(Math.max(16, 2 * expected - 1)) << 1;
+      if (capacity > cells.length) {
+        cells = new int[capacity];
+        readers = new int[capacity];
+        writers = new int[capacity];
+        stamps = new int[capacity];
+        stamp = 0;
+      }
+      mask = cells.length - 1;
+      if (++stamp == 0) {
+        Arrays.fill(stamps, 0);
+        stamp = 1;
+      }
+    }
+
+    void read(int cell, int who) {
+      int h = slot(cell);
+      readers[h] = claim(readers[h], who);
+    }
+
+    void write(int cell, int who) {
+      int h = slot(cell);
+      writers[h] = claim(writers[h], who);
+    }
+
+    boolean readByOther(int cell, int who) {
+      int owner = readers[slot(cell)];
+      return owner != NONE && owner != who;
+    }
+
+    boolean writtenByOther(int cell, int who) {
+      int owner = writers[slot(cell)];
+      return owner != NONE && owner != who;
+    }
+
+    private static int claim(int owner, int who) {
+      return owner == NONE || owner == who ? who : MANY;
+    }
+
+    /** Retorna el lugar de la celda, reservándolo si es la primera vez que aparece en el paso */
+    private int slot(int cell) {
+      int h = cell * 0x9E3779B9;
+      h = (h ^ h >>> 16) & mask;
+      while (stamps[h] == stamp && cells[h] != cell) h = (h + 1) & mask;
+      if (stamps[h] != stamp) {
+        stamps[h] = stamp;
+        cells[h] = cell;
+        readers[h] = NONE;
+        writers[h] = NONE;
+      }
+      return h;
+    }
+  }
+}
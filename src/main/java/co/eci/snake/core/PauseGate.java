@@ -0,0 +1,165 @@
+package co.eci.snake.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import co.eci.snake.metrics.Metrics;
+
+/**
+ * Barrera global de pausa con un contador de secciones en curso repartido en franjas y
+ * una bandera de pausa. Cada movimiento de una serpiente (o tick del motor) es una sección
+ * crítica: {@link #tryEnter()} suma uno en la franja del hilo y luego mira la bandera, y
+ * {@link #exit()} lo resta. {@link #pause()} levanta la bandera y espera a que todas las
+ * franjas queden en cero, así que al retornar el mundo está quieto y ningún movimiento
+ * nuevo puede empezar hasta {@link #resume()}: la pausa es un corte consistente. Como cada
+ * hilo escribe en su franja, entrar y salir no compiten por una misma variable. No usa
+ * monitores, por lo que no fija los hilos virtuales a su carrier.
+ *
+ * <p>El hilo suma antes de leer la bandera y la pausa la escribe antes de leer las
+ * franjas (todas volátiles): o el hilo ve la pausa y se retira, o la pausa ve su sección.
+ */
+public final class PauseGate {
+  private static final int PAD = 16;  // Una franja por línea de caché (16 longs = 128 bytes)
+
+  private final AtomicLongArray inFlight;  // Secciones en curso por franja, en los índices múltiplos de PAD
+  private final int mask;
+  private final ReentrantLock control = new ReentrantLock();  // Serializa pause()/resume()
+  private final ReentrantLock resumeLock = new ReentrantLock();
+  private final Condition resumed = resumeLock.newCondition();
+  private volatile boolean paused = false;
+  private volatile Thread pauser;  // Hilo que espera en pause() a que las franjas queden en cero
+  private volatile long resumeStartNanos = 0;
+  private volatile long lastPauseLatencyNanos = 0;
+  private final AtomicLong lastResumeLatencyNanos = new AtomicLong();
+
+  public PauseGate() {
+    int stripes = Integer.highestOneBit(Math.max(4, Runtime.getRuntime().availableProcessors() * 2) - 1) << 1;
+    this.inFlight = new AtomicLongArray(stripes * PAD);
+    this.mask = stripes - 1;
+  }
+
+  /**
+   * Intenta empezar una sección crítica (un movimiento).
+   * @return false si el juego está en pausa; en ese caso no hay que llamar a exit()
+   */
+  public boolean tryEnter() {
+    int stripe = stripe();
+    inFlight.getAndIncrement(stripe);
+    if (paused) {
+      leave(stripe);
+      return false;
+    }
+    return true;
+  }
+
+  /** Termina una sección crítica iniciada con éxito por {@link #tryEnter()} en el mismo hilo */
+  public void exit() {
+    leave(stripe());
+  }
+
+  /** Resta la sección de la franja y, si hay una pausa esperando, la despierta */
+  private void leave(int stripe) {
+    inFlight.getAndDecrement(stripe);
+    if (paused) {
+      Thread t = pauser;
+      if (t != null) LockSupport.unpark(t);
+    }
+  }
+
+  /** Franja del hilo actual; un mismo hilo siempre cae en la misma */
+  private int stripe() {
+    long id = Thread.currentThread().threadId();
+    int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+    return ((h ^ (h >>> 16)) & mask) * PAD;
+  }
+
+  /** Indica si alguna franja tiene una sección en curso */
+  private boolean busy() {
+    for (int i = 0; i < inFlight.length(); i += PAD) {
+      if (inFlight.get(i) != 0) return true;
+    }
+    return false;
+  }
+
+  /** Espera, sin tomar ningún monitor, hasta que el juego no esté en pausa */
+  public void awaitResume() throws InterruptedException {
+    if (!paused) return;
+    long start = Metrics.ENABLED ? System.nanoTime() : 0;
+    boolean waited = false;
+    resumeLock.lockInterruptibly();
+    try {
+      while (paused) {
+        waited = true;
+        resumed.await();
+      }
+    } finally {
+      resumeLock.unlock();
+    }
+    if (waited) {
+      long latency = System.nanoTime() - resumeStartNanos;
+      lastResumeLatencyNanos.accumulateAndGet(latency, Math::max);
+      if (Metrics.ENABLED) {
+        Metrics.PAUSE_WAIT.record(System.nanoTime() - start);
+      }
+    }
+  }
+
+  /** Pausa el juego y retorna solo cuando no queda ningún movimiento en curso */
+  public void pause() {
+    control.lock();
+    try {
+      if (paused) return;
+      long start = System.nanoTime();
+      pauser = Thread.currentThread();
+      paused = true;
+      // El último en salir despierta al pausador; un permiso pendiente solo provoca otra revisión
+      while (busy()) {
+        LockSupport.park(this);
+      }
+      pauser = null;
+      lastPauseLatencyNanos = System.nanoTime() - start;
+    } finally {
+      control.unlock();
+    }
+  }
+
+  /** Reanuda el juego y despierta a los hilos que esperan en {@link #awaitResume()} */
+  public void resume() {
+    control.lock();
+    try {
+      if (!paused) return;
+      lastResumeLatencyNanos.set(0);
+      resumeStartNanos = System.nanoTime();
+      resumeLock.lock();
+      try {
+        paused = false;
+        resumed.signalAll();
+      } finally {
+        resumeLock.unlock();
+      }
+    } finally {
+      control.unlock();
+    }
+  }
+
+  /** Indica si el juego está en pausa */
+  public boolean isPaused() {
+    return paused;
+  }
+
+  /** Retorna cuánto tardó la última pausa en aquietar todos los movimientos, en nanosegundos */
+  public long lastPauseLatencyNanos() {
+    return lastPauseLatencyNanos;
+  }
+
+  /**
+   * Retorna cuánto tardó en despertar el último hilo que esperaba la última reanudación,
+   * en nanosegundos (0 si no había hilos esperando).
+   */
+  public long lastResumeLatencyNanos() {
+    return lastResumeLatencyNanos.get();
+  }
+}
@@ -9,4 +9,16 @@ public record Position(int x, int y) {
     int ny = ((y % height) + height) % height; // Handle negative values correctly
     return new Position(nx, ny);
   }
+
+  /** Packs non-negative (x, y) below 65536 into one int: x in the high 16 bits, y in the low 16 bits. */
+  public static int pack(int x, int y) { return (x << 16) | (y & 0xFFFF); }
+
+  /** X coordinate of a packed cell. */
+  public static int packedX(int cell) { return cell >>> 16; }
+
+  /** Y coordinate of a packed cell. */
+  public static int packedY(int cell) { return cell & 0xFFFF; }
+
+  /** Position of a packed cell. */
+  public static Position unpack(int cell) { return new Position(packedX(cell), packedY(cell)); }
 }
@@ -0,0 +1,93 @@
+package co.eci.snake.core;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Locks por regiones cuadradas del tablero. Un movimiento bloquea solo las regiones
+ * de las celdas que toca, siempre en orden ascendente de región para evitar deadlocks.
+ * Con una sola región equivale al lock global del tablero. Usa ReentrantLock para no
+ * fijar (pin) los hilos virtuales a su carrier mientras esperan.
+ */
+final class RegionLocks {
+  private final int width;
+  private final int regionSize;
+  private final int regionsX;
+  private final ReentrantLock[] locks;
+
+  /** Divide un tablero width x height en regiones de regionSize x regionSize celdas */
+  RegionLocks(int width, int height, int regionSize) {
+    if (regionSize <= 0) {
+      throw new IllegalArgumentException("regionSize must be positive");
+    }
+    this.width = width;
+    this.regionSize = regionSize;
+    this.regionsX = (width + regionSize - 1) / regionSize;
+    int regionsY = (height + regionSize - 1) / regionSize;
+    this.locks = new ReentrantLock[regionsX * regionsY];
+    for (int i = 0; i < locks.length; i++) {
+      locks[i] = new ReentrantLock();
+    }
+  }
+
+  /** Retorna el lado de cada región, en celdas */
+  int regionSize() {
+    return regionSize;
+  }
+
+  /** Retorna el número de regiones */
+  int regions() {
+    return locks.length;
+  }
+
+  /** Retorna la región que contiene la celda */
+  int regionOf(int cell) {
+    return (cell / width / regionSize) * regionsX + (cell % width) / regionSize;
+  }
+
+  /** Bloquea la región de una celda */
+  void lock(int cell) {
+    locks[regionOf(cell)].lock();
+  }
+
+  /** Libera la región de una celda */
+  void unlock(int cell) {
+    locks[regionOf(cell)].unlock();
+  }
+
+  /** Bloquea, en orden ascendente y sin repetir, las regiones de las tres celdas */
+  void lock(int a, int b, int c) {
+    int ra = regionOf(a);
+    int rb = regionOf(b);
+    int rc = regionOf(c);
+    if (ra > rb) { int t = ra; ra = rb; rb = t; }
+    if (rb > rc) { int t = rb; rb = rc; rc = t; }
+    if (ra > rb) { int t = ra; ra = rb; rb = t; }
+    locks[ra].lock();
+    if (rb != ra) locks[rb].lock();
+    if (rc != rb) locks[rc].lock();
+  }
+
+  /** Libera las regiones bloqueadas por {@link #lock(int, int, int)} con las mismas celdas */
+  void unlock(int a, int b, int c) {
+    int ra = regionOf(a);
+    int rb = regionOf(b);
+    int rc = regionOf(c);
+    locks[ra].unlock();
+    if (rb != ra) locks[rb].unlock();
+    if (rc != ra && rc != rb) locks[rc].unlock();
+  }
+
+  /** Bloquea todas las regiones en orden, para lecturas y cambios globales consistentes */
+  void lockAll() {
+    for (ReentrantLock lock : locks) {
+      lock.lock();
+    }
+  }
+
+  /** Libera todas las regiones */
+  void unlockAll() {
+    for (int i = locks.length - 1; i >= 0; i--) {
+      locks[i].unlock();
+    }
+  }
+}
@@ -2,54 +2,187 @@ package co.eci.snake.core;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.function.IntConsumer;
 
 public final class Snake {
-  private final Deque<Position> body = new ArrayDeque<>();
-  private volatile Direction direction;
+  // Cuerpo como buffer circular de celdas empaquetadas (Position.pack), cabeza en head
+  private int[] body = new int[8];
+  private int head = 0;
+  private int size = 0;
+  private volatile Direction direction;  // Dirección del último movimiento (o la inicial)
+  private final TurnQueue turns = new TurnQueue();
   private int maxLength = 5;
+  private long moves = 0;  // Movimientos realizados, para detectar cambios entre fotos
   private int id;
+  private BodyIndex index;  // Índice de ocupación del tablero, null si no está en uno
+  private int indexKey;
+  private SplittableRandom random;  // Generador del tablero para esta serpiente; solo lo usa quien la mueve
 
   /** Constructor privado para inicializar la serpiente */
-  private Snake(Position start, Direction dir, int id) {
-    body.addFirst(start); 
+  private Snake(int start, Direction dir, int id) {
+    addFirst(start);
     this.direction = dir;
     this.id = id;
   }
   
   /** Crea una nueva serpiente en la posición (x, y) con dirección dir e identificador id */
   public static Snake of(int x, int y, Direction dir, int id) {
-    return new Snake(new Position(x, y), dir, id);
+    return new Snake(Position.pack(x, y), dir, id);
+  }
+
+  /** Reconstruye una serpiente guardada en un punto de control (cells de la cabeza a la cola) */
+  static Snake restore(int id, Direction dir, int maxLength, long moves, int[] cells) {
+    Snake s = new Snake(cells[cells.length - 1], dir, id);
+    for (int i = cells.length - 2; i >= 0; i--) s.addFirst(cells[i]);
+    s.maxLength = maxLength;
+    s.moves = moves;
+    return s;
   }
 
   /** Retorna la dirección actual de la serpiente */
   public Direction direction() { return direction; }
 
-  /** Cambia la dirección de la serpiente, evitando giros de 180 grados */
+  /**
+   * Pide un giro desde cualquier hilo, sin bloquearse. Se aplica en el próximo movimiento
+   * que no haya consumido ya otro giro; los giros de 180 grados respecto del último
+   * movimiento hecho se descartan, así que dos teclas rápidas no pueden dar media vuelta.
+   */
   public void turn(Direction dir) {
-    if ((direction == Direction.UP && dir == Direction.DOWN) ||
-        (direction == Direction.DOWN && dir == Direction.UP) ||
-        (direction == Direction.LEFT && dir == Direction.RIGHT) ||
-        (direction == Direction.RIGHT && dir == Direction.LEFT)) {
-      return;
+    turns.offer(Objects.requireNonNull(dir, "dir"));
+  }
+
+  /**
+   * Aplica el siguiente giro válido pendiente y retorna la dirección del movimiento. Solo
+   * la llama el hilo que mueve la serpiente, justo antes de moverla.
+   */
+  Direction nextDirection() {
+    Direction current = direction;
+    for (Direction dir = turns.poll(); dir != null; dir = turns.poll()) {
+      if (!isReverse(current, dir)) {
+        direction = dir;
+        return dir;
+      }
     }
-    this.direction = dir;
+    return current;
+  }
+
+  private static boolean isReverse(Direction a, Direction b) {
+    return (a == Direction.UP && b == Direction.DOWN) ||
+        (a == Direction.DOWN && b == Direction.UP) ||
+        (a == Direction.LEFT && b == Direction.RIGHT) ||
+        (a == Direction.RIGHT && b == Direction.LEFT);
   }
 
   /** Retorna la posición de la cabeza de la serpiente */
-  public Position head() { return body.peekFirst(); }
-  
+  public Position head() { return Position.unpack(headCell()); }
+
+  /** Retorna la celda empaquetada de la cabeza, sin asignar memoria */
+  public int headCell() { return body[head]; }
+
+  /** Retorna la celda empaquetada de la cola */
+  int tailCell() { return body[(head + size - 1) & (body.length - 1)]; }
+
   /** Retorna la longitud actual de la serpiente */
-  public int length() { return body.size(); }
-  
-  /** Retorna una copia de las posiciones del cuerpo de la serpiente */
-  public Deque<Position> snapshot() { return new ArrayDeque<>(body); }
-  
-  
-  /** Avanza la serpiente una posición en su dirección actual */
+  public int length() { return size; }
+
+  /** Retorna la longitud que alcanza la serpiente al avanzar (crece con cada ratón) */
+  public int targetLength() { return maxLength; }
+
+  /**
+   * Retorna la celda empaquetada del segmento i (0 = cabeza) sin copiar el cuerpo.
+   * Desde otro hilo la lectura no se bloquea y puede observar un movimiento a medias.
+   */
+  public int cellAt(int i) {
+    int[] cells = body;
+    return cells[(head + i) & (cells.length - 1)];
+  }
+
+  /**
+   * Recorre las celdas empaquetadas del cuerpo, de la cabeza a la cola, sin copiarlo.
+   * Desde otro hilo la lectura no se bloquea y puede observar un movimiento a medias.
+   */
+  public void forEachCell(IntConsumer action) {
+    int[] cells = body;
+    int mask = cells.length - 1;
+    int first = head;
+    int n = Math.min(size, cells.length);
+    for (int i = 0; i < n; i++) action.accept(cells[(first + i) & mask]);
+  }
+
+  /** Retorna una copia de las posiciones del cuerpo (compatibilidad; prefiera forEachCell) */
+  public Deque<Position> snapshot() {
+    Deque<Position> copy = new ArrayDeque<>(size);
+    forEachCell(c -> copy.addLast(Position.unpack(c)));
+    return copy;
+  }
+
+  /** Avanza la serpiente a la posición dada (compatibilidad; prefiera la versión empaquetada) */
   public void advance(Position newHead, boolean grow) {
-    body.addFirst(newHead);
+    advance(Position.pack(newHead.x(), newHead.y()), grow);
+  }
+
+  /** Avanza la serpiente a la celda empaquetada dada, sin asignar memoria salvo al crecer el buffer */
+  public void advance(int newHead, boolean grow) {
+    moves++;
+    addFirst(newHead);
+    if (index != null) index.enter(newHead, indexKey);
     if (grow) maxLength++;
-    while (body.size() > maxLength) body.removeLast();
+    while (size > maxLength) {
+      int tail = tailCell();
+      size--;
+      if (index != null) index.leave(tail, indexKey);
+    }
+  }
+
+  /** Inserta una celda como nueva cabeza, duplicando el buffer cuando está lleno */
+  private void addFirst(int cell) {
+    if (size == body.length) {
+      int[] grown = new int[body.length * 2];
+      for (int i = 0; i < size; i++) grown[i] = body[(head + i) & (body.length - 1)];
+      body = grown;
+      head = 0;
+    }
+    head = (head - 1) & (body.length - 1);
+    body[head] = cell;
+    size++;
+  }
+
+  /** Retorna el número de movimientos realizados */
+  long moves() { return moves; }
+
+  /** Copia el cuerpo, de la cabeza a la cola, en un arreglo nuevo */
+  int[] copyCells() {
+    int[] copy = new int[size];
+    for (int i = 0; i < size; i++) copy[i] = body[(head + i) & (body.length - 1)];
+    return copy;
+  }
+
+  /** Registra el cuerpo en el índice de ocupación del tablero y recibe su generador */
+  void attach(BodyIndex index, SplittableRandom random) {
+    this.random = random;
+    this.index = index;
+    this.indexKey = index.newKey();
+    forEachCell(c -> index.enter(c, indexKey));
+  }
+
+  /** Retira el cuerpo del índice de ocupación del tablero */
+  void detach() {
+    if (index == null) return;
+    BodyIndex current = index;
+    forEachCell(c -> current.leave(c, indexKey));
+    index = null;
+  }
+
+  /** Retorna el generador que el tablero le asignó a la serpiente */
+  SplittableRandom random() {
+    return random;
+  }
+
+  /** Retorna la clave de la serpiente en el índice de ocupación */
+  int indexKey() {
+    return indexKey;
   }
   
   /** Retorna el identificador de la serpiente */
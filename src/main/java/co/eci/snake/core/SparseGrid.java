@@ -0,0 +1,163 @@
+package co.eci.snake.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/**
+ * Grilla dispersa para tableros enormes: un directorio de bloques de CHUNK x CHUNK celdas
+ * que se reservan la primera vez que algo los ocupa y se liberan cuando quedan vacíos,
+ * así que la memoria crece con las entidades y no con el área. Las regiones de lock deben
+ * ser múltiplos de CHUNK para que cada bloque quede bajo un único lock.
+ */
+final class SparseGrid implements CellGrid {
+  static final int CHUNK = 32;
+  private static final int SHIFT = 5;
+  private static final int MASK = CHUNK - 1;
+
+  private final int width;
+  private final int chunksX;
+  private final Chunk[] chunks;
+  private final AtomicLong itemCount = new AtomicLong();
+
+  /**
+   * Bloque de celdas; los contadores de cuerpos se reservan solo si un cuerpo lo cruza y se
+   * publican de una vez por un campo volatile, porque se leen sin locks (probe, planificador)
+   */
+  private static final class Chunk {
+    final byte[] items = new byte[CHUNK * CHUNK];
+    volatile Bodies bodies;
+    int itemCells;  // Celdas con algún elemento
+    int segments;  // Segmentos de cuerpos en el bloque
+  }
+
+  /** Contadores de cuerpos de un bloque, creados completos antes de publicarse */
+  private static final class Bodies {
+    final int[] count = new int[CHUNK * CHUNK];
+    final long[] keySum = new long[CHUNK * CHUNK];
+    final long[] keySquareSum = new long[CHUNK * CHUNK];
+  }
+
+  SparseGrid(int width, int height) {
+    this.width = width;
+    this.chunksX = (width + MASK) >> SHIFT;
+    int chunksY = (height + MASK) >> SHIFT;
+    this.chunks = new Chunk[chunksX * chunksY];
+  }
+
+  /** Retorna el número de bloques reservados */
+  int allocatedChunks() {
+    int n = 0;
+    for (Chunk c : chunks) {
+      if (c != null) n++;
+    }
+    return n;
+  }
+
+  private int chunkOf(int cell) {
+    return ((cell / width) >> SHIFT) * chunksX + ((cell % width) >> SHIFT);
+  }
+
+  private static int localOf(int cell, int width) {
+    return (((cell / width) & MASK) << SHIFT) | ((cell % width) & MASK);
+  }
+
+  /** Retorna el bloque de la celda, reservándolo si no existe */
+  private Chunk chunkFor(int ci) {
+    Chunk c = chunks[ci];
+    if (c == null) {
+      c = new Chunk();
+      chunks[ci] = c;
+    }
+    return c;
+  }
+
+  /** Libera el bloque si ya no tiene elementos ni segmentos */
+  private void release(int ci, Chunk c) {
+    if (c.itemCells == 0 && c.segments == 0) {
+      chunks[ci] = null;
+    }
+  }
+
+  @Override
+  public byte item(int cell) {
+    Chunk c = chunks[chunkOf(cell)];
+    return c == null ? 0 : c.items[localOf(cell, width)];
+  }
+
+  @Override
+  public void setItem(int cell, byte code) {
+    int ci = chunkOf(cell);
+    Chunk c = code == 0 ? chunks[ci] : chunkFor(ci);
+    if (c == null) {
+      return;
+    }
+    int local = localOf(cell, width);
+    byte old = c.items[local];
+    c.items[local] = code;
+    if ((old == 0) != (code == 0)) {
+      int delta = code == 0 ? -1 : 1;
+      c.itemCells += delta;
+      itemCount.addAndGet(delta);
+      release(ci, c);
+    }
+  }
+
+  @Override
+  public void enterSegment(int cell, int key) {
+    Chunk c = chunkFor(chunkOf(cell));
+    Bodies b = c.bodies;
+    if (b == null) {
+      b = new Bodies();
+      c.bodies = b;
+    }
+    int local = localOf(cell, width);
+    b.count[local]++;
+    b.keySum[local] += key;
+    b.keySquareSum[local] += (long) key * key;
+    c.segments++;
+  }
+
+  @Override
+  public void leaveSegment(int cell, int key) {
+    int ci = chunkOf(cell);
+    Chunk c = chunks[ci];
+    Bodies b = c.bodies;
+    int local = localOf(cell, width);
+    b.count[local]--;
+    b.keySum[local] -= key;
+    b.keySquareSum[local] -= (long) key * key;
+    c.segments--;
+    release(ci, c);
+  }
+
+  @Override
+  public boolean occupiedByOther(int cell, int key) {
+    Chunk c = chunks[chunkOf(cell)];
+    Bodies b = c == null ? null : c.bodies;  // Se lee una sola vez
+    if (b == null) {
+      return false;
+    }
+    int local = localOf(cell, width);
+    return CellGrid.mixed(b.count[local], b.keySum[local], b.keySquareSum[local], key);
+  }
+
+  @Override
+  public void forEachItem(byte code, IntConsumer action) {
+    for (int ci = 0; ci < chunks.length; ci++) {
+      Chunk c = chunks[ci];
+      if (c == null || c.itemCells == 0) continue;
+      int baseX = (ci % chunksX) << SHIFT;
+      int baseY = (ci / chunksX) << SHIFT;
+      for (int local = 0; local < c.items.length; local++) {
+        if (c.items[local] == code) {
+          action.accept((baseY + (local >> SHIFT)) * width + baseX + (local & MASK));
+        }
+      }
+    }
+  }
+
+  @Override
+  public long itemCount() {
+    return itemCount.get();
+  }
+}
@@ -0,0 +1,51 @@
+package co.eci.snake.core;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cola acotada sin locks de giros pendientes de una serpiente: muchos productores (el EDT,
+ * la red, la estrategia) y un solo consumidor, el hilo que mueve la serpiente. Cada
+ * productor reserva un puesto con un CAS sobre tail y luego publica la dirección; el
+ * consumidor vacía el puesto antes de avanzar head, así que un productor nunca pisa un
+ * puesto sin leer. Si la cola está llena el giro se descarta.
+ */
+final class TurnQueue {
+  static final int CAPACITY = 8;  // Potencia de 2
+  private static final int MASK = CAPACITY - 1;
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private final AtomicIntegerArray slots = new AtomicIntegerArray(CAPACITY);  // ordinal + 1; 0 = vacío
+  private final AtomicLong tail = new AtomicLong();
+  private volatile long head = 0;  // Solo lo escribe el consumidor
+
+  /** Encola un giro sin bloquearse; retorna false si la cola estaba llena */
+  boolean offer(Direction dir) {
+    while (true) {
+      long t = tail.get();
+      if (t - head >= CAPACITY) {
+        return false;
+      }
+      if (tail.compareAndSet(t, t + 1)) {
+        slots.lazySet((int) (t & MASK), dir.ordinal() + 1);
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Saca el giro más antiguo; retorna null si no hay ninguno publicado (un productor que
+   * reservó su puesto pero aún no escribió se ve en la siguiente llamada).
+   */
+  Direction poll() {
+    long h = head;
+    int i = (int) (h & MASK);
+    int code = slots.get(i);
+    if (code == 0) {
+      return null;
+    }
+    slots.lazySet(i, 0);
+    head = h + 1;
+    return DIRECTIONS[code - 1];
+  }
+}
@@ -0,0 +1,64 @@
+package co.eci.snake.core;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * Foto inmutable y versionada del tablero que publica {@link Board#publish()}. Se lee sin
+ * locks desde cualquier hilo (render, estadísticas, observadores). Las partes que no
+ * cambian entre versiones (elementos del tablero, serpientes que no se movieron,
+ * serpientes muertas) se comparten entre fotos sucesivas en lugar de copiarse.
+ */
+public record WorldSnapshot(long version, int width, int height, Items items,
+                            List<SnakeView> snakes, List<SnakeView> deadSnakes) {
+
+  /** Elementos del tablero; se reconstruyen solo cuando cambia alguno */
+  public record Items(long version, Set<Position> mice, Set<Position> obstacles,
+                      Set<Position> turbo, Map<Position, Position> teleports) {}
+
+  /** Indica si el juego terminó (1 o menos serpientes vivas) */
+  public boolean isGameOver() {
+    return snakes.size() <= 1;
+  }
+
+  /** Retorna la serpiente ganadora (si hay exactamente 1 viva) o null */
+  public SnakeView winner() {
+    return snakes.size() == 1 ? snakes.get(0) : null;
+  }
+
+  /** Copia inmutable del cuerpo de una serpiente en el momento de la foto */
+  public static final class SnakeView {
+    final Snake source;  // Para reutilizar la vista si la serpiente no se movió
+    final long moves;
+    private final int id;
+    private final int[] cells;
+
+    SnakeView(Snake source, long moves, int id, int[] cells) {
+      this.source = source;
+      this.moves = moves;
+      this.id = id;
+      this.cells = cells;
+    }
+
+    /** Crea una vista que no proviene de una serpiente viva (p. ej. reconstruida de una repetición) */
+    public static SnakeView of(int id, int[] cells) {
+      return new SnakeView(null, -1, id, cells.clone());
+    }
+
+    /** Retorna el identificador de la serpiente */
+    public int id() { return id; }
+
+    /** Retorna la longitud de la serpiente */
+    public int length() { return cells.length; }
+
+    /** Retorna la celda empaquetada del segmento i (0 = cabeza) */
+    public int cellAt(int i) { return cells[i]; }
+
+    /** Recorre las celdas empaquetadas del cuerpo, de la cabeza a la cola */
+    public void forEachCell(IntConsumer action) {
+      for (int c : cells) action.accept(c);
+    }
+  }
+}
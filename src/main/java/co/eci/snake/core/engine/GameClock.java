@@ -1,35 +1,187 @@
 package co.eci.snake.core.engine;
 
+import java.util.Objects;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import co.eci.snake.core.GameState;
 
+/**
+ * Reloj del juego con dos ritmos independientes: la simulación (tick) a un período fijo y
+ * los cuadros (frame) a un período que se adapta a lo que tarda cada uno. Un cuadro se
+ * prepara en el hilo del reloj (beforeFrame) y se pinta en el ejecutor de render (p. ej.
+ * el EDT); mientras uno no termina, los siguientes se saltan, así que nunca hay más de
+ * un cuadro pendiente. Solo trabaja en RUNNING: en PAUSED y STOPPED no programa nada y el
+ * hilo queda dormido; {@link #requestFrame()} pinta un cuadro suelto.
+ */
 public final class GameClock implements AutoCloseable {
+  private static final double EWMA_ALPHA = 0.2;  // Peso de cada cuadro en el promedio
+  private static final int MAX_SLOWDOWN = 4;  // El período de cuadros llega a lo sumo a 4 veces el base
+
   private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-  private final long periodMillis;
-  private final Runnable tick;
-  private final java.util.concurrent.atomic.AtomicReference<GameState> state = new AtomicReference<>(GameState.STOPPED);
+  private final AtomicReference<GameState> state = new AtomicReference<>(GameState.STOPPED);
+  private final long tickNanos;
+  private final Runnable tick;  // Null si el reloj solo pinta
+  private final long frameNanos;  // Período base de cuadros
+  private final Runnable beforeFrame;  // Null si el reloj solo simula
+  private final Runnable frame;
+  private final Executor renderer;
+
+  private final AtomicBoolean framePending = new AtomicBoolean();
+  private final AtomicLong skippedFrames = new AtomicLong();
+  private volatile long renderPeriodNanos;
+  private volatile double averageFrameNanos = 0;
+
+  // Programación vigente; cada resume() abre una generación nueva para descartar las viejas
+  private ScheduledFuture<?> ticking;
+  private long generation = 0;
+  private long nextFrameAt;
 
+  /** Reloj de solo simulación: ejecuta tick cada periodMillis mientras está en RUNNING */
   public GameClock(long periodMillis, Runnable tick) {
-    if (periodMillis <= 0) throw new IllegalArgumentException("periodMillis must be > 0");
-    this.periodMillis = periodMillis;
-    this.tick = java.util.Objects.requireNonNull(tick, "tick");
+    this(periodMillis, tick, 0, null, Runnable::run, null);
+  }
+
+  /**
+   * Reloj con simulación y cuadros a ritmos separados.
+   * @param tickMillis período de la simulación; 0 si no hay simulación (tick puede ser null)
+   * @param frameMillis período base de los cuadros; se alarga si los cuadros tardan
+   * @param beforeFrame se ejecuta en el hilo del reloj antes de cada cuadro (p. ej. publicar una foto)
+   * @param renderer ejecutor donde se pinta el cuadro (p. ej. SwingUtilities::invokeLater)
+   * @param frame pinta el cuadro en el ejecutor de render
+   */
+  public GameClock(long tickMillis, Runnable tick, long frameMillis, Runnable beforeFrame,
+                   Executor renderer, Runnable frame) {
+    if (tickMillis < 0 || frameMillis < 0 || tickMillis + frameMillis == 0) {
+      throw new IllegalArgumentException("periods must be >= 0 and at least one > 0");
+    }
+    if ((tickMillis > 0 && tick == null) || (frameMillis > 0 && frame == null)) {
+      throw new NullPointerException("callback for a positive period");
+    }
+    this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+    this.tick = tickMillis > 0 ? tick : null;
+    this.frameNanos = TimeUnit.MILLISECONDS.toNanos(frameMillis);
+    this.beforeFrame = frameMillis > 0 ? Objects.requireNonNullElse(beforeFrame, () -> {}) : null;
+    this.frame = frame;
+    this.renderer = Objects.requireNonNull(renderer, "renderer");
+    this.renderPeriodNanos = frameNanos;
   }
 
+  /** Arranca el reloj en pausa (sin trabajo programado) y pinta el primer cuadro */
   public void start() {
     if (state.compareAndSet(GameState.STOPPED, GameState.PAUSED)) {
-      scheduler.scheduleAtFixedRate(() -> {
-        // Siempre ejecutar tick (repaint) para mostrar el tablero, incluso en pausa
-        tick.run();
-      }, 0, periodMillis, TimeUnit.MILLISECONDS);
+      requestFrame();
+    }
+  }
+
+  /** Deja de simular y de pintar hasta {@link #resume()} */
+  public synchronized void pause() {
+    if (state.compareAndSet(GameState.RUNNING, GameState.PAUSED)) {
+      cancel();
     }
   }
 
-  public void pause()  { state.set(GameState.PAUSED); }
-  public void resume() { state.set(GameState.RUNNING); }
-  public void stop()   { state.set(GameState.STOPPED); }
+  /** Programa la simulación y los cuadros */
+  public synchronized void resume() {
+    if (!state.compareAndSet(GameState.PAUSED, GameState.RUNNING)) return;
+    long gen = ++generation;
+    if (tick != null) {
+      ticking = scheduler.scheduleAtFixedRate(tick, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+    if (beforeFrame != null) {
+      nextFrameAt = System.nanoTime();
+      scheduler.execute(() -> frameDue(gen));
+    }
+  }
+
+  /** Detiene el reloj; se puede volver a arrancar con {@link #start()} */
+  public synchronized void stop() {
+    state.set(GameState.STOPPED);
+    cancel();
+  }
+
+  /** Pinta un cuadro aunque el reloj esté en pausa (p. ej. para mostrar el estado al pausar) */
+  public void requestFrame() {
+    if (beforeFrame != null) {
+      scheduler.execute(this::emitFrame);
+    }
+  }
+
+  /** Retorna el estado del reloj */
+  public GameState state() {
+    return state.get();
+  }
+
+  /** Retorna el período actual entre cuadros, en milisegundos */
+  public double renderPeriodMillis() {
+    return renderPeriodNanos / 1e6;
+  }
+
+  /** Retorna el promedio móvil de lo que tarda un cuadro desde que se prepara hasta que se pinta */
+  public double averageFrameMillis() {
+    return averageFrameNanos / 1e6;
+  }
+
+  /** Retorna cuántos cuadros se saltaron porque el anterior seguía pendiente */
+  public long skippedFrames() {
+    return skippedFrames.get();
+  }
+
   @Override public void close() { scheduler.shutdownNow(); }
+
+  private void cancel() {
+    generation++;
+    if (ticking != null) {
+      ticking.cancel(false);
+      ticking = null;
+    }
+  }
+
+  /** Programa el siguiente cuadro en su plazo, saltando los plazos ya vencidos, y emite este */
+  private void frameDue(long gen) {
+    synchronized (this) {
+      if (gen != generation || state.get() != GameState.RUNNING) return;
+      long now = System.nanoTime();
+      nextFrameAt += renderPeriodNanos;
+      if (nextFrameAt < now) nextFrameAt = now + renderPeriodNanos;
+      scheduler.schedule(() -> frameDue(gen), nextFrameAt - now, TimeUnit.NANOSECONDS);
+    }
+    emitFrame();
+  }
+
+  /** Prepara el cuadro y lo manda a pintar, salvo que el anterior siga pendiente */
+  private void emitFrame() {
+    if (!framePending.compareAndSet(false, true)) {
+      skippedFrames.incrementAndGet();
+      return;
+    }
+    long start = System.nanoTime();
+    try {
+      beforeFrame.run();
+      renderer.execute(() -> {
+        try {
+          frame.run();
+        } finally {
+          frameDone(System.nanoTime() - start);
+        }
+      });
+    } catch (RuntimeException e) {
+      framePending.set(false);
+      throw e;
+    }
+  }
+
+  /** Actualiza el promedio y estira el período si los cuadros ocupan más de la mitad de él */
+  private void frameDone(long nanos) {
+    double avg = averageFrameNanos == 0 ? nanos : averageFrameNanos + EWMA_ALPHA * (nanos - averageFrameNanos);
+    averageFrameNanos = avg;
+    renderPeriodNanos = Math.max(frameNanos, Math.min(MAX_SLOWDOWN * frameNanos, (long) (2 * avg)));
+    framePending.set(false);
+  }
 }
@@ -0,0 +1,253 @@
+package co.eci.snake.core.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.ParallelStep;
+import co.eci.snake.core.Snake;
+import co.eci.snake.core.steering.SteeringStrategy;
+import co.eci.snake.metrics.Metrics;
+
+/**
+ * Motor de simulación por ticks discretos: mueve todas las serpientes desde un único
+ * hilo, en un orden fijo, en lugar de un hilo con sleep por serpiente. Cada tick tiene
+ * tres fases: todas las serpientes deciden su giro, todas avanzan una celda en el orden
+ * en que se agregaron al tablero, y las que tienen turbo avanzan una segunda vez.
+ * Puede correr sin pausa ({@link #run(long)}) o ser llamado por un {@link GameClock}.
+ * Con un {@link ForkJoinPool} los giros y los movimientos de cada fase se reparten entre
+ * sus hilos ({@link ParallelStep}) y el resultado es el mismo que moviéndolas en orden.
+ */
+public final class TickEngine {
+  /** Ticks que dura el turbo (equivale a los 100 movimientos de 40 ms de SnakeRunner) */
+  public static final int TURBO_TICKS = 50;
+
+  private final Board board;
+  private final SteeringStrategy steering;
+  private final List<Pilot> pilots = new ArrayList<>();
+  private final ForkJoinPool pool;  // Null para mover desde un solo hilo
+  private final ParallelStep parallel;
+  // Serpientes de la fase en curso y sus resultados, en el orden de los pilotos
+  private Pilot[] moving = new Pilot[0];
+  private Snake[] movingSnakes = new Snake[0];
+  private Board.MoveResult[] results = new Board.MoveResult[0];
+  private long ticks = 0;
+  private long moves = 0;
+
+  /** Estado por serpiente que en el modelo de hilos vivía en SnakeRunner */
+  private static final class Pilot {
+    final Snake snake;
+    final LongAdder moves;  // Null sin métricas
+    final SplittableRandom random;  // Generador de los giros de esta serpiente
+    int turboTicks = 0;
+    boolean alive = true;
+
+    Pilot(Board board, Snake snake, SplittableRandom random) {
+      this.snake = snake;
+      this.random = random;
+      this.moves = Metrics.ENABLED ? Metrics.registerSnake(board, snake.getId()) : null;
+    }
+  }
+
+  /** Crea un motor con giros aleatorios para las serpientes vivas que tiene el tablero */
+  public TickEngine(Board board) {
+    this(board, SteeringStrategy.random());
+  }
+
+  /**
+   * Crea un motor que decide los giros con la estrategia dada. Cada serpiente recibe un
+   * generador derivado del tablero en el orden en que se agregaron, así que un tablero
+   * creado con el mismo generador reproduce la misma carrera.
+   */
+  public TickEngine(Board board, SteeringStrategy steering) {
+    this(board, steering, null);
+  }
+
+  /**
+   * Crea un motor que reparte cada fase del tick entre los hilos de pool (null para usar
+   * solo el hilo que llama a {@link #tick()}). La estrategia debe admitir llamadas
+   * concurrentes, como ya lo exige el modo con un hilo por serpiente.
+   */
+  public TickEngine(Board board, SteeringStrategy steering, ForkJoinPool pool) {
+    this.board = Objects.requireNonNull(board, "board");
+    this.steering = Objects.requireNonNull(steering, "steering");
+    this.pool = pool;
+    this.parallel = pool != null ? new ParallelStep(board, pool) : null;
+    for (Snake s : board.getSnakes()) {
+      pilots.add(new Pilot(board, s, board.newRandom()));
+    }
+  }
+
+  /**
+   * Ejecuta un tick completo; no hace nada si el tablero está en pausa. El tick es una
+   * sección crítica de la barrera de pausa, así que una pausa nunca lo corta a medias.
+   */
+  public void tick() {
+    var gate = board.pauseGate();
+    if (!gate.tryEnter()) return;
+    try {
+      advanceAll();
+    } finally {
+      gate.exit();
+    }
+    ticks++;
+    board.tickCompleted(ticks);
+    if (Metrics.ENABLED && board.isGameOver()) release();
+  }
+
+  /**
+   * Retira de las métricas los contadores de las serpientes que siguen vivas. Se llama
+   * sola cuando la carrera termina; quien abandona el motor antes debe llamarla.
+   */
+  public void release() {
+    if (!Metrics.ENABLED) return;
+    for (Pilot p : pilots) {
+      if (p.alive) Metrics.unregisterSnake(board, p.snake.getId());
+    }
+  }
+
+  /** Marca la serpiente como muerta y retira su contador de las métricas */
+  private void retire(Pilot p) {
+    p.alive = false;
+    if (Metrics.ENABLED) Metrics.unregisterSnake(board, p.snake.getId());
+  }
+
+  /** Fases del tick: giros, un movimiento por serpiente y el segundo movimiento del turbo */
+  private void advanceAll() {
+    steering.prepare();
+    if (parallel != null) {
+      advanceParallel();
+      return;
+    }
+    for (Pilot p : pilots) {
+      if (p.alive) maybeTurn(p);
+    }
+    for (Pilot p : pilots) {
+      if (p.alive) move(p);
+    }
+    for (Pilot p : pilots) {
+      if (p.alive && p.turboTicks > 0) {
+        move(p);
+        p.turboTicks--;
+      }
+    }
+  }
+
+  /** Las mismas fases, cada una repartida entre los hilos del pool */
+  private void advanceParallel() {
+    int n = 0;
+    if (moving.length < pilots.size()) {
+      moving = new Pilot[pilots.size()];
+      movingSnakes = new Snake[pilots.size()];
+      results = new Board.MoveResult[pilots.size()];
+    }
+    for (Pilot p : pilots) {
+      if (p.alive) moving[n++] = p;
+    }
+    pool.invoke(new TurnTask(0, n));
+    moveAll(n);
+    int turbo = 0;
+    for (int i = 0; i < n; i++) {
+      if (moving[i].alive && moving[i].turboTicks > 0) moving[turbo++] = moving[i];
+    }
+    moveAll(turbo);
+    for (int i = 0; i < turbo; i++) {
+      moving[i].turboTicks--;
+    }
+  }
+
+  /** Mueve moving[0, n) una celda cada una y aplica los resultados */
+  private void moveAll(int n) {
+    for (int i = 0; i < n; i++) movingSnakes[i] = moving[i].snake;
+    parallel.step(movingSnakes, n, results);
+    for (int i = 0; i < n; i++) {
+      Pilot p = moving[i];
+      moves++;
+      if (Metrics.ENABLED) p.moves.increment();
+      if (results[i] == Board.MoveResult.HIT_OBSTACLE) {
+        retire(p);  // ParallelStep ya la agregó a las muertas
+      } else if (results[i] == Board.MoveResult.ATE_TURBO) {
+        p.turboTicks = TURBO_TICKS;
+      }
+    }
+  }
+
+  /** Decide los giros de moving[from, to); cada serpiente usa su propio generador */
+  @SuppressWarnings("serial")  // Tarea de un tick; nunca se serializa
+  private final class TurnTask extends RecursiveAction {
+    private static final int GRAIN = 256;
+    private final int from;
+    private final int to;
+
+    TurnTask(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= GRAIN) {
+        for (int i = from; i < to; i++) maybeTurn(moving[i]);
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(new TurnTask(from, mid), new TurnTask(mid, to));
+    }
+  }
+
+  /**
+   * Ejecuta ticks tan rápido como permita la CPU hasta que el juego termine o se
+   * alcance maxTicks.
+   * @return número de ticks ejecutados
+   */
+  public long run(long maxTicks) {
+    long start = ticks;
+    while (ticks - start < maxTicks && !board.isGameOver()) {
+      if (board.isPaused()) {
+        try {
+          board.pauseGate().awaitResume();
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+      tick();
+    }
+    return ticks - start;
+  }
+
+  /** Retorna el número de ticks ejecutados */
+  public long ticks() {
+    return ticks;
+  }
+
+  /** Retorna el número de movimientos realizados */
+  public long moves() {
+    return moves;
+  }
+
+  /** Mueve la serpiente una celda y aplica el resultado */
+  private void move(Pilot p) {
+    var res = board.step(p.snake);
+    moves++;
+    if (Metrics.ENABLED) p.moves.increment();
+    if (res == Board.MoveResult.HIT_OBSTACLE) {
+      board.addDeadSnake(p.snake);
+      retire(p);
+    } else if (res == Board.MoveResult.ATE_TURBO) {
+      p.turboTicks = TURBO_TICKS;
+    }
+  }
+
+  /** Pregunta a la estrategia si la serpiente debe girar (misma política que SnakeRunner) */
+  private void maybeTurn(Pilot p) {
+    Direction dir = steering.steer(p.snake, p.turboTicks > 0, p.random);
+    if (dir != null) p.snake.turn(dir);
+  }
+}
@@ -0,0 +1,274 @@
+package co.eci.snake.core.events;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.BoardListener;
+import co.eci.snake.core.Item;
+import co.eci.snake.core.Snake;
+
+/**
+ * Bus de eventos del juego. Observa un tablero como {@link BoardListener} y publica cada
+ * cambio como un {@link GameEvent} en buffers circulares acotados, particionados por
+ * serpiente: publicar no bloquea ni asigna memoria, así que los suscriptores no agregan
+ * latencia a {@link Board#step}. Cada suscriptor tiene su propio hilo que consume por
+ * lotes y, si se atrasa más que la capacidad, pierde los eventos más viejos (se le avisa
+ * con {@link GameEventHandler#onLost}). El orden se respeta dentro de cada partición (los
+ * eventos de una serpiente llegan en orden), no entre particiones.
+ * Un suscriptor sin eventos se estaciona sin plazo (en pausa no gasta CPU) y lo despierta
+ * el primer evento que se publica después de que se quedó sin nada que leer.
+ * Además del tablero, el bus detecta el fin de la carrera y publica GAME_OVER.
+ */
+public final class EventBus implements BoardListener, AutoCloseable {
+  public static final int DEFAULT_SHARDS = 8;
+  public static final int DEFAULT_CAPACITY = 4096;
+
+  private final Board board;
+  private final EventShard[] shards;
+  private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+  // Serpientes vivas, para detectar el fin; se agregan y mueren con todo el tablero bloqueado
+  private final Set<Integer> alive = new HashSet<>();
+  private long deaths = 0;  // Orden de las muertes, que no se deduce del orden entre particiones
+  private boolean gameOver = false;
+  private volatile boolean closed = false;
+
+  /** Suscripción con su hilo consumidor y su posición en cada partición */
+  public final class Subscription implements AutoCloseable {
+    private final GameEventHandler handler;
+    private final long[] next = new long[shards.length];
+    private final GameEvent event = new GameEvent();
+    private final GameEvent pending = new GameEvent();
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean waiting = false;  // Estacionado o a punto de estacionarse
+    private volatile long lost = 0;
+
+    private Subscription(String name, GameEventHandler handler) {
+      this.handler = handler;
+      // Empieza por lo más viejo que sigue en el buffer, p. ej. el estado que se repite al observar
+      for (int s = 0; s < shards.length; s++) next[s] = Math.max(0, shards[s].cursor() - shards[s].capacity());
+      this.thread = new Thread(this::run, name);
+      thread.setDaemon(true);
+    }
+
+    /** Retorna cuántos eventos perdió este suscriptor por atrasarse */
+    public long lost() {
+      return lost;
+    }
+
+    /** Detiene la suscripción después de entregar lo ya publicado */
+    @Override
+    public void close() {
+      running = false;
+      LockSupport.unpark(thread);
+      if (Thread.currentThread() != thread) {
+        try {
+          thread.join();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      subscriptions.remove(this);
+    }
+
+    private void run() {
+      handler.onSubscribe();
+      while (running) {
+        if (drain() == 0) {
+          // Se anuncia antes de volver a mirar: quien publique después lo verá y lo despertará
+          waiting = true;
+          if (running && !hasPending()) LockSupport.park(this);
+          waiting = false;
+        }
+      }
+      drain();
+    }
+
+    /** Indica si alguna partición tiene secuencias reservadas que aún no se leyeron */
+    private boolean hasPending() {
+      for (int s = 0; s < shards.length; s++) {
+        if (shards[s].cursor() > next[s]) return true;
+      }
+      return false;
+    }
+
+    /** Despierta al hilo si está estacionado; lo llaman los que publican */
+    private void wake() {
+      if (waiting) {
+        waiting = false;
+        LockSupport.unpark(thread);
+      }
+    }
+
+    /**
+     * Entrega todo lo disponible. Se retiene un evento para saber si es el último del
+     * lote antes de entregarlo.
+     * @return eventos entregados
+     */
+    private int drain() {
+      int delivered = 0;
+      boolean held = false;
+      for (int s = 0; s < shards.length; s++) {
+        EventShard shard = shards[s];
+        long available = shard.cursor();
+        if (available - next[s] > shard.capacity()) {
+          skip(available - shard.capacity() - next[s]);
+          next[s] = available - shard.capacity();
+        }
+        while (next[s] < available) {
+          int r = shard.read(next[s], event);
+          if (r == EventShard.PENDING) break;  // Se termina de escribir; se verá en la próxima vuelta
+          next[s]++;
+          if (r == EventShard.LOST) {
+            skip(1);
+            continue;
+          }
+          if (held) {
+            deliver(pending, false);
+            delivered++;
+          }
+          copy(event, pending);
+          held = true;
+        }
+      }
+      if (held) {
+        deliver(pending, true);
+        delivered++;
+      }
+      return delivered;
+    }
+
+    private void deliver(GameEvent e, boolean endOfBatch) {
+      try {
+        handler.onEvent(e, endOfBatch);
+      } catch (RuntimeException ex) {
+        // Un suscriptor que falla no debe dejar de recibir los siguientes eventos
+        System.err.println("Suscriptor " + thread.getName() + " falló: " + ex);
+      }
+    }
+
+    private void skip(long count) {
+      lost += count;
+      handler.onLost(count);
+    }
+  }
+
+  private EventBus(Board board, int shards, int capacity) {
+    if (shards <= 0 || capacity <= 0 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("shards must be positive and capacity a power of 2");
+    }
+    this.board = board;
+    this.shards = new EventShard[shards];
+    for (int i = 0; i < shards; i++) this.shards[i] = new EventShard(capacity);
+  }
+
+  /** Crea un bus con la configuración por defecto y empieza a observar el tablero */
+  public static EventBus attach(Board board) {
+    return attach(board, DEFAULT_SHARDS, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Crea un bus y empieza a observar el tablero; cada suscriptor recibe primero los eventos
+   * que siguen en el buffer (el estado inicial del tablero, si se suscribe enseguida) y luego
+   * los que se publiquen.
+   * @param capacity eventos por partición, potencia de 2
+   */
+  public static EventBus attach(Board board, int shards, int capacity) {
+    EventBus bus = new EventBus(Objects.requireNonNull(board, "board"), shards, capacity);
+    board.addListener(bus);
+    return bus;
+  }
+
+  /** Suscribe un consumidor con su propio hilo, llamado name */
+  public Subscription subscribe(String name, GameEventHandler handler) {
+    Objects.requireNonNull(handler, "handler");
+    if (closed) {
+      throw new IllegalStateException("EventBus is closed");
+    }
+    Subscription s = new Subscription(name, handler);
+    subscriptions.add(s);
+    s.thread.start();
+    return s;
+  }
+
+  /** Retorna cuántos eventos se han publicado */
+  public long published() {
+    long n = 0;
+    for (EventShard s : shards) n += s.cursor();
+    return n;
+  }
+
+  /** Deja de observar el tablero y cierra las suscripciones después de entregar lo pendiente */
+  @Override
+  public void close() {
+    board.removeListener(this);
+    closed = true;
+    for (Subscription s : subscriptions) s.close();
+  }
+
+  private EventShard shardOf(int key) {
+    return shards[Math.floorMod(key, shards.length)];
+  }
+
+  @Override
+  public void snakeAdded(Snake snake) {
+    alive.add(snake.getId());
+    publish(shardOf(snake.getId()), GameEvent.Type.SNAKE_ADDED, snake.getId(), snake.headCell(), 0, snake.length());
+  }
+
+  @Override
+  public void snakeMoved(Snake snake, int from, int to, boolean grew) {
+    publish(shardOf(snake.getId()), GameEvent.Type.MOVED, snake.getId(), to, from, snake.length());
+  }
+
+  @Override
+  public void teleported(Snake snake, int entry, int exit) {
+    publish(shardOf(snake.getId()), GameEvent.Type.TELEPORTED, snake.getId(), exit, entry, 0);
+  }
+
+  @Override
+  public void itemSpawned(Item item, int cell) {
+    publish(shardOf(cell), GameEvent.Type.SPAWNED, -1, cell, 0, item.ordinal());
+  }
+
+  @Override
+  public void itemEaten(Snake snake, Item item, int cell) {
+    GameEvent.Type type = item == Item.MOUSE ? GameEvent.Type.ATE_MOUSE : GameEvent.Type.ATE_TURBO;
+    publish(shardOf(snake.getId()), type, snake.getId(), cell, 0, 0);
+  }
+
+  @Override
+  public void snakeDied(Snake snake) {
+    publish(shardOf(snake.getId()), GameEvent.Type.DIED, snake.getId(), snake.headCell(), 0, deaths++);
+    alive.remove(snake.getId());
+    if (!gameOver && alive.size() <= 1) {
+      gameOver = true;
+      int winner = alive.isEmpty() ? -1 : alive.iterator().next();
+      publish(shards[0], GameEvent.Type.GAME_OVER, winner, 0, 0, 0);
+    }
+  }
+
+  @Override
+  public void tickCompleted(long tick) {
+    publish(shards[0], GameEvent.Type.TICK, -1, 0, 0, tick);
+  }
+
+  /** Publica en la partición y despierta a los suscriptores que se quedaron sin eventos */
+  private void publish(EventShard shard, GameEvent.Type type, int snake, int cell, int from, long value) {
+    shard.publish(type, snake, cell, from, value);
+    for (Subscription s : subscriptions) s.wake();
+  }
+
+  private static void copy(GameEvent from, GameEvent to) {
+    to.type = from.type;
+    to.snake = from.snake;
+    to.cell = from.cell;
+    to.from = from.from;
+    to.value = from.value;
+  }
+}
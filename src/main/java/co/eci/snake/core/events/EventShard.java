@@ -0,0 +1,109 @@
+package co.eci.snake.core.events;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Buffer circular con pérdida de una partición del bus. Quien publica reserva una secuencia
+ * con getAndIncrement y escribe el puesto sin esperar a los lectores; si van atrasados
+ * simplemente los pisa. Cada puesto es un seqlock: su secuencia vale la marca de escritura
+ * de quien lo escribe (-seq - 2) mientras se escribe y el número del evento al terminar, así
+ * que un lector detecta un puesto a medio escribir o ya pisado releyendo la secuencia después
+ * de copiar los campos. La marca se toma con un CAS, así que dos escritores nunca escriben el
+ * mismo puesto a la vez (p. ej. seq y seq + capacidad, si el primero se demoró una vuelta
+ * entera): el más viejo se descarta sin escribir y el más nuevo espera a que termine el viejo.
+ */
+final class EventShard {
+  private final int mask;
+  private final AtomicLongArray sequences;
+  private final byte[] types;
+  private final int[] snakes;
+  private final int[] cells;
+  private final int[] froms;
+  private final long[] values;
+  private final AtomicLong cursor = new AtomicLong();  // Próxima secuencia a reservar
+
+  EventShard(int capacity) {
+    this.mask = capacity - 1;
+    this.sequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) sequences.set(i, -1);
+    this.types = new byte[capacity];
+    this.snakes = new int[capacity];
+    this.cells = new int[capacity];
+    this.froms = new int[capacity];
+    this.values = new long[capacity];
+  }
+
+  int capacity() {
+    return mask + 1;
+  }
+
+  /** Retorna la próxima secuencia que se reservará */
+  long cursor() {
+    return cursor.get();
+  }
+
+  void publish(GameEvent.Type type, int snake, int cell, int from, long value) {
+    write(claim(), type, snake, cell, from, value);
+  }
+
+  /** Reserva la próxima secuencia */
+  long claim() {
+    return cursor.getAndIncrement();
+  }
+
+  /**
+   * Escribe el evento seq en su puesto; si el puesto ya tiene un evento más nuevo (o lo
+   * está escribiendo alguien que dio la vuelta) el evento llegó tarde y se descarta.
+   * @return false si se descartó
+   */
+  boolean write(long seq, GameEvent.Type type, int snake, int cell, int from, long value) {
+    int i = (int) (seq & mask);
+    long mark = -seq - 2;
+    while (true) {
+      long current = sequences.get(i);
+      long owner = current < -1 ? -current - 2 : current;  // Evento escrito o en escritura
+      if (owner >= seq) {
+        return false;
+      }
+      if (current < -1) {
+        Thread.onSpinWait();  // Un escritor de la vuelta anterior termina en unos nanosegundos
+      } else if (sequences.compareAndSet(i, current, mark)) {
+        break;
+      }
+    }
+    types[i] = (byte) type.ordinal();
+    snakes[i] = snake;
+    cells[i] = cell;
+    froms[i] = from;
+    values[i] = value;
+    sequences.setRelease(i, seq);
+    return true;
+  }
+
+  /** Resultado de {@link #read} cuando el evento aún se está escribiendo */
+  static final int PENDING = 0;
+  /** Resultado de {@link #read} cuando el evento se copió */
+  static final int READ = 1;
+  /** Resultado de {@link #read} cuando el evento ya fue pisado */
+  static final int LOST = 2;
+
+  /** Copia el evento seq en out, si sigue en el buffer y ya se terminó de escribir */
+  int read(long seq, GameEvent out) {
+    int i = (int) (seq & mask);
+    long before = sequences.getAcquire(i);
+    if (before != seq) {
+      // Un puesto más nuevo, escrito o a medio escribir, o todavía uno de la vuelta anterior
+      long owner = before < -1 ? -before - 2 : before;
+      return owner > seq ? LOST : PENDING;
+    }
+    out.type = GameEvent.TYPES[types[i]];
+    out.snake = snakes[i];
+    out.cell = cells[i];
+    out.from = froms[i];
+    out.value = values[i];
+    VarHandle.acquireFence();
+    return sequences.getOpaque(i) == seq ? READ : LOST;
+  }
+}
@@ -0,0 +1,89 @@
+package co.eci.snake.core.events;
+
+import co.eci.snake.core.Item;
+
+/**
+ * Evento del juego entregado por {@link EventBus}. Es una vista reutilizable: solo es
+ * válida durante la llamada a {@link GameEventHandler#onEvent}, así que no se debe guardar.
+ * Las celdas van empaquetadas con {@link co.eci.snake.core.Position#pack(int, int)}.
+ */
+public final class GameEvent {
+
+  /** Tipos de evento y el significado de sus campos */
+  public enum Type {
+    /** Se agregó una serpiente; cell = cabeza, value = largo */
+    SNAKE_ADDED,
+    /** La serpiente avanzó; cell = destino, from = origen, value = largo tras avanzar */
+    MOVED,
+    /** La serpiente se comió un ratón en cell */
+    ATE_MOUSE,
+    /** La serpiente tomó un turbo en cell */
+    ATE_TURBO,
+    /** La serpiente entró al teletransportador en from y salió por cell */
+    TELEPORTED,
+    /** La serpiente murió; value = cuántas murieron antes desde que se observa el tablero */
+    DIED,
+    /** Apareció el elemento item en cell; sin serpiente */
+    SPAWNED,
+    /** Quedan una o ninguna serpiente viva; snake = ganadora o -1 */
+    GAME_OVER,
+    /** Terminó el tick value; sin serpiente */
+    TICK
+  }
+
+  static final Type[] TYPES = Type.values();
+  private static final Item[] ITEMS = Item.values();
+
+  Type type;
+  int snake;
+  int cell;
+  int from;
+  long value;
+
+  GameEvent() {}
+
+  /** Retorna el tipo de evento */
+  public Type type() {
+    return type;
+  }
+
+  /** Retorna el id de la serpiente del evento, o -1 si no tiene */
+  public int snake() {
+    return snake;
+  }
+
+  /** Retorna la celda del evento */
+  public int cell() {
+    return cell;
+  }
+
+  /** Retorna la celda de origen de MOVED y TELEPORTED */
+  public int from() {
+    return from;
+  }
+
+  /** Retorna el elemento de SPAWNED */
+  public Item item() {
+    return ITEMS[(int) value];
+  }
+
+  /** Retorna el largo de la serpiente en SNAKE_ADDED y MOVED */
+  public int length() {
+    return (int) value;
+  }
+
+  /** Retorna el orden de la muerte en DIED (0 para la primera) */
+  public long deathOrder() {
+    return value;
+  }
+
+  /** Retorna el tick de TICK */
+  public long tick() {
+    return value;
+  }
+
+  @Override
+  public String toString() {
+    return type + "[snake=" + snake + ", cell=" + cell + ", from=" + from + ", value=" + value + "]";
+  }
+}
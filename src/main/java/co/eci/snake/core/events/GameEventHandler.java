@@ -0,0 +1,18 @@
+package co.eci.snake.core.events;
+
+/** Suscriptor de {@link EventBus}; se llama siempre desde el mismo hilo, el de la suscripción */
+@FunctionalInterface
+public interface GameEventHandler {
+
+  /**
+   * Procesa un evento.
+   * @param endOfBatch true en el último evento del lote disponible (p. ej. para refrescar una vista)
+   */
+  void onEvent(GameEvent event, boolean endOfBatch);
+
+  /** Se llama en el hilo de la suscripción antes de su primer evento (p. ej. para limpiar estado) */
+  default void onSubscribe() {}
+
+  /** El suscriptor se atrasó más que la capacidad del bus y se perdieron count eventos */
+  default void onLost(long count) {}
+}
@@ -0,0 +1,58 @@
+package co.eci.snake.core.replay;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import co.eci.snake.core.Position;
+import co.eci.snake.core.WorldSnapshot;
+
+/** Reconstruye un tablero a partir de la cabecera y los registros de un {@link DeltaStream} */
+public final class DeltaReader {
+  private final ReplayState state;
+  private long tick = -1;
+
+  /**
+   * @param header cabecera de {@link DeltaStream#header}
+   * @throws IllegalArgumentException si no es una cabecera válida
+   */
+  public DeltaReader(ByteBuffer header) {
+    if (header.remaining() < 4 || header.getInt() != ReplayFormat.MAGIC) {
+      throw new IllegalArgumentException("Not a snake stream header");
+    }
+    int version = ReplayFormat.readVarInt(header);
+    if (version != ReplayFormat.VERSION) {
+      throw new IllegalArgumentException("Unsupported stream version " + version);
+    }
+    int width = ReplayFormat.readVarInt(header);
+    int height = ReplayFormat.readVarInt(header);
+    Map<Position, Position> tp = new HashMap<>();
+    int n = ReplayFormat.readVarInt(header);
+    for (int i = 0; i < n; i++) {
+      tp.put(Position.unpack(ReplayFormat.readVarInt(header)), Position.unpack(ReplayFormat.readVarInt(header)));
+    }
+    this.state = new ReplayState(width, height, Map.copyOf(tp));
+  }
+
+  /**
+   * Aplica todos los registros restantes del buffer.
+   * @return el último tick aplicado
+   */
+  public long apply(ByteBuffer records) {
+    while (records.hasRemaining()) {
+      long t = state.apply(records);
+      if (t >= 0) tick = t;
+    }
+    return tick;
+  }
+
+  /** Retorna el último tick aplicado, o -1 */
+  public long tick() {
+    return tick;
+  }
+
+  /** Construye una foto del estado reconstruido */
+  public WorldSnapshot snapshot() {
+    return state.toSnapshot(Math.max(tick, 0));
+  }
+}
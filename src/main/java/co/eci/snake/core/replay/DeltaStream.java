@@ -0,0 +1,186 @@
+package co.eci.snake.core.replay;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.BoardListener;
+import co.eci.snake.core.Item;
+import co.eci.snake.core.Snake;
+
+/**
+ * Codifica los cambios de un tablero tick a tick con los registros de {@link ReplayFormat},
+ * para transmitirlos en vivo: al terminar cada tick entrega los registros acumulados (las
+ * cabezas que avanzaron, los elementos que aparecieron o se comieron y las muertes; las
+ * colas se deducen de la longitud objetivo) y, si se pidió, un cuadro clave con el estado
+ * completo para quien se acaba de conectar. Usa el mismo codificador que
+ * {@link ReplayRecorder}. {@link DeltaReader} reconstruye el tablero.
+ */
+public final class DeltaStream implements BoardListener {
+  private static final int BUFFER_SIZE = 1 << 12;
+  /** Buffers devueltos con {@link #recycle} que se guardan para los próximos ticks */
+  private static final int POOL = 8;
+
+  /**
+   * Recibe los registros de cada tick. Se llama con el tablero bloqueado, así que debe
+   * volver rápido: el sink se queda con los buffers (nadie más los toca) y, cuando termina
+   * de usarlos, puede devolverlos con {@link #recycle} desde cualquier hilo.
+   */
+  @FunctionalInterface
+  public interface FrameSink {
+    /**
+     * @param delta registros del tick, terminados con la marca del tick
+     * @param keyframe estado completo al final del tick seguido de la marca, o null si no se pidió
+     */
+    void frame(long tick, ByteBuffer delta, ByteBuffer keyframe);
+  }
+
+  private final Board board;
+  private final FrameSink sink;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(POOL);
+  private final RecordEncoder encoder = new RecordEncoder(ByteBuffer.allocate(BUFFER_SIZE), RecordEncoder::grow);
+  private final List<Snake> alive = new ArrayList<>();
+  private volatile boolean keyframeRequested;
+  private boolean detached;
+
+  private DeltaStream(Board board, FrameSink sink) {
+    this.board = board;
+    this.sink = sink;
+  }
+
+  /** Empieza a codificar el tablero; el primer tick incluye el estado actual como eventos */
+  public static DeltaStream attach(Board board, FrameSink sink) {
+    DeltaStream stream = new DeltaStream(board, sink);
+    board.addListener(stream);
+    return stream;
+  }
+
+  /** Codifica la cabecera del tablero: dimensiones y teletransportadores */
+  public static ByteBuffer header(Board board) {
+    RecordEncoder header = new RecordEncoder(ByteBuffer.allocate(64), RecordEncoder::grow);
+    header.header(board);
+    return header.buffer().flip();
+  }
+
+  /** Pide un cuadro clave al final del próximo tick */
+  public void requestKeyframe() {
+    keyframeRequested = true;
+  }
+
+  /** Devuelve un buffer entregado al sink para reutilizarlo en otro tick */
+  public void recycle(ByteBuffer buffer) {
+    if (buffer != null) free.offer(buffer.clear());
+  }
+
+  /** Deja de observar el tablero */
+  public void detach() {
+    board.removeListener(this);
+    lock.lock();
+    try {
+      detached = true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void snakeAdded(Snake snake) {
+    lock.lock();
+    try {
+      if (detached) return;
+      encoder.snakeAdded(snake);
+      alive.add(snake);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void snakeMoved(Snake snake, int from, int to, boolean grew) {
+    lock.lock();
+    try {
+      if (!detached) encoder.moved(snake, from, to, grew);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void teleported(Snake snake, int entry, int exit) {
+    lock.lock();
+    try {
+      if (!detached) encoder.teleported(snake, entry, exit);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void itemSpawned(Item item, int cell) {
+    lock.lock();
+    try {
+      if (!detached) encoder.spawned(item, cell);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void itemEaten(Snake snake, Item item, int cell) {
+    lock.lock();
+    try {
+      if (!detached) encoder.eaten(snake, item, cell);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void snakeDied(Snake snake) {
+    lock.lock();
+    try {
+      if (detached) return;
+      encoder.died(snake);
+      alive.remove(snake);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Cierra el tick y entrega sus registros; el tablero está bloqueado. El cuadro clave va
+   * sin muertas: al espectador solo le interesan las vivas.
+   */
+  @Override
+  public void tickCompleted(long tick) {
+    lock.lock();
+    try {
+      if (detached) return;
+      encoder.tick(tick);
+      ByteBuffer delta = encoder.buffer().flip();
+      ByteBuffer full = null;
+      if (keyframeRequested) {
+        keyframeRequested = false;
+        encoder.buffer(take());
+        encoder.keyframe(tick, board, alive, List.of());
+        encoder.tick(tick);
+        full = encoder.buffer().flip();
+      }
+      encoder.buffer(take());
+      sink.frame(tick, delta, full);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Retorna un buffer devuelto por el sink, o uno nuevo si no hay */
+  private ByteBuffer take() {
+    ByteBuffer b = free.poll();
+    return b != null ? b : ByteBuffer.allocate(BUFFER_SIZE);
+  }
+}
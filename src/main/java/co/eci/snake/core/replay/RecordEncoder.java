@@ -0,0 +1,172 @@
+package co.eci.snake.core.replay;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Item;
+import co.eci.snake.core.Position;
+import co.eci.snake.core.Snake;
+
+/**
+ * Escribe los registros de {@link ReplayFormat} en un buffer. Lo comparten la grabación en
+ * archivo ({@link ReplayRecorder}) y la transmisión en vivo ({@link DeltaStream}); cada una
+ * decide qué hacer cuando el buffer no alcanza: entregarlo al escritor y seguir en otro, o
+ * pasar a uno más grande. No es seguro para varios hilos: quien lo usa lo protege.
+ */
+final class RecordEncoder {
+
+  /** Da espacio cuando el buffer actual no alcanza */
+  @FunctionalInterface
+  interface Spill {
+    /** @return buffer en el que seguir escribiendo, con al menos bytes libres */
+    ByteBuffer room(ByteBuffer full, int bytes);
+  }
+
+  private final Spill spill;
+  private ByteBuffer buffer;
+
+  RecordEncoder(ByteBuffer buffer, Spill spill) {
+    this.buffer = buffer;
+    this.spill = spill;
+  }
+
+  /** Spill de un buffer en memoria que crece copiando lo escrito */
+  static ByteBuffer grow(ByteBuffer full, int bytes) {
+    ByteBuffer grown = ByteBuffer.allocate(Math.max(full.capacity() * 2, full.position() + bytes));
+    return grown.put(full.flip());
+  }
+
+  /** Retorna el buffer en el que se está escribiendo */
+  ByteBuffer buffer() {
+    return buffer;
+  }
+
+  /** Sigue escribiendo en otro buffer */
+  void buffer(ByteBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  /** Se asegura de que queden al menos bytes libres en el buffer */
+  void reserve(int bytes) {
+    if (buffer.remaining() < bytes) {
+      buffer = spill.room(buffer, bytes);
+    }
+  }
+
+  /** Cabecera: dimensiones y teletransportadores */
+  void header(Board board) {
+    Map<Position, Position> teleports = board.teleports();
+    reserve(4 + ReplayFormat.MAX_VARINT * 4);
+    buffer.putInt(ReplayFormat.MAGIC);
+    ReplayFormat.writeVarInt(buffer, ReplayFormat.VERSION);
+    ReplayFormat.writeVarInt(buffer, board.width());
+    ReplayFormat.writeVarInt(buffer, board.height());
+    ReplayFormat.writeVarInt(buffer, teleports.size());
+    for (var e : teleports.entrySet()) {
+      reserve(2 * ReplayFormat.MAX_VARINT);
+      ReplayFormat.writeVarInt(buffer, Position.pack(e.getKey().x(), e.getKey().y()));
+      ReplayFormat.writeVarInt(buffer, Position.pack(e.getValue().x(), e.getValue().y()));
+    }
+  }
+
+  void snakeAdded(Snake snake) {
+    reserve(1);
+    buffer.put(ReplayFormat.SNAKE_ADDED);
+    body(snake);
+  }
+
+  void moved(Snake snake, int from, int to, boolean grew) {
+    reserve(1 + 3 * ReplayFormat.MAX_VARINT);
+    buffer.put(grew ? ReplayFormat.MOVE_GROW : ReplayFormat.MOVE);
+    ReplayFormat.writeVarInt(buffer, snake.getId());
+    ReplayFormat.writeSigned(buffer, Position.packedX(to) - Position.packedX(from));
+    ReplayFormat.writeSigned(buffer, Position.packedY(to) - Position.packedY(from));
+  }
+
+  void teleported(Snake snake, int entry, int exit) {
+    reserve(1 + 3 * ReplayFormat.MAX_VARINT);
+    buffer.put(ReplayFormat.TELEPORT);
+    ReplayFormat.writeVarInt(buffer, snake.getId());
+    ReplayFormat.writeVarInt(buffer, entry);
+    ReplayFormat.writeVarInt(buffer, exit);
+  }
+
+  void spawned(Item item, int cell) {
+    reserve(1 + 2 * ReplayFormat.MAX_VARINT);
+    buffer.put(ReplayFormat.SPAWN);
+    ReplayFormat.writeVarInt(buffer, item.ordinal());
+    ReplayFormat.writeVarInt(buffer, cell);
+  }
+
+  void eaten(Snake snake, Item item, int cell) {
+    reserve(1 + 3 * ReplayFormat.MAX_VARINT);
+    buffer.put(ReplayFormat.EAT);
+    ReplayFormat.writeVarInt(buffer, snake.getId());
+    ReplayFormat.writeVarInt(buffer, item.ordinal());
+    ReplayFormat.writeVarInt(buffer, cell);
+  }
+
+  void died(Snake snake) {
+    reserve(1 + ReplayFormat.MAX_VARINT);
+    buffer.put(ReplayFormat.DEATH);
+    ReplayFormat.writeVarInt(buffer, snake.getId());
+  }
+
+  /** Marca del fin de un tick */
+  void tick(long tick) {
+    reserve(1 + ReplayFormat.MAX_VARINT);
+    buffer.put(ReplayFormat.TICK);
+    ReplayFormat.writeVarLong(buffer, tick);
+  }
+
+  /** Cuadro clave con el estado completo; se escribe con el tablero bloqueado */
+  void keyframe(long tick, Board board, Collection<Snake> alive, Collection<Snake> dead) {
+    reserve(1 + 2 * ReplayFormat.MAX_VARINT);
+    buffer.put(ReplayFormat.KEYFRAME);
+    ReplayFormat.writeVarLong(buffer, tick);
+
+    Set<Position> mice = board.mice();
+    Set<Position> obstacles = board.obstacles();
+    Set<Position> turbo = board.turbo();
+    ReplayFormat.writeVarInt(buffer, mice.size() + obstacles.size() + turbo.size());
+    items(Item.MOUSE, mice);
+    items(Item.OBSTACLE, obstacles);
+    items(Item.TURBO, turbo);
+
+    reserve(ReplayFormat.MAX_VARINT);
+    ReplayFormat.writeVarInt(buffer, alive.size());
+    for (Snake s : alive) body(s);
+    reserve(ReplayFormat.MAX_VARINT);
+    ReplayFormat.writeVarInt(buffer, dead.size());
+    for (Snake s : dead) body(s);
+  }
+
+  private void items(Item item, Set<Position> cells) {
+    for (Position p : cells) {
+      reserve(2 * ReplayFormat.MAX_VARINT);
+      ReplayFormat.writeVarInt(buffer, item.ordinal());
+      ReplayFormat.writeVarInt(buffer, Position.pack(p.x(), p.y()));
+    }
+  }
+
+  /** Escribe el id y el cuerpo: longitud objetivo, largo, cabeza y desplazamientos */
+  private void body(Snake snake) {
+    int length = snake.length();
+    reserve(4 * ReplayFormat.MAX_VARINT);
+    ReplayFormat.writeVarInt(buffer, snake.getId());
+    ReplayFormat.writeVarInt(buffer, snake.targetLength());
+    ReplayFormat.writeVarInt(buffer, length);
+    int prev = snake.cellAt(0);
+    ReplayFormat.writeVarInt(buffer, prev);
+    for (int i = 1; i < length; i++) {
+      int cell = snake.cellAt(i);
+      reserve(2 * ReplayFormat.MAX_VARINT);
+      ReplayFormat.writeSigned(buffer, Position.packedX(cell) - Position.packedX(prev));
+      ReplayFormat.writeSigned(buffer, Position.packedY(cell) - Position.packedY(prev));
+      prev = cell;
+    }
+  }
+}
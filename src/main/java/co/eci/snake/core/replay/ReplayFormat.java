@@ -0,0 +1,75 @@
+package co.eci.snake.core.replay;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Formato binario de las repeticiones. Todo entero va como varint (7 bits por byte, el
+ * bit alto indica que sigue otro byte) y los desplazamientos con signo en zigzag, así que
+ * un movimiento normal ocupa 4 bytes: etiqueta, id, dx y dy.
+ *
+ * <pre>
+ * cabecera:  MAGIC(4) VERSION ancho alto n [entrada salida]*   (teletransportadores)
+ * registros: etiqueta + campos (ver constantes)
+ * índice:    INDEX primer-tick último-tick n [tick offset]*
+ * final:     offset-del-índice(8) MAGIC(4)
+ * </pre>
+ * Un cuerpo se escribe como longitud-objetivo, largo, celda de la cabeza y luego el
+ * desplazamiento (dx, dy) de cada segmento respecto al anterior.
+ */
+final class ReplayFormat {
+  static final int MAGIC = 0x534E4B52;  // "SNKR"
+  static final int VERSION = 1;
+
+  static final byte SNAKE_ADDED = 1;  // id cuerpo
+  static final byte MOVE = 2;  // id dx dy
+  static final byte MOVE_GROW = 3;  // id dx dy
+  static final byte TELEPORT = 4;  // id entrada salida
+  static final byte SPAWN = 5;  // elemento celda
+  static final byte EAT = 6;  // id elemento celda
+  static final byte DEATH = 7;  // id
+  static final byte TICK = 8;  // tick
+  static final byte KEYFRAME = 9;  // tick n [elemento celda]* vivas [id cuerpo]* muertas [id cuerpo]*
+  static final byte INDEX = 10;  // primer-tick último-tick n [tick offset]*
+
+  /** Bytes que ocupa como máximo un varint de 64 bits */
+  static final int MAX_VARINT = 10;
+
+  private ReplayFormat() {}
+
+  static void writeVarLong(ByteBuffer out, long v) {
+    while ((v & ~0x7FL) != 0) {
+      out.put((byte) ((v & 0x7F) | 0x80));
+      v >>>= 7;
+    }
+    out.put((byte) v);
+  }
+
+  static void writeVarInt(ByteBuffer out, int v) {
+    writeVarLong(out, v & 0xFFFFFFFFL);
+  }
+
+  static void writeSigned(ByteBuffer out, int v) {
+    writeVarInt(out, (v << 1) ^ (v >> 31));
+  }
+
+  static long readVarLong(ByteBuffer in) {
+    long v = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = in.get();
+      v |= (long) (b & 0x7F) << shift;
+      if (b >= 0) {
+        return v;
+      }
+    }
+    throw new IllegalStateException("Malformed varint");
+  }
+
+  static int readVarInt(ByteBuffer in) {
+    return (int) readVarLong(in);
+  }
+
+  static int readSigned(ByteBuffer in) {
+    int v = readVarInt(in);
+    return (v >>> 1) ^ -(v & 1);
+  }
+}
@@ -0,0 +1,185 @@
+package co.eci.snake.core.replay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import co.eci.snake.core.Position;
+import co.eci.snake.core.WorldSnapshot;
+
+/**
+ * Reproduce una carrera grabada por {@link ReplayRecorder}. El archivo se mapea en memoria
+ * y {@link #seek(long)} reconstruye cualquier tick partiendo del cuadro clave anterior más
+ * cercano; si se avanza tick a tick continúa desde el último estado sin volver atrás.
+ * Si el archivo no tiene índice (la grabación no se cerró) lo reconstruye recorriéndolo.
+ */
+public final class ReplayPlayer implements Closeable {
+  private final FileChannel channel;
+  private final ByteBuffer data;
+  private final int width;
+  private final int height;
+  private final Map<Position, Position> teleports;
+  private final int recordsStart;
+  private long[] keyframeTicks;
+  private long[] keyframeOffsets;
+  private long firstTick = -1;
+  private long lastTick = -1;
+  private ReplayState state;  // Estado en stateTick, con data posicionado justo después
+  private long stateTick;
+
+  private ReplayPlayer(FileChannel channel) throws IOException {
+    this.channel = channel;
+    this.data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    if (data.remaining() < 4 || data.getInt() != ReplayFormat.MAGIC) {
+      throw new IOException("Not a snake replay file");
+    }
+    int version = ReplayFormat.readVarInt(data);
+    if (version != ReplayFormat.VERSION) {
+      throw new IOException("Unsupported replay version " + version);
+    }
+    this.width = ReplayFormat.readVarInt(data);
+    this.height = ReplayFormat.readVarInt(data);
+    Map<Position, Position> tp = new HashMap<>();
+    int n = ReplayFormat.readVarInt(data);
+    for (int i = 0; i < n; i++) {
+      tp.put(Position.unpack(ReplayFormat.readVarInt(data)), Position.unpack(ReplayFormat.readVarInt(data)));
+    }
+    this.teleports = Map.copyOf(tp);
+    this.recordsStart = data.position();
+    if (!readIndex()) {
+      scan();
+    }
+  }
+
+  /** Abre una repetición */
+  public static ReplayPlayer open(Path file) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      return new ReplayPlayer(channel);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /** Lee el índice del final del archivo; retorna false si no lo tiene */
+  private boolean readIndex() {
+    int end = data.limit();
+    if (end - recordsStart < 12 || data.getInt(end - 4) != ReplayFormat.MAGIC) {
+      return false;
+    }
+    long offset = data.getLong(end - 12);
+    if (offset < recordsStart || offset >= end - 12 || data.get((int) offset) != ReplayFormat.INDEX) {
+      return false;
+    }
+    data.position((int) offset + 1);
+    firstTick = ReplayFormat.readVarLong(data);
+    lastTick = ReplayFormat.readVarLong(data);
+    int n = ReplayFormat.readVarInt(data);
+    keyframeTicks = new long[n];
+    keyframeOffsets = new long[n];
+    for (int i = 0; i < n; i++) {
+      keyframeTicks[i] = ReplayFormat.readVarLong(data);
+      keyframeOffsets[i] = ReplayFormat.readVarLong(data);
+    }
+    return true;
+  }
+
+  /** Recorre los registros de un archivo sin índice y anota los cuadros clave y los ticks */
+  private void scan() {
+    ReplayState scratch = new ReplayState(width, height, teleports);
+    long[] ticks = new long[16];
+    long[] offsets = new long[16];
+    int n = 0;
+    data.position(recordsStart);
+    try {
+      while (data.hasRemaining()) {
+        int offset = data.position();
+        boolean keyframe = data.get(offset) == ReplayFormat.KEYFRAME;
+        long tick = scratch.apply(data);
+        if (tick == -2) break;
+        if (tick >= 0) {
+          if (firstTick < 0) firstTick = tick;
+          lastTick = tick;
+        } else if (keyframe) {
+          if (n == ticks.length) {
+            ticks = Arrays.copyOf(ticks, n * 2);
+            offsets = Arrays.copyOf(offsets, n * 2);
+          }
+          ticks[n] = lastTick;
+          offsets[n++] = offset;
+        }
+      }
+    } catch (BufferUnderflowException | IllegalStateException e) {
+      // Último registro incompleto: la repetición termina en el último tick completo
+    }
+    keyframeTicks = Arrays.copyOf(ticks, n);
+    keyframeOffsets = Arrays.copyOf(offsets, n);
+  }
+
+  /** Retorna el ancho del tablero grabado */
+  public int width() {
+    return width;
+  }
+
+  /** Retorna la altura del tablero grabado */
+  public int height() {
+    return height;
+  }
+
+  /** Retorna el primer tick grabado, o -1 si no hay ninguno */
+  public long firstTick() {
+    return firstTick;
+  }
+
+  /** Retorna el último tick grabado, o -1 si no hay ninguno */
+  public long lastTick() {
+    return lastTick;
+  }
+
+  /**
+   * Reconstruye el tablero al final del tick dado.
+   * @throws IllegalArgumentException si el tick no está en la grabación
+   */
+  public synchronized WorldSnapshot seek(long tick) {
+    if (firstTick < 0 || tick < firstTick || tick > lastTick) {
+      throw new IllegalArgumentException("Tick " + tick + " is not in the replay");
+    }
+    int k = Arrays.binarySearch(keyframeTicks, tick);
+    if (k < 0) k = -k - 2;  // Último cuadro clave anterior
+    long keyframeTick = k >= 0 ? keyframeTicks[k] : Long.MIN_VALUE;
+    if (state == null || stateTick > tick || stateTick < keyframeTick) {
+      state = new ReplayState(width, height, teleports);
+      if (k >= 0) {
+        data.position((int) keyframeOffsets[k]);
+        state.apply(data);
+        stateTick = keyframeTick;
+      } else {
+        data.position(recordsStart);
+        stateTick = Long.MIN_VALUE;
+      }
+    }
+    while (stateTick < tick) {
+      long t = state.apply(data);
+      if (t == -2) break;
+      if (t >= 0) stateTick = t;
+    }
+    if (stateTick != tick) {
+      state = null;
+      throw new IllegalArgumentException("Tick " + tick + " is not in the replay");
+    }
+    return state.toSnapshot(tick);
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,271 @@
+package co.eci.snake.core.replay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.BoardListener;
+import co.eci.snake.core.Item;
+import co.eci.snake.core.Snake;
+
+/**
+ * Graba una carrera en el formato de {@link ReplayFormat}: cada evento del tablero se
+ * codifica en un buffer directo y, cuando se llena, se entrega a un hilo escritor que lo
+ * vuelca al archivo por un FileChannel mientras se llena otro; así los pasos del tablero,
+ * que avisan con sus locks tomados, no esperan al disco. Cada keyframeInterval ticks se
+ * escribe un cuadro clave con el estado completo para que {@link ReplayPlayer} pueda
+ * saltar a cualquier tick sin leer desde el inicio. Los errores de escritura detienen la
+ * grabación y se lanzan al cerrarla.
+ */
+public final class ReplayRecorder implements BoardListener, Closeable {
+  private final Board board;
+  private final FileChannel channel;
+  private static final int BUFFER_SIZE = 1 << 16;
+  /** Buffers en circulación; solo si el disco va más lento que la carrera se espera uno libre */
+  private static final int BUFFERS = 4;
+  private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(BUFFERS);
+  private final BlockingQueue<ByteBuffer> full = new ArrayBlockingQueue<>(BUFFERS + 1);
+  private final Thread writer;
+  private final RecordEncoder encoder;
+  private final int keyframeInterval;
+  private final List<Snake> alive = new ArrayList<>();
+  private final List<Snake> dead = new ArrayList<>();
+  private long[] keyframeTicks = new long[16];
+  private long[] keyframeOffsets = new long[16];
+  private int keyframes = 0;
+  private long firstTick = -1;
+  private long lastTick = -1;
+  private long handedOff = 0;  // Bytes ya entregados al escritor
+  private volatile IOException failure;
+  private boolean closed;
+
+  private ReplayRecorder(Board board, FileChannel channel, int keyframeInterval) {
+    this.board = board;
+    this.channel = channel;
+    this.keyframeInterval = keyframeInterval;
+    for (int i = 1; i < BUFFERS; i++) free.add(ByteBuffer.allocateDirect(BUFFER_SIZE));
+    this.encoder = new RecordEncoder(ByteBuffer.allocateDirect(BUFFER_SIZE), this::spill);
+    this.writer = Thread.ofPlatform().name("replay-writer").daemon().unstarted(this::drain);
+  }
+
+  /**
+   * Empieza a grabar el tablero en el archivo dado (lo reemplaza si existe), con un
+   * cuadro clave cada keyframeInterval ticks.
+   */
+  public static ReplayRecorder start(Board board, Path file, int keyframeInterval) throws IOException {
+    if (keyframeInterval <= 0) {
+      throw new IllegalArgumentException("keyframeInterval must be positive");
+    }
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    ReplayRecorder recorder = new ReplayRecorder(board, channel, keyframeInterval);
+    recorder.encoder.header(board);
+    recorder.writer.start();
+    board.addListener(recorder);
+    return recorder;
+  }
+
+  /** Hilo escritor: vuelca los buffers llenos en orden y los devuelve para reutilizarlos */
+  private void drain() {
+    while (true) {
+      ByteBuffer b = takeUninterruptibly(full);
+      if (b == END) return;
+      try {
+        while (failure == null && b.hasRemaining()) channel.write(b);
+      } catch (IOException e) {
+        failure = e;
+      }
+      b.clear();
+      free.add(b);
+    }
+  }
+
+  @Override
+  public void snakeAdded(Snake snake) {
+    lock.lock();
+    try {
+      if (!recording()) return;
+      encoder.snakeAdded(snake);
+      alive.add(snake);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void snakeMoved(Snake snake, int from, int to, boolean grew) {
+    lock.lock();
+    try {
+      if (recording()) encoder.moved(snake, from, to, grew);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void teleported(Snake snake, int entry, int exit) {
+    lock.lock();
+    try {
+      if (recording()) encoder.teleported(snake, entry, exit);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void itemSpawned(Item item, int cell) {
+    lock.lock();
+    try {
+      if (recording()) encoder.spawned(item, cell);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void itemEaten(Snake snake, Item item, int cell) {
+    lock.lock();
+    try {
+      if (recording()) encoder.eaten(snake, item, cell);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void snakeDied(Snake snake) {
+    lock.lock();
+    try {
+      if (!recording()) return;
+      encoder.died(snake);
+      if (alive.remove(snake)) dead.add(snake);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Marca el fin del tick y, cada keyframeInterval ticks, escribe un cuadro clave */
+  @Override
+  public void tickCompleted(long tick) {
+    lock.lock();
+    try {
+      if (!recording()) return;
+      encoder.tick(tick);
+      if (firstTick < 0) firstTick = tick;
+      lastTick = tick;
+      if (tick % keyframeInterval == 0) {
+        writeKeyframe(tick);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Anota el cuadro clave en el índice y escribe el estado completo; el tablero está bloqueado */
+  private void writeKeyframe(long tick) {
+    if (keyframes == keyframeTicks.length) {
+      keyframeTicks = Arrays.copyOf(keyframeTicks, keyframes * 2);
+      keyframeOffsets = Arrays.copyOf(keyframeOffsets, keyframes * 2);
+    }
+    // Se reserva antes de medir para que el cuadro empiece en el buffer cuya posición se anota
+    encoder.reserve(1 + 2 * ReplayFormat.MAX_VARINT);
+    keyframeTicks[keyframes] = tick;
+    keyframeOffsets[keyframes++] = handedOff + encoder.buffer().position();
+    encoder.keyframe(tick, board, alive, dead);
+  }
+
+  private boolean recording() {
+    return !closed && failure == null;
+  }
+
+  /** Entrega el buffer lleno al escritor y sigue en uno libre */
+  private ByteBuffer spill(ByteBuffer buffer, int bytes) {
+    handOff(buffer);
+    return takeUninterruptibly(free);
+  }
+
+  private void handOff(ByteBuffer buffer) {
+    buffer.flip();
+    handedOff += buffer.remaining();
+    full.add(buffer);  // Nunca está llena: caben todos los buffers y el fin
+  }
+
+  /** Espera un buffer aunque interrumpan al hilo (p. ej. al detener la carrera) sin perder el aviso */
+  private static ByteBuffer takeUninterruptibly(BlockingQueue<ByteBuffer> queue) {
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          return queue.take();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    } finally {
+      if (interrupted) Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Deja de grabar, escribe el índice de cuadros clave y cierra el archivo. Un archivo
+   * sin índice (p. ej. si el proceso murió) igual se puede reproducir hasta donde llegó.
+   * @throws IOException si falló alguna escritura durante la grabación
+   */
+  @Override
+  public void close() throws IOException {
+    // Primero se deja de observar, fuera del lock, para no cruzarse con los locks del tablero
+    board.removeListener(this);
+    lock.lock();
+    try {
+      if (closed) return;
+      closed = true;
+      if (failure == null) {
+        encoder.reserve(1 + ReplayFormat.MAX_VARINT * 3);
+        ByteBuffer buffer = encoder.buffer();
+        long indexOffset = handedOff + buffer.position();
+        buffer.put(ReplayFormat.INDEX);
+        ReplayFormat.writeVarLong(buffer, firstTick);
+        ReplayFormat.writeVarLong(buffer, lastTick);
+        ReplayFormat.writeVarInt(buffer, keyframes);
+        for (int i = 0; i < keyframes; i++) {
+          encoder.reserve(2 * ReplayFormat.MAX_VARINT);
+          buffer = encoder.buffer();
+          ReplayFormat.writeVarLong(buffer, keyframeTicks[i]);
+          ReplayFormat.writeVarLong(buffer, keyframeOffsets[i]);
+        }
+        encoder.reserve(12);
+        buffer = encoder.buffer();
+        buffer.putLong(indexOffset);
+        buffer.putInt(ReplayFormat.MAGIC);
+        handOff(buffer);
+      }
+      full.add(END);
+    } finally {
+      lock.unlock();
+    }
+    boolean interrupted = false;
+    while (writer.isAlive()) {
+      try {
+        writer.join();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) Thread.currentThread().interrupt();
+    channel.close();
+    if (failure != null) throw failure;
+  }
+}
@@ -0,0 +1,188 @@
+package co.eci.snake.core.replay;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import co.eci.snake.core.Item;
+import co.eci.snake.core.Position;
+import co.eci.snake.core.WorldSnapshot;
+
+/** Estado del tablero reconstruido aplicando los registros de una repetición */
+final class ReplayState {
+  private static final Item[] ITEMS = Item.values();
+
+  private final int width;
+  private final int height;
+  private final Map<Position, Position> teleports;
+  private final Map<Integer, Item> items = new HashMap<>();  // Elemento por celda empaquetada
+  private final Map<Integer, Body> alive = new LinkedHashMap<>();  // Por id, en orden de llegada
+  private final List<Body> dead = new ArrayList<>();
+
+  /** Cuerpo de una serpiente con las mismas reglas de crecimiento que Snake */
+  private static final class Body {
+    final int id;
+    int[] cells = new int[8];
+    int head = 0;
+    int size = 0;
+    int target;
+
+    Body(int id, int target) {
+      this.id = id;
+      this.target = target;
+    }
+
+    void addLast(int cell) {
+      ensureRoom();
+      cells[(head + size) & (cells.length - 1)] = cell;
+      size++;
+    }
+
+    void advance(int cell, boolean grew) {
+      ensureRoom();
+      head = (head - 1) & (cells.length - 1);
+      cells[head] = cell;
+      size++;
+      if (grew) target++;
+      if (size > target) size = target;
+    }
+
+    int headCell() {
+      return cells[head];
+    }
+
+    int[] toArray() {
+      int[] copy = new int[size];
+      for (int i = 0; i < size; i++) copy[i] = cells[(head + i) & (cells.length - 1)];
+      return copy;
+    }
+
+    private void ensureRoom() {
+      if (size < cells.length) return;
+      int[] grown = new int[cells.length * 2];
+      for (int i = 0; i < size; i++) grown[i] = cells[(head + i) & (cells.length - 1)];
+      cells = grown;
+      head = 0;
+    }
+  }
+
+  ReplayState(int width, int height, Map<Position, Position> teleports) {
+    this.width = width;
+    this.height = height;
+    this.teleports = teleports;
+  }
+
+  /**
+   * Aplica el registro en la posición actual del buffer.
+   * @return el tick si el registro era una marca de tick, -1 si era otro registro,
+   *     o -2 si se llegó al índice (fin de los registros)
+   */
+  long apply(ByteBuffer in) {
+    byte tag = in.get();
+    switch (tag) {
+      case ReplayFormat.SNAKE_ADDED -> {
+        Body b = readBody(in);
+        alive.put(b.id, b);
+      }
+      case ReplayFormat.MOVE, ReplayFormat.MOVE_GROW -> {
+        Body b = alive.get(ReplayFormat.readVarInt(in));
+        int dx = ReplayFormat.readSigned(in);
+        int dy = ReplayFormat.readSigned(in);
+        int from = b.headCell();
+        b.advance(Position.pack(Position.packedX(from) + dx, Position.packedY(from) + dy),
+            tag == ReplayFormat.MOVE_GROW);
+      }
+      case ReplayFormat.TELEPORT -> {
+        ReplayFormat.readVarInt(in);
+        ReplayFormat.readVarInt(in);
+        ReplayFormat.readVarInt(in);
+      }
+      case ReplayFormat.SPAWN -> {
+        Item item = ITEMS[ReplayFormat.readVarInt(in)];
+        items.put(ReplayFormat.readVarInt(in), item);
+      }
+      case ReplayFormat.EAT -> {
+        ReplayFormat.readVarInt(in);
+        ReplayFormat.readVarInt(in);
+        items.remove(ReplayFormat.readVarInt(in));
+      }
+      case ReplayFormat.DEATH -> {
+        Body b = alive.remove(ReplayFormat.readVarInt(in));
+        if (b != null) dead.add(b);
+      }
+      case ReplayFormat.TICK -> {
+        return ReplayFormat.readVarLong(in);
+      }
+      case ReplayFormat.KEYFRAME -> loadKeyframe(in);
+      case ReplayFormat.INDEX -> {
+        return -2;
+      }
+      default -> throw new IllegalStateException("Unknown replay record " + tag);
+    }
+    return -1;
+  }
+
+  /** Reemplaza el estado por el de un cuadro clave (sin la etiqueta, ya leída) */
+  private void loadKeyframe(ByteBuffer in) {
+    ReplayFormat.readVarLong(in);
+    items.clear();
+    alive.clear();
+    dead.clear();
+    int n = ReplayFormat.readVarInt(in);
+    for (int i = 0; i < n; i++) {
+      Item item = ITEMS[ReplayFormat.readVarInt(in)];
+      items.put(ReplayFormat.readVarInt(in), item);
+    }
+    n = ReplayFormat.readVarInt(in);
+    for (int i = 0; i < n; i++) {
+      Body b = readBody(in);
+      alive.put(b.id, b);
+    }
+    n = ReplayFormat.readVarInt(in);
+    for (int i = 0; i < n; i++) {
+      dead.add(readBody(in));
+    }
+  }
+
+  /** Lee un id y un cuerpo escritos por {@link ReplayRecorder} */
+  private static Body readBody(ByteBuffer in) {
+    Body b = new Body(ReplayFormat.readVarInt(in), ReplayFormat.readVarInt(in));
+    int length = ReplayFormat.readVarInt(in);
+    int cell = ReplayFormat.readVarInt(in);
+    b.addLast(cell);
+    for (int i = 1; i < length; i++) {
+      int dx = ReplayFormat.readSigned(in);
+      int dy = ReplayFormat.readSigned(in);
+      cell = Position.pack(Position.packedX(cell) + dx, Position.packedY(cell) + dy);
+      b.addLast(cell);
+    }
+    return b;
+  }
+
+  /** Construye una foto del estado actual */
+  WorldSnapshot toSnapshot(long version) {
+    Set<Position> mice = new HashSet<>();
+    Set<Position> obstacles = new HashSet<>();
+    Set<Position> turbo = new HashSet<>();
+    items.forEach((cell, item) -> {
+      Set<Position> target = switch (item) {
+        case MOUSE -> mice;
+        case OBSTACLE -> obstacles;
+        default -> turbo;
+      };
+      target.add(Position.unpack(cell));
+    });
+    var snapshotItems = new WorldSnapshot.Items(version, Set.copyOf(mice), Set.copyOf(obstacles),
+        Set.copyOf(turbo), teleports);
+    List<WorldSnapshot.SnakeView> snakes = new ArrayList<>(alive.size());
+    for (Body b : alive.values()) snakes.add(WorldSnapshot.SnakeView.of(b.id, b.toArray()));
+    List<WorldSnapshot.SnakeView> deadSnakes = new ArrayList<>(dead.size());
+    for (Body b : dead) deadSnakes.add(WorldSnapshot.SnakeView.of(b.id, b.toArray()));
+    return new WorldSnapshot(version, width, height, snapshotItems, List.copyOf(snakes), List.copyOf(deadSnakes));
+  }
+}
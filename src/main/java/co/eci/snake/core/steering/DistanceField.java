@@ -0,0 +1,375 @@
+package co.eci.snake.core.steering;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.BoardListener;
+import co.eci.snake.core.Item;
+import co.eci.snake.core.Position;
+import co.eci.snake.core.Snake;
+
+/**
+ * Distancia, en movimientos, desde cada celda hasta el ratón más cercano, compartida por
+ * todas las serpientes de un tablero y acotada a un radio: más lejos la celda queda como
+ * {@link #UNREACHABLE}. Respeta la grilla toroidal, los obstáculos y los teletransportes.
+ *
+ * <p>Se actualiza de forma incremental: como observador del tablero anota qué ratones y
+ * obstáculos aparecen o se comen, y al aplicar esos cambios solo recalcula las celdas a
+ * distancia de a lo sumo el radio de alguno de ellos (la "bola" de los cambios), que son
+ * las únicas cuya distancia puede cambiar. Las distancias se guardan en bloques de 32x32
+ * que se reservan cuando alguna celda queda a alcance de un ratón y se liberan cuando ya
+ * ninguna lo está, así que la memoria depende de los ratones y no del área del tablero.
+ * Los valores nuevos se calculan aparte y se escriben al final, celda por celda: mientras
+ * un hilo aplica cambios los demás leen sin esperar distancias viejas o nuevas.
+ */
+public final class DistanceField implements BoardListener {
+  /** Distancia de las celdas desde las que no se llega a ningún ratón dentro del radio */
+  public static final int UNREACHABLE = Integer.MAX_VALUE;
+  /** Radio por defecto, en movimientos */
+  public static final int DEFAULT_RADIUS = 64;
+
+  private static final int SHIFT = 5;
+  private static final int CHUNK = 1 << SHIFT;
+  private static final int MASK = CHUNK - 1;
+  private static final Item[] ITEMS = Item.values();
+
+  private final int width;
+  private final int height;
+  private final int radius;
+  private final int chunksX;
+  private final int[] teleportFrom;  // Pares (entrada, salida) como índices de la grilla
+  private final int[] teleportTo;
+  private final AtomicReferenceArray<Block> blocks;  // Null: ninguna celda del bloque está a alcance
+  private final ConcurrentLinkedQueue<Long> changes = new ConcurrentLinkedQueue<>();
+  private final ReentrantLock updating = new ReentrantLock();
+
+  // Estado de quien aplica los cambios, solo se usa con el lock de actualización
+  private final Set<Integer> mice = new HashSet<>();
+  private final Set<Integer> obstacles = new HashSet<>();
+  private final CellMap ball = new CellMap();  // Celda de la bola -> su posición en cells
+  private int[] cells = new int[64];
+  private int[] depth = new int[64];
+  private int[] next = new int[64];  // Distancia recalculada de cada celda de la bola
+  private int size = 0;
+  private final int[][] buckets;  // Posiciones en cells por distancia tentativa
+  private final int[] bucketSize;
+  private final int[] around = new int[4];
+
+  /** Distancias de un bloque de CHUNK x CHUNK celdas, llenas antes de publicarse */
+  private static final class Block {
+    final int[] distance = new int[CHUNK * CHUNK];
+    int reachable = 0;  // Celdas con distancia finita
+
+    Block() {
+      Arrays.fill(distance, UNREACHABLE);
+    }
+  }
+
+  public DistanceField(Board board) {
+    this(board, DEFAULT_RADIUS);
+  }
+
+  /** @param radius distancia máxima que se calcula */
+  public DistanceField(Board board, int radius) {
+    if (radius <= 0) {
+      throw new IllegalArgumentException("radius must be positive");
+    }
+    this.width = board.width();
+    this.height = board.height();
+    this.radius = radius;
+    this.chunksX = (width + MASK) >> SHIFT;
+    this.blocks = new AtomicReferenceArray<>(chunksX * ((height + MASK) >> SHIFT));
+    this.buckets = new int[radius + 1][8];
+    this.bucketSize = new int[radius + 1];
+    // Los teletransportadores no cambian después de construir el tablero
+    Map<Position, Position> teleports = board.teleports();
+    this.teleportFrom = new int[teleports.size()];
+    this.teleportTo = new int[teleports.size()];
+    int i = 0;
+    for (var e : teleports.entrySet()) {
+      teleportFrom[i] = index(e.getKey().x(), e.getKey().y());
+      teleportTo[i++] = index(e.getValue().x(), e.getValue().y());
+    }
+    // Al registrarse recibe los elementos actuales como cambios; se aplican en la primera consulta
+    board.addListener(this);
+  }
+
+  /** Retorna la distancia desde la celda empaquetada al ratón más cercano, o UNREACHABLE */
+  public int distance(int packedCell) {
+    if (!changes.isEmpty() && updating.tryLock()) {
+      applyLocked();
+    }
+    return get(index(Position.packedX(packedCell), Position.packedY(packedCell)));
+  }
+
+  /** Aplica los cambios pendientes, esperando a quien ya los esté aplicando */
+  void refresh() {
+    if (changes.isEmpty()) return;
+    updating.lock();
+    applyLocked();
+  }
+
+  @Override
+  public void itemSpawned(Item item, int cell) {
+    if (item == Item.MOUSE || item == Item.OBSTACLE) enqueue(item, cell, true);
+  }
+
+  @Override
+  public void itemEaten(Snake snake, Item item, int cell) {
+    if (item == Item.MOUSE) enqueue(item, cell, false);
+  }
+
+  /** Anota el cambio; se llama bajo el lock de la región, así que los de una celda quedan en orden */
+  private void enqueue(Item item, int packed, boolean added) {
+    long cell = index(Position.packedX(packed), Position.packedY(packed));
+    changes.add(((long) item.ordinal() << 33) | (added ? 1L << 32 : 0) | cell);
+  }
+
+  /** Aplica los cambios pendientes y libera el lock de actualización, que se recibe tomado */
+  private void applyLocked() {
+    try {
+      ball.clear();
+      size = 0;
+      Long change;
+      while ((change = changes.poll()) != null) {
+        int cell = (int) (long) change;
+        Set<Integer> items = ITEMS[(int) (change >>> 33)] == Item.MOUSE ? mice : obstacles;
+        if ((change & (1L << 32)) != 0) {
+          items.add(cell);
+        } else {
+          items.remove(cell);
+        }
+        join(cell, 0);
+      }
+      if (size == 0) return;
+      collectBall();
+      recompute();
+      for (int i = 0; i < size; i++) set(cells[i], next[i]);
+    } finally {
+      updating.unlock();
+    }
+  }
+
+  /**
+   * Extiende la bola desde las celdas que cambiaron siguiendo los movimientos al revés hasta
+   * el radio. Las celdas que cambiaron cuentan como transitables aunque sean obstáculos: un
+   * camino que pasaba por un obstáculo nuevo también hay que rehacerlo.
+   */
+  private void collectBall() {
+    for (int head = 0; head < size; head++) {
+      int d = depth[head];
+      if (d == radius) continue;
+      int n = predecessors(cells[head]);
+      for (int k = 0; k < n; k++) {
+        int u = around[k];
+        if (ball.get(u) < 0 && !obstacles.contains(u)) join(u, d + 1);
+      }
+    }
+  }
+
+  /**
+   * Recalcula las distancias de la bola con los elementos actuales. Las celdas de afuera
+   * no cambian y sirven de semillas; desde ahí se propaga hacia atrás por cubetas de distancia.
+   */
+  private void recompute() {
+    Arrays.fill(bucketSize, 0);
+    for (int i = 0; i < size; i++) {
+      int u = cells[i];
+      next[i] = UNREACHABLE;
+      if (obstacles.contains(u)) continue;
+      if (mice.contains(u)) {
+        next[i] = 0;
+      } else {
+        int n = successors(u);
+        for (int k = 0; k < n; k++) {
+          int w = around[k];
+          if (ball.get(w) >= 0) continue;
+          int d = get(w);
+          if (d < radius && d + 1 < next[i]) next[i] = d + 1;
+        }
+      }
+      if (next[i] != UNREACHABLE) push(next[i], i);
+    }
+    for (int d = 0; d < radius; d++) {
+      for (int b = 0; b < bucketSize[d]; b++) {
+        int i = buckets[d][b];
+        if (next[i] != d) continue;  // Ya salió por una cubeta menor
+        int n = predecessors(cells[i]);
+        for (int k = 0; k < n; k++) {
+          int j = ball.get(around[k]);
+          if (j >= 0 && next[j] > d + 1 && !obstacles.contains(around[k])) {
+            next[j] = d + 1;
+            push(d + 1, j);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Deja en around las celdas desde las que un movimiento termina en v. Se llega a v
+   * pisándola, salvo que sea un teletransportador: a v se llega pisando su par.
+   * @return cuántas dejó
+   */
+  private int predecessors(int v) {
+    int entry = v;
+    for (int i = 0; i < teleportTo.length; i++) {
+      if (teleportTo[i] == v) {
+        entry = teleportFrom[i];
+        break;
+      }
+    }
+    int x = entry % width;
+    int y = entry / width;
+    around[0] = index((x + 1) % width, y);
+    around[1] = index((x + width - 1) % width, y);
+    around[2] = index(x, (y + 1) % height);
+    around[3] = index(x, (y + height - 1) % height);
+    return 4;
+  }
+
+  /**
+   * Deja en around las celdas donde termina cada movimiento desde u que no choca con un
+   * obstáculo, siguiendo los teletransportadores.
+   * @return cuántas dejó
+   */
+  private int successors(int u) {
+    int x = u % width;
+    int y = u / width;
+    int n = 0;
+    n = landing(index((x + 1) % width, y), n);
+    n = landing(index((x + width - 1) % width, y), n);
+    n = landing(index(x, (y + 1) % height), n);
+    return landing(index(x, (y + height - 1) % height), n);
+  }
+
+  private int landing(int stepped, int n) {
+    if (obstacles.contains(stepped)) return n;
+    for (int i = 0; i < teleportFrom.length; i++) {
+      if (teleportFrom[i] == stepped) {
+        around[n] = teleportTo[i];
+        return n + 1;
+      }
+    }
+    around[n] = stepped;
+    return n + 1;
+  }
+
+  /** Agrega la celda a la bola con la profundidad dada */
+  private void join(int cell, int d) {
+    if (ball.get(cell) >= 0) return;
+    if (size == cells.length) {
+      cells = Arrays.copyOf(cells, size * 2);
+      depth = Arrays.copyOf(depth, size * 2);
+      next = Arrays.copyOf(next, size * 2);
+    }
+    ball.put(cell, size);
+    cells[size] = cell;
+    depth[size++] = d;
+  }
+
+  private void push(int d, int i) {
+    if (bucketSize[d] == buckets[d].length) buckets[d] = Arrays.copyOf(buckets[d], bucketSize[d] * 2);
+    buckets[d][bucketSize[d]++] = i;
+  }
+
+  /** Lee la distancia guardada de la celda; se puede llamar desde cualquier hilo */
+  private int get(int cell) {
+    Block b = blocks.get(blockOf(cell));
+    return b == null ? UNREACHABLE : b.distance[localOf(cell)];
+  }
+
+  /** Escribe la distancia de la celda, reservando o liberando su bloque */
+  private void set(int cell, int d) {
+    int bi = blockOf(cell);
+    Block b = blocks.get(bi);
+    if (b == null) {
+      if (d == UNREACHABLE) return;
+      b = new Block();
+      blocks.set(bi, b);
+    }
+    int local = localOf(cell);
+    int old = b.distance[local];
+    if (old == d) return;
+    b.distance[local] = d;
+    if (old == UNREACHABLE) {
+      b.reachable++;
+    } else if (d == UNREACHABLE && --b.reachable == 0) {
+      blocks.set(bi, null);
+    }
+  }
+
+  private int blockOf(int cell) {
+    return ((cell / width) >> SHIFT) * chunksX + ((cell % width) >> SHIFT);
+  }
+
+  private int localOf(int cell) {
+    return (((cell / width) & MASK) << SHIFT) | ((cell % width) & MASK);
+  }
+
+  private int index(int x, int y) {
+    return y * width + x;
+  }
+
+  /** Tabla hash de celda a entero con direccionamiento abierto; se vacía en O(elementos) */
+  private static final class CellMap {
+    private int[] keys = new int[128];
+    private int[] values = new int[128];
+    private int[] used = new int[64];  // Casillas ocupadas, para vaciar sin recorrer la tabla
+    private int count = 0;
+
+    CellMap() {
+      Arrays.fill(keys, -1);
+    }
+
+    /** Retorna el valor de la celda, o -1 si no está */
+    int get(int cell) {
+      int mask = keys.length - 1;
+      for (int s = hash(cell) & mask; ; s = (s + 1) & mask) {
+        if (keys[s] == cell) return values[s];
+        if (keys[s] < 0) return -1;
+      }
+    }
+
+    /** Guarda una celda que no está */
+    void put(int cell, int value) {
+      if (2 * (count + 1) > keys.length) grow();
+      int mask = keys.length - 1;
+      int s = hash(cell) & mask;
+      while (keys[s] >= 0) s = (s + 1) & mask;
+      keys[s] = cell;
+      values[s] = value;
+      if (count == used.length) used = Arrays.copyOf(used, count * 2);
+      used[count++] = s;
+    }
+
+    void clear() {
+      for (int i = 0; i < count; i++) keys[used[i]] = -1;
+      count = 0;
+    }
+
+    private void grow() {
+      int[] oldKeys = keys;
+      int[] oldValues = values;
+      int[] oldUsed = used;
+      int n = count;
+      keys = new int[oldKeys.length * 2];
+      values = new int[oldKeys.length * 2];
+      used = new int[oldUsed.length];
+      Arrays.fill(keys, -1);
+      count = 0;
+      for (int i = 0; i < n; i++) put(oldKeys[oldUsed[i]], oldValues[oldUsed[i]]);
+    }
+
+    private static int hash(int cell) {
+      int h = cell * 0x9E3779B9;
+      return h ^ (h >>> 16);
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package co.eci.snake.core.steering;
+
+import java.util.SplittableRandom;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.Snake;
+
+/**
+ * Estrategia voraz: entre las direcciones que no chocan elige la que deja la cabeza más
+ * cerca del ratón más cercano según el {@link DistanceField} del tablero, prefiriendo no
+ * girar en caso de empate. Una sola instancia sirve a todas las serpientes del tablero.
+ */
+public final class GreedySteering implements SteeringStrategy {
+  private static final Direction[] DIRS = Direction.values();
+
+  private final Board board;
+  private final DistanceField field;
+
+  public GreedySteering(Board board) {
+    this.board = board;
+    this.field = new DistanceField(board);
+  }
+
+  @Override
+  public void prepare() {
+    field.refresh();
+  }
+
+  @Override
+  public Direction steer(Snake snake, boolean turbo, SplittableRandom random) {
+    Direction current = snake.direction();
+    Direction best = null;
+    int bestDistance = DistanceField.UNREACHABLE;
+    for (Direction d : DIRS) {
+      if (d.dx == -current.dx && d.dy == -current.dy) continue;  // Giro de 180 grados
+      int landing = board.probe(snake, d);
+      if (landing < 0) continue;
+      int distance = field.distance(landing);
+      if (best == null || distance < bestDistance || (distance == bestDistance && d == current)) {
+        best = d;
+        bestDistance = distance;
+      }
+    }
+    return best;
+  }
+}
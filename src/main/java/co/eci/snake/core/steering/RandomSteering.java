@@ -0,0 +1,20 @@
+package co.eci.snake.core.steering;
+
+import java.util.SplittableRandom;
+
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.Snake;
+
+/** Estrategia original: gira a una dirección al azar de vez en cuando */
+final class RandomSteering implements SteeringStrategy {
+  static final RandomSteering INSTANCE = new RandomSteering();
+  private static final Direction[] DIRS = Direction.values();
+
+  private RandomSteering() {}
+
+  @Override
+  public Direction steer(Snake snake, boolean turbo, SplittableRandom random) {
+    double p = turbo ? 0.05 : 0.10;
+    return random.nextDouble() < p ? DIRS[random.nextInt(DIRS.length)] : null;
+  }
+}
@@ -0,0 +1,34 @@
+package co.eci.snake.core.steering;
+
+import java.util.SplittableRandom;
+
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.Snake;
+
+/**
+ * Política que decide hacia dónde gira una serpiente antes de cada movimiento. Una misma
+ * estrategia puede atender a todas las serpientes de un tablero desde varios hilos.
+ */
+@FunctionalInterface
+public interface SteeringStrategy {
+
+  /**
+   * Decide la dirección del próximo movimiento.
+   * @param turbo si la serpiente tiene turbo activo
+   * @param random generador propio de la serpiente (de un solo hilo), para decisiones al azar
+   * @return la dirección a tomar, o null para seguir en la actual
+   */
+  Direction steer(Snake snake, boolean turbo, SplittableRandom random);
+
+  /**
+   * Se llama desde un solo hilo antes de decidir los giros de un tick, con el tablero quieto,
+   * para dejar al día lo que se comparte (p. ej. un campo de distancias) y que las decisiones
+   * tomadas en paralelo no dependan de qué hilo llegó primero.
+   */
+  default void prepare() {}
+
+  /** Giros aleatorios: 10 % de probabilidad por movimiento, 5 % con turbo */
+  static SteeringStrategy random() {
+    return RandomSteering.INSTANCE;
+  }
+}
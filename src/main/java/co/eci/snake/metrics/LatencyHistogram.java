@@ -0,0 +1,100 @@
+package co.eci.snake.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias log-lineal al estilo HDR: los valores se agrupan por potencia
+ * de dos y cada grupo se divide en 32 sub-buckets, con un error relativo menor al 3 %
+ * en cualquier escala y memoria fija. Para no contender, cada hilo registra en una de
+ * varias franjas elegida por su id; las franjas se suman solo al leer.
+ */
+public final class LatencyHistogram {
+  private static final int SUB_BITS = 5;
+  private static final int SUB = 1 << SUB_BITS;
+  private static final int BUCKETS = (64 - SUB_BITS) * SUB;
+  private static final int SUM = BUCKETS;  // Posición de la suma dentro de cada franja
+  private static final int MAX = BUCKETS + 1;  // Posición del máximo dentro de cada franja
+
+  private final AtomicLongArray[] stripes;
+  private final int mask;
+
+  /** Foto sumada del histograma, en nanosegundos */
+  public record Snapshot(long count, long sum, long max, long[] counts) {
+
+    /** Retorna la media, o 0 si no hay muestras */
+    public double mean() {
+      return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /** Retorna el valor bajo el cual cae la fracción q (0..1) de las muestras */
+    public long percentile(double q) {
+      if (count == 0) return 0;
+      long rank = Math.max(1, (long) Math.ceil(q * count));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) return Math.min(max, upperBound(i));
+      }
+      return max;
+    }
+  }
+
+  /** Crea un histograma con una franja por cada medio núcleo (al menos dos, a lo sumo 64) */
+  public LatencyHistogram() {
+    this(Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1));
+  }
+
+  /** Crea un histograma con el número de franjas dado (potencia de dos) */
+  LatencyHistogram(int n) {
+    this.stripes = new AtomicLongArray[n];
+    this.mask = n - 1;
+    for (int i = 0; i < n; i++) {
+      stripes[i] = new AtomicLongArray(BUCKETS + 2);
+    }
+  }
+
+  /** Registra una muestra en nanosegundos */
+  public void record(long nanos) {
+    long v = Math.max(0, nanos);
+    long id = Thread.currentThread().threadId();
+    AtomicLongArray stripe = stripes[(int) (id ^ (id >>> 16)) & mask];
+    stripe.incrementAndGet(bucketOf(v));
+    stripe.addAndGet(SUM, v);
+    if (v > stripe.get(MAX)) {
+      stripe.accumulateAndGet(MAX, v, Math::max);
+    }
+  }
+
+  /** Suma todas las franjas en una foto */
+  public Snapshot snapshot() {
+    long[] counts = new long[BUCKETS];
+    long count = 0;
+    long sum = 0;
+    long max = 0;
+    for (AtomicLongArray stripe : stripes) {
+      for (int i = 0; i < BUCKETS; i++) {
+        long c = stripe.get(i);
+        counts[i] += c;
+        count += c;
+      }
+      sum += stripe.get(SUM);
+      max = Math.max(max, stripe.get(MAX));
+    }
+    return new Snapshot(count, sum, max, counts);
+  }
+
+  /** Retorna el bucket de un valor: exacto por debajo de 32, log-lineal por encima */
+  static int bucketOf(long v) {
+    if (v < SUB) return (int) v;
+    int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+    return ((shift + 1) << SUB_BITS) + (int) (v >>> shift) - SUB;
+  }
+
+  /** Retorna el mayor valor que cae en el bucket dado */
+  static long upperBound(int bucket) {
+    int group = bucket >>> SUB_BITS;
+    if (group == 0) return bucket;
+    long lower = (long) (SUB + (bucket & (SUB - 1))) << (group - 1);
+    return lower + (1L << (group - 1)) - 1;
+  }
+}
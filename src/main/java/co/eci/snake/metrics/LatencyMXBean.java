@@ -0,0 +1,16 @@
+package co.eci.snake.metrics;
+
+/** Vista JMX de un {@link LatencyHistogram}, con tiempos en microsegundos */
+public interface LatencyMXBean {
+  long getCount();
+
+  double getMeanMicros();
+
+  double getP50Micros();
+
+  double getP99Micros();
+
+  double getP999Micros();
+
+  double getMaxMicros();
+}
@@ -0,0 +1,179 @@
+package co.eci.snake.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Instrumentación del juego. Se activa con -Dmetrics=true; si no, {@link #ENABLED} es falso
+ * y el JIT elimina las mediciones, que siempre van dentro de if (Metrics.ENABLED). Activa,
+ * publica los histogramas y el rendimiento como MXBeans bajo co.eci.snake y cada
+ * -Dmetrics.dumpSeconds segundos (10 por defecto, 0 lo apaga) imprime {@link #report()}.
+ */
+public final class Metrics {
+  public static final boolean ENABLED = Boolean.getBoolean("metrics");
+
+  /** Duración completa de Board.step, incluida la espera de locks y los spawns */
+  public static final LatencyHistogram STEP = histogram();
+  /** Espera para obtener los locks de región de un movimiento */
+  public static final LatencyHistogram LOCK_WAIT = histogram();
+  /** Costo de ubicar un elemento nuevo */
+  public static final LatencyHistogram SPAWN = histogram();
+  /** Tiempo que un hilo pasa esperando que termine una pausa */
+  public static final LatencyHistogram PAUSE_WAIT = histogram();
+  /** Duración del repintado del panel de juego */
+  public static final LatencyHistogram REPAINT = histogram();
+  /** Movimientos realizados por todas las serpientes */
+  public static final LongAdder MOVES = new LongAdder();
+
+  private static final Map<String, LatencyHistogram> HISTOGRAMS = Map.of(
+      "step", STEP, "lockWait", LOCK_WAIT, "spawn", SPAWN, "pauseWait", PAUSE_WAIT, "repaint", REPAINT);
+  /** Movimientos de cada serpiente en carrera; se retiran al morir o al terminar la carrera */
+  private static final Map<SnakeKey, LongAdder> SNAKE_MOVES = new ConcurrentHashMap<>();
+
+  // Tasas calculadas por el muestreo de cada segundo
+  private static volatile double movesPerSecond;
+  private static volatile Map<String, Double> snakeMovesPerSecond = Map.of();
+
+  /** Una serpiente de un tablero: los ids se repiten entre tableros */
+  private record SnakeKey(Object board, int id) {
+    /** Etiqueta para el reporte: identidad del tablero e id */
+    String label() {
+      return Integer.toHexString(System.identityHashCode(board)) + ":" + id;
+    }
+  }
+
+  static {
+    if (ENABLED) {
+      start();
+    }
+  }
+
+  private Metrics() {}
+
+  private static LatencyHistogram histogram() {
+    return ENABLED ? new LatencyHistogram() : new LatencyHistogram(1);
+  }
+
+  /**
+   * Registra y retorna el contador de movimientos de la serpiente id del tablero dado
+   * (conviene guardarlo). Quien la mueve lo retira con {@link #unregisterSnake(Object, int)}
+   * cuando la serpiente muere o la carrera termina.
+   */
+  public static LongAdder registerSnake(Object board, int id) {
+    return SNAKE_MOVES.computeIfAbsent(new SnakeKey(board, id), k -> new LongAdder());
+  }
+
+  /** Retira el contador de la serpiente id del tablero dado; no hace nada si no estaba */
+  public static void unregisterSnake(Object board, int id) {
+    SNAKE_MOVES.remove(new SnakeKey(board, id));
+  }
+
+  /** Registra los MXBeans y programa el muestreo de tasas y el volcado periódico */
+  private static void start() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      for (var e : HISTOGRAMS.entrySet()) {
+        server.registerMBean(new Latency(e.getValue()), new ObjectName("co.eci.snake:type=Latency,name=" + e.getKey()));
+      }
+      server.registerMBean(new Throughput(), new ObjectName("co.eci.snake:type=Throughput"));
+    } catch (JMException e) {
+      System.err.println("No se pudieron registrar las métricas en JMX: " + e.getMessage());
+    }
+    ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "metrics");
+      t.setDaemon(true);
+      return t;
+    });
+    timer.scheduleAtFixedRate(new Sampler(), 1, 1, TimeUnit.SECONDS);
+    int dump = Integer.getInteger("metrics.dumpSeconds", 10);
+    if (dump > 0) {
+      timer.scheduleAtFixedRate(() -> System.out.print(report()), dump, dump, TimeUnit.SECONDS);
+    }
+  }
+
+  /** Calcula cada segundo los movimientos por segundo, en total y por serpiente */
+  private static final class Sampler implements Runnable {
+    private long lastMoves;
+    private final Map<SnakeKey, Long> lastSnakeMoves = new HashMap<>();
+
+    @Override
+    public void run() {
+      long moves = MOVES.sum();
+      movesPerSecond = moves - lastMoves;
+      lastMoves = moves;
+      lastSnakeMoves.keySet().retainAll(SNAKE_MOVES.keySet());
+      Map<String, Double> rates = new HashMap<>();
+      SNAKE_MOVES.forEach((key, adder) -> {
+        long n = adder.sum();
+        Long prev = lastSnakeMoves.put(key, n);
+        rates.put(key.label(), (double) (n - (prev == null ? 0 : prev)));
+      });
+      snakeMovesPerSecond = Map.copyOf(rates);
+    }
+  }
+
+  /** Resumen en texto de todas las métricas */
+  public static String report() {
+    StringBuilder sb = new StringBuilder();
+    for (var e : new TreeMap<>(HISTOGRAMS).entrySet()) {
+      var s = e.getValue().snapshot();
+      sb.append(String.format("[metrics] %-10s n=%d mean=%s p50=%s p99=%s p99.9=%s max=%s%n", e.getKey(), s.count(),
+          format(s.mean()), format(s.percentile(0.50)), format(s.percentile(0.99)), format(s.percentile(0.999)),
+          format(s.max())));
+    }
+    sb.append(String.format("[metrics] moves      total=%d rate=%.0f/s%n", MOVES.sum(), movesPerSecond));
+    sb.append("[metrics] snakes/s  ");
+    new TreeMap<>(snakeMovesPerSecond).forEach((snake, rate) -> sb.append(' ').append(snake).append('=')
+        .append(String.format("%.1f", rate)));
+    return sb.append(System.lineSeparator()).toString();
+  }
+
+  /** Formatea nanosegundos en la unidad más legible */
+  private static String format(double nanos) {
+    if (nanos < 1_000) return String.format("%.0fns", nanos);
+    if (nanos < 1_000_000) return String.format("%.1fus", nanos / 1e3);
+    return String.format("%.2fms", nanos / 1e6);
+  }
+
+  private static final class Latency implements LatencyMXBean {
+    private final LatencyHistogram histogram;
+
+    Latency(LatencyHistogram histogram) {
+      this.histogram = histogram;
+    }
+
+    @Override public long getCount() { return histogram.snapshot().count(); }
+
+    @Override public double getMeanMicros() { return histogram.snapshot().mean() / 1e3; }
+
+    @Override public double getP50Micros() { return histogram.snapshot().percentile(0.50) / 1e3; }
+
+    @Override public double getP99Micros() { return histogram.snapshot().percentile(0.99) / 1e3; }
+
+    @Override public double getP999Micros() { return histogram.snapshot().percentile(0.999) / 1e3; }
+
+    @Override public double getMaxMicros() { return histogram.snapshot().max() / 1e3; }
+  }
+
+  private static final class Throughput implements ThroughputMXBean {
+    @Override public long getMoves() { return MOVES.sum(); }
+
+    @Override public double getMovesPerSecond() { return movesPerSecond; }
+
+    @Override
+    public Map<String, Double> getSnakeMovesPerSecond() {
+      return new TreeMap<>(snakeMovesPerSecond);
+    }
+  }
+}
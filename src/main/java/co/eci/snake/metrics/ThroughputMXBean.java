@@ -0,0 +1,13 @@
+package co.eci.snake.metrics;
+
+import java.util.Map;
+
+/** Vista JMX de los movimientos realizados, en total y por serpiente */
+public interface ThroughputMXBean {
+  long getMoves();
+
+  double getMovesPerSecond();
+
+  /** Movimientos por segundo de cada serpiente en el último segundo, por id */
+  Map<String, Double> getSnakeMovesPerSecond();
+}
@@ -0,0 +1,376 @@
+package co.eci.snake.server;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.Snake;
+import co.eci.snake.core.replay.DeltaStream;
+
+/**
+ * Servidor TCP para jugadores y espectadores remotos (ver {@link NetProtocol}). Un solo
+ * hilo con un Selector atiende todas las conexiones. Cada tick, {@link DeltaStream} entrega
+ * los cambios del tablero y, ya fuera del lock del tablero, el hilo de red arma un único
+ * mensaje en un buffer directo reutilizado y cada cliente recibe un duplicate() del mismo
+ * buffer, así que el costo por cliente no depende del tamaño del tablero; los mensajes
+ * pendientes de un cliente salen en una sola escritura.
+ * Un cliente que se atrasa más de {@link #MAX_PENDING} mensajes pierde los atrasados y se
+ * resincroniza con el siguiente cuadro clave en lugar de acumular memoria.
+ */
+public final class GameServer implements AutoCloseable {
+  /** Mensajes en cola por cliente antes de descartarlos y resincronizarlo */
+  static final int MAX_PENDING = 64;
+  /** Buffers de mensajes libres que se guardan para reutilizar */
+  private static final int FRAME_POOL = 16;
+
+  private final ServerSocketChannel server;
+  private final Selector selector;
+  private final Thread loop;
+  private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+  private volatile Feed feed;  // Tablero transmitido, o null
+  private volatile int clientCount = 0;
+  private volatile boolean running = true;
+
+  // Estado del hilo de red
+  private final List<Client> clients = new ArrayList<>();
+  private final ByteBuffer[] gather = new ByteBuffer[MAX_PENDING + 2];
+  private final ArrayDeque<ByteBuffer> framePool = new ArrayDeque<>();
+  private Feed current;  // Tablero al que están sincronizados los clientes
+
+  /** Un tablero transmitido: su mensaje HELLO y el codificador de sus ticks */
+  private final class Feed implements DeltaStream.FrameSink {
+    final Board board;
+    final Frame hello;  // Nunca vuelve al pool: la referencia del Feed no se suelta
+    DeltaStream stream;
+
+    Feed(Board board) {
+      this.board = board;
+      this.hello = new Frame(NetProtocol.frame(NetProtocol.HELLO, DeltaStream.header(board)));
+    }
+
+    /** Se llama con el tablero bloqueado: solo pasa los registros al hilo de red, que arma los mensajes */
+    @Override
+    public void frame(long tick, ByteBuffer delta, ByteBuffer keyframe) {
+      if (clientCount == 0) {
+        stream.recycle(delta);
+        stream.recycle(keyframe);
+        return;
+      }
+      submit(() -> broadcast(this, delta, keyframe));
+    }
+  }
+
+  /**
+   * Un mensaje armado y cuántos lo tienen en cola (más quien lo armó); solo lo usa el hilo
+   * de red. Cuando nadie lo tiene, su buffer vuelve al pool.
+   */
+  private final class Frame {
+    final ByteBuffer data;
+    int refs = 1;
+
+    Frame(ByteBuffer data) {
+      this.data = data;
+    }
+
+    void release() {
+      if (--refs == 0 && framePool.size() < FRAME_POOL) framePool.add(data.clear());
+    }
+  }
+
+  /** Una conexión: sus mensajes pendientes y los bytes de comandos aún incompletos */
+  private static final class Client {
+    final SocketChannel channel;
+    final SelectionKey key;
+    final ArrayDeque<ByteBuffer> out = new ArrayDeque<>();
+    final ArrayDeque<Frame> owners = new ArrayDeque<>();  // Mensaje de cada buffer de out, en el mismo orden
+    final ByteBuffer in = ByteBuffer.allocate(16 * NetProtocol.COMMAND_SIZE);
+    boolean synced = false;  // Ya recibió HELLO y un cuadro clave del tablero actual
+
+    Client(SocketChannel channel, SelectionKey key) {
+      this.channel = channel;
+      this.key = key;
+    }
+  }
+
+  private GameServer(ServerSocketChannel server, Selector selector) {
+    this.server = server;
+    this.selector = selector;
+    this.loop = new Thread(this::run, "snake-net");
+    loop.setDaemon(true);
+  }
+
+  /**
+   * Abre el servidor en la dirección dada (puerto 0 para uno libre); transmite cuando se
+   * le asigna un tablero con {@link #attach(Board)}.
+   */
+  public static GameServer open(InetSocketAddress address) throws IOException {
+    ServerSocketChannel server = ServerSocketChannel.open();
+    Selector selector = null;
+    try {
+      server.bind(address);
+      server.configureBlocking(false);
+      selector = Selector.open();
+      server.register(selector, SelectionKey.OP_ACCEPT);
+    } catch (IOException e) {
+      server.close();
+      if (selector != null) selector.close();
+      throw e;
+    }
+    GameServer gs = new GameServer(server, selector);
+    gs.loop.start();
+    return gs;
+  }
+
+  /** Retorna el puerto en el que escucha */
+  public int port() {
+    try {
+      return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Retorna el número de clientes conectados */
+  public int clients() {
+    return clientCount;
+  }
+
+  /**
+   * Transmite el tablero dado, reemplazando al anterior; los clientes reciben un HELLO y un
+   * cuadro clave del tablero nuevo al final de su siguiente tick.
+   */
+  public synchronized void attach(Board board) {
+    Feed old = feed;
+    if (old != null) old.stream.detach();
+    Feed f = new Feed(board);
+    f.stream = DeltaStream.attach(board, f);
+    f.stream.requestKeyframe();
+    feed = f;
+  }
+
+  /** Cierra las conexiones y deja de transmitir */
+  @Override
+  public void close() {
+    synchronized (this) {
+      Feed f = feed;
+      if (f != null) f.stream.detach();
+      feed = null;
+    }
+    running = false;
+    selector.wakeup();
+    try {
+      loop.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void submit(Runnable task) {
+    tasks.add(task);
+    selector.wakeup();
+  }
+
+  private void run() {
+    try {
+      while (running) {
+        selector.select();
+        Runnable task;
+        while ((task = tasks.poll()) != null) task.run();
+        Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+        while (it.hasNext()) {
+          SelectionKey key = it.next();
+          it.remove();
+          if (!key.isValid()) continue;
+          if (key.isAcceptable()) {
+            accept();
+          } else {
+            Client c = (Client) key.attachment();
+            try {
+              if (key.isReadable()) read(c);
+              if (key.isValid() && key.isWritable()) flush(c);
+            } catch (IOException e) {
+              drop(c);
+            }
+          }
+        }
+      }
+    } catch (IOException | ClosedSelectorException e) {
+      System.err.println("Servidor de red detenido: " + e.getMessage());
+    } finally {
+      for (Client c : clients) closeQuietly(c);
+      clients.clear();
+      clientCount = 0;
+      try {
+        selector.close();
+        server.close();
+      } catch (IOException ignored) {
+        // Se está cerrando
+      }
+    }
+  }
+
+  private void accept() throws IOException {
+    SocketChannel ch = server.accept();
+    if (ch == null) return;
+    ch.configureBlocking(false);
+    ch.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    SelectionKey key = ch.register(selector, SelectionKey.OP_READ);
+    Client c = new Client(ch, key);
+    key.attach(c);
+    clients.add(c);
+    clientCount = clients.size();
+    Feed f = feed;
+    if (f != null) f.stream.requestKeyframe();
+  }
+
+  /** Lee los comandos completos disponibles y los aplica todos de una vez */
+  private void read(Client c) throws IOException {
+    if (c.channel.read(c.in) < 0) {
+      drop(c);
+      return;
+    }
+    c.in.flip();
+    Feed f = feed;
+    List<Snake> snakes = null;
+    while (c.in.remaining() >= NetProtocol.COMMAND_SIZE) {
+      byte type = c.in.get();
+      int id = c.in.getInt();
+      Direction dir = NetProtocol.direction(c.in.get());
+      if (type != NetProtocol.TURN || dir == null) {
+        drop(c);  // Protocolo inválido
+        return;
+      }
+      if (f == null) continue;
+      if (snakes == null) snakes = f.board.getSnakes();
+      for (Snake s : snakes) {
+        if (s.getId() == id) {
+          s.turn(dir);
+          break;
+        }
+      }
+    }
+    c.in.compact();
+  }
+
+  /**
+   * Arma los mensajes del tick, devuelve los registros al stream y encola el tick a cada
+   * cliente sincronizado; los demás esperan un cuadro clave.
+   */
+  private void broadcast(Feed f, ByteBuffer records, ByteBuffer full) {
+    Frame delta = frame(records);
+    Frame keyframe = full != null ? frame(full) : null;
+    f.stream.recycle(records);
+    f.stream.recycle(full);
+    if (f != current) {
+      current = f;
+      for (Client c : clients) c.synced = false;
+    }
+    boolean waiting = false;
+    for (Iterator<Client> it = clients.iterator(); it.hasNext(); ) {
+      Client c = it.next();
+      if (c.synced) {
+        enqueue(c, delta);
+      } else if (keyframe != null) {
+        enqueue(c, f.hello);
+        enqueue(c, keyframe);
+        c.synced = true;
+      }
+      if (!c.synced) waiting = true;
+      try {
+        flush(c);
+      } catch (IOException e) {
+        closeQuietly(c);
+        it.remove();
+      }
+    }
+    clientCount = clients.size();
+    delta.release();
+    if (keyframe != null) keyframe.release();
+    if (waiting) f.stream.requestKeyframe();
+  }
+
+  /** Arma un mensaje STATE con los registros en un buffer del pool */
+  private Frame frame(ByteBuffer records) {
+    int size = NetProtocol.FRAME_HEADER + records.remaining();
+    ByteBuffer out = framePool.poll();
+    if (out == null || out.capacity() < size) {
+      out = ByteBuffer.allocateDirect(Math.max(4096, Integer.highestOneBit(size - 1) << 1));
+    }
+    return new Frame(NetProtocol.frame(out, NetProtocol.STATE, records));
+  }
+
+  /** Encola un mensaje; si el cliente va muy atrasado descarta lo pendiente y lo resincroniza */
+  private void enqueue(Client c, Frame message) {
+    if (c.out.size() >= MAX_PENDING) {
+      ByteBuffer partial = c.out.peekFirst().position() > 0 ? c.out.pollFirst() : null;
+      Frame partialOwner = partial != null ? c.owners.pollFirst() : null;
+      release(c);
+      if (partial != null) {
+        c.out.add(partial);
+        c.owners.add(partialOwner);
+      }
+      c.synced = false;
+      return;
+    }
+    message.refs++;
+    c.out.add(message.data.duplicate());
+    c.owners.add(message);
+  }
+
+  /** Descarta los mensajes pendientes del cliente */
+  private static void release(Client c) {
+    c.out.clear();
+    Frame f;
+    while ((f = c.owners.pollFirst()) != null) f.release();
+  }
+
+  /** Escribe todos los mensajes pendientes en una sola escritura (hasta donde acepte el socket) */
+  private void flush(Client c) throws IOException {
+    int n = 0;
+    for (ByteBuffer b : c.out) {
+      if (n == gather.length) break;
+      gather[n++] = b;
+    }
+    if (n > 0) {
+      c.channel.write(gather, 0, n);
+      Arrays.fill(gather, 0, n, null);
+      while (!c.out.isEmpty() && !c.out.peekFirst().hasRemaining()) {
+        c.out.pollFirst();
+        c.owners.pollFirst().release();
+      }
+    }
+    c.key.interestOps(c.out.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+  }
+
+  private void drop(Client c) {
+    closeQuietly(c);
+    clients.remove(c);
+    clientCount = clients.size();
+  }
+
+  private static void closeQuietly(Client c) {
+    release(c);
+    c.key.cancel();
+    try {
+      c.channel.close();
+    } catch (IOException ignored) {
+      // Ya estaba cerrado
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package co.eci.snake.server;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.concurrency.SnakeRunner;
+
+/**
+ * Un tablero alojado en un {@link RaceManager}. Las tajadas de un mismo tablero nunca se
+ * ejecutan a la vez, así que el estado de planificación no necesita locks.
+ */
+public final class HostedRace {
+  private final RaceManager manager;
+  private final Board board;
+  private final SnakeRunner[] runners;
+  private final long[] dueAt;  // Momento (nanoTime) del próximo movimiento de cada serpiente
+  private final boolean[] alive;
+  private final int movesPerSlice;
+  private final CompletableFuture<Board> finished = new CompletableFuture<>();
+  private volatile ScheduledFuture<?> task;
+  private volatile boolean stopped = false;  // La primera tajada puede terminar antes de schedule
+  private volatile long moves = 0;
+  private int cursor = 0;  // Serpiente por la que empieza la próxima tajada
+
+  HostedRace(RaceManager manager, Board board, SnakeRunner[] runners, int movesPerSlice) {
+    this.manager = manager;
+    this.board = board;
+    this.runners = runners;
+    this.dueAt = new long[runners.length];
+    this.alive = new boolean[runners.length];
+    this.movesPerSlice = movesPerSlice;
+    Arrays.fill(alive, true);
+  }
+
+  /** Guarda la tarea periódica; si la carrera ya se detuvo la cancela de inmediato */
+  void schedule(ScheduledFuture<?> task) {
+    this.task = task;
+    if (stopped) task.cancel(false);
+  }
+
+  /** Indica si la tarea periódica del tablero sigue planificada */
+  boolean isScheduled() {
+    ScheduledFuture<?> t = task;
+    return t != null && !t.isDone();
+  }
+
+  /** Retorna el tablero */
+  public Board board() {
+    return board;
+  }
+
+  /** Se completa con el tablero cuando la carrera termina, o se cancela con {@link #cancel()} */
+  public CompletableFuture<Board> finished() {
+    return finished;
+  }
+
+  /** Retorna los movimientos realizados en este tablero */
+  public long moves() {
+    return moves;
+  }
+
+  int snakeCount() {
+    return runners.length;
+  }
+
+  /** Saca el tablero del servidor sin terminar la carrera */
+  public void cancel() {
+    stop();
+    finished.cancel(false);
+  }
+
+  /**
+   * Una tajada: mueve, en orden circular desde el cursor, las serpientes a las que ya les
+   * toca hasta agotar el presupuesto. Si el tablero está en pausa no hace nada.
+   */
+  void slice() {
+    try {
+      if (finished.isDone() || board.isPaused()) return;
+      long now = System.nanoTime();
+      int n = runners.length;
+      int budget = movesPerSlice;
+      int done = 0;
+      for (int k = 0; k < n && budget > 0; k++) {
+        int i = (cursor + k) % n;
+        if (!alive[i] || dueAt[i] > now) continue;
+        long delay = runners[i].stepOnce();
+        if (delay == SnakeRunner.PAUSED) break;
+        done++;
+        if (--budget == 0) cursor = (i + 1) % n;
+        if (delay == SnakeRunner.DEAD) {
+          alive[i] = false;
+        } else {
+          dueAt[i] = now + TimeUnit.MILLISECONDS.toNanos(delay);
+        }
+      }
+      if (done > 0) {
+        moves += done;
+        manager.addMoves(done);
+      }
+      if (board.isGameOver()) {
+        stop();
+        finished.complete(board);
+      }
+    } catch (RuntimeException e) {
+      // Una excepción cancelaría la tarea en silencio: se libera el tablero y se informa
+      stop();
+      finished.completeExceptionally(e);
+    }
+  }
+
+  private void stop() {
+    stopped = true;
+    ScheduledFuture<?> t = task;
+    if (t != null) t.cancel(false);
+    for (SnakeRunner r : runners) r.release();
+    manager.release(this);
+  }
+}
@@ -0,0 +1,59 @@
+package co.eci.snake.server;
+
+import java.nio.ByteBuffer;
+
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.replay.DeltaReader;
+import co.eci.snake.core.replay.DeltaStream;
+
+/**
+ * Protocolo TCP de {@link GameServer}.
+ *
+ * <pre>
+ * servidor → cliente:  largo(4) tipo(1) cuerpo      (largo cuenta el tipo y el cuerpo)
+ *   HELLO  cuerpo = cabecera de {@link DeltaStream#header}; el cliente reinicia su tablero
+ *   STATE  cuerpo = registros de un tick (o un cuadro clave) para {@link DeltaReader#apply}
+ * cliente → servidor:  TURN(1) id(4) dirección(1)    (ordinal de {@link Direction})
+ * </pre>
+ * Un cliente nuevo recibe HELLO y un cuadro clave al final del siguiente tick, y después un
+ * STATE por tick. Si el tablero cambia (p. ej. al reiniciar la carrera) recibe otro HELLO.
+ */
+public final class NetProtocol {
+  public static final byte HELLO = 1;
+  public static final byte STATE = 2;
+  public static final byte TURN = 1;
+
+  /** Bytes de la cabecera de un mensaje del servidor */
+  public static final int FRAME_HEADER = 5;
+  /** Bytes de un comando del cliente */
+  public static final int COMMAND_SIZE = 6;
+
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private NetProtocol() {}
+
+  /** Arma un mensaje del servidor en un buffer directo listo para escribir */
+  static ByteBuffer frame(byte type, ByteBuffer body) {
+    return frame(ByteBuffer.allocateDirect(FRAME_HEADER + body.remaining()), type, body);
+  }
+
+  /**
+   * Arma un mensaje del servidor en el buffer dado, que debe tener espacio para la cabecera
+   * y el cuerpo, sin consumir el cuerpo.
+   * @return el buffer listo para escribir
+   */
+  static ByteBuffer frame(ByteBuffer out, byte type, ByteBuffer body) {
+    out.putInt(1 + body.remaining()).put(type).put(body.duplicate());
+    return out.flip();
+  }
+
+  /** Escribe un comando de giro */
+  public static void writeTurn(ByteBuffer out, int snakeId, Direction dir) {
+    out.put(TURN).putInt(snakeId).put((byte) dir.ordinal());
+  }
+
+  /** Retorna la dirección con el ordinal dado, o null si no existe */
+  static Direction direction(int ordinal) {
+    return ordinal >= 0 && ordinal < DIRECTIONS.length ? DIRECTIONS[ordinal] : null;
+  }
+}
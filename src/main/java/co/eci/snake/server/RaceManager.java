@@ -0,0 +1,166 @@
+package co.eci.snake.server;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Snake;
+import co.eci.snake.concurrency.SnakeRunner;
+import co.eci.snake.core.steering.SteeringStrategy;
+
+/**
+ * Aloja muchas carreras a la vez en una JVM. En lugar de un hilo por serpiente, cada
+ * tablero tiene una tarea periódica (una tajada) en un pool fijo de hilos portadores: en
+ * cada tajada mueve, con {@link SnakeRunner#stepOnce()}, las serpientes a las que ya les
+ * toca, hasta un presupuesto de movimientos por tablero; si el presupuesto no alcanza, la
+ * siguiente tajada continúa donde quedó. Así ningún tablero acapara los portadores, un
+ * tablero en pausa se salta sin bloquear a nadie y el número de hilos no depende del
+ * número de serpientes. La admisión limita tableros y serpientes alojados.
+ */
+public final class RaceManager implements AutoCloseable {
+
+  /**
+   * Límites del servidor.
+   * @param carriers hilos portadores compartidos por todos los tableros
+   * @param sliceMillis período de la tajada de cada tablero
+   * @param movesPerSlice presupuesto de movimientos de un tablero por tajada
+   */
+  public record Limits(int carriers, int maxBoards, int maxSnakes, long sliceMillis, int movesPerSlice) {
+    public Limits {
+      if (carriers <= 0 || maxBoards <= 0 || maxSnakes <= 0 || sliceMillis <= 0 || movesPerSlice <= 0) {
+        throw new IllegalArgumentException("limits must be positive");
+      }
+    }
+
+    /** Un portador por núcleo, 1000 tableros, 100.000 serpientes y tajadas de 10 ms de hasta 64 movimientos */
+    public static Limits defaults() {
+      return new Limits(Runtime.getRuntime().availableProcessors(), 1000, 100_000, 10, 64);
+    }
+  }
+
+  private final Limits limits;
+  private final ScheduledThreadPoolExecutor carriers;
+  private final Set<HostedRace> hosted = ConcurrentHashMap.newKeySet();
+  private int hostedSnakes = 0;  // Protegido por this
+  private final LongAdder moves = new LongAdder();
+  private volatile double movesPerSecond;
+  private long lastMoves;
+
+  public RaceManager(Limits limits) {
+    this.limits = Objects.requireNonNull(limits, "limits");
+    AtomicInteger n = new AtomicInteger();
+    this.carriers = new ScheduledThreadPoolExecutor(limits.carriers(), r -> {
+      Thread t = new Thread(r, "race-carrier-" + n.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+    carriers.setRemoveOnCancelPolicy(true);
+    carriers.scheduleAtFixedRate(this::sample, 1, 1, TimeUnit.SECONDS);
+  }
+
+  /** Aloja el tablero con el presupuesto por defecto */
+  public HostedRace host(Board board, SteeringStrategy steering) {
+    return host(board, steering, limits.movesPerSlice());
+  }
+
+  /**
+   * Aloja el tablero y empieza a mover sus serpientes vivas. El tablero sale solo del
+   * servidor cuando termina la carrera.
+   * @param movesPerSlice presupuesto de movimientos del tablero por tajada
+   * @throws RejectedExecutionException si se superaría el límite de tableros o serpientes
+   */
+  public HostedRace host(Board board, SteeringStrategy steering, int movesPerSlice) {
+    Objects.requireNonNull(board, "board");
+    Objects.requireNonNull(steering, "steering");
+    if (movesPerSlice <= 0) {
+      throw new IllegalArgumentException("movesPerSlice must be positive");
+    }
+    List<Snake> snakes = board.getSnakes();
+    HostedRace race;
+    synchronized (this) {
+      if (carriers.isShutdown()) {
+        throw new RejectedExecutionException("RaceManager is closed");
+      }
+      if (hosted.size() >= limits.maxBoards()) {
+        throw new RejectedExecutionException("Board limit reached (" + limits.maxBoards() + ")");
+      }
+      if (hostedSnakes + snakes.size() > limits.maxSnakes()) {
+        throw new RejectedExecutionException("Snake limit reached (" + limits.maxSnakes() + ")");
+      }
+      SnakeRunner[] runners = new SnakeRunner[snakes.size()];
+      for (int i = 0; i < runners.length; i++) {
+        runners[i] = new SnakeRunner(snakes.get(i), board, steering);
+      }
+      race = new HostedRace(this, board, runners, movesPerSlice);
+      hosted.add(race);
+      hostedSnakes += runners.length;
+      // Fase inicial aleatoria para repartir las tajadas de los tableros en el período
+      long period = TimeUnit.MILLISECONDS.toNanos(limits.sliceMillis());
+      race.schedule(carriers.scheduleAtFixedRate(race::slice,
+          ThreadLocalRandom.current().nextLong(period), period, TimeUnit.NANOSECONDS));
+    }
+    return race;
+  }
+
+  /** Retira una carrera del servidor (la llama HostedRace al terminar o al cancelarse) */
+  synchronized void release(HostedRace race) {
+    if (hosted.remove(race)) {
+      hostedSnakes -= race.snakeCount();
+    }
+  }
+
+  /** Suma movimientos al total del servidor */
+  void addMoves(long n) {
+    moves.add(n);
+  }
+
+  /** Retorna el número de tableros alojados */
+  public int boards() {
+    return hosted.size();
+  }
+
+  /** Retorna el número de serpientes alojadas (vivas o no) en tableros en curso */
+  public synchronized int snakes() {
+    return hostedSnakes;
+  }
+
+  /** Retorna los movimientos realizados en todos los tableros */
+  public long moves() {
+    return moves.sum();
+  }
+
+  /** Retorna los movimientos por segundo de todos los tableros en el último segundo */
+  public double movesPerSecond() {
+    return movesPerSecond;
+  }
+
+  private void sample() {
+    long total = moves.sum();
+    movesPerSecond = total - lastMoves;
+    lastMoves = total;
+  }
+
+  /** Cancela todas las carreras y detiene los portadores */
+  @Override
+  public void close() {
+    synchronized (this) {
+      carriers.shutdownNow();
+    }
+    for (HostedRace race : hosted) {
+      race.cancel();
+    }
+    try {
+      carriers.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,154 @@
+package co.eci.snake.stats;
+
+import java.util.Arrays;
+
+/**
+ * Montículo de máximos indexado: cada elemento es un puesto (entero pequeño) con una clave
+ * que se puede cambiar o quitar en O(log n) porque se guarda dónde está cada puesto. Los
+ * k mayores se obtienen en O(k log k) recorriendo el montículo con un segundo montículo
+ * de candidatos, sin tocar el resto. A igual clave gana el puesto menor.
+ */
+final class IndexedHeap {
+  private int[] heap = new int[16];  // Puestos en orden de montículo
+  private int[] pos = new int[16];  // Posición de cada puesto en heap, -1 si no está
+  private long[] key = new long[16];
+  private int size = 0;
+  private int[] candidates = new int[16];  // Posiciones pendientes en top()
+
+  IndexedHeap() {
+    Arrays.fill(pos, -1);
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean contains(int slot) {
+    return slot < pos.length && pos[slot] >= 0;
+  }
+
+  /** Quita todos los puestos */
+  void clear() {
+    for (int i = 0; i < size; i++) pos[heap[i]] = -1;
+    size = 0;
+  }
+
+  /** Agrega el puesto o cambia su clave */
+  void set(int slot, long k) {
+    if (slot >= pos.length) {
+      int n = Math.max(pos.length * 2, slot + 1);
+      int old = pos.length;
+      pos = Arrays.copyOf(pos, n);
+      Arrays.fill(pos, old, n, -1);
+      key = Arrays.copyOf(key, n);
+    }
+    if (pos[slot] < 0) {
+      if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+      heap[size] = slot;
+      pos[slot] = size;
+      key[slot] = k;
+      up(size++);
+      return;
+    }
+    long old = key[slot];
+    key[slot] = k;
+    if (k > old) up(pos[slot]);
+    else if (k < old) down(pos[slot]);
+  }
+
+  /** Quita el puesto si está */
+  void remove(int slot) {
+    if (!contains(slot)) return;
+    int p = pos[slot];
+    int last = heap[--size];
+    pos[slot] = -1;
+    if (p == size) return;
+    heap[p] = last;
+    pos[last] = p;
+    up(p);
+    down(pos[last]);
+  }
+
+  /**
+   * Escribe en out los puestos de las k claves mayores, de mayor a menor.
+   * @return cuántos escribió (menos de k si hay menos elementos)
+   */
+  int top(int k, int[] out) {
+    int n = Math.min(Math.min(k, size), out.length);
+    if (n == 0) return 0;
+    if (candidates.length < 2 * n + 1) candidates = new int[2 * n + 1];
+    int c = 0;
+    candidates[c++] = 0;
+    for (int i = 0; i < n; i++) {
+      // Saca la mejor posición candidata y agrega sus hijos
+      int best = candidates[0];
+      candidates[0] = candidates[--c];
+      siftCandidates(c);
+      out[i] = heap[best];
+      int left = 2 * best + 1;
+      if (left < size) c = pushCandidate(c, left);
+      if (left + 1 < size) c = pushCandidate(c, left + 1);
+    }
+    return n;
+  }
+
+  private boolean before(int slotA, int slotB) {
+    return key[slotA] > key[slotB] || (key[slotA] == key[slotB] && slotA < slotB);
+  }
+
+  private void up(int p) {
+    int slot = heap[p];
+    while (p > 0) {
+      int parent = (p - 1) >>> 1;
+      if (!before(slot, heap[parent])) break;
+      move(heap[parent], p);
+      p = parent;
+    }
+    move(slot, p);
+  }
+
+  private void down(int p) {
+    int slot = heap[p];
+    while (true) {
+      int child = 2 * p + 1;
+      if (child >= size) break;
+      if (child + 1 < size && before(heap[child + 1], heap[child])) child++;
+      if (!before(heap[child], slot)) break;
+      move(heap[child], p);
+      p = child;
+    }
+    move(slot, p);
+  }
+
+  private void move(int slot, int p) {
+    heap[p] = slot;
+    pos[slot] = p;
+  }
+
+  private int pushCandidate(int c, int position) {
+    int i = c++;
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (!before(heap[position], heap[candidates[parent]])) break;
+      candidates[i] = candidates[parent];
+      i = parent;
+    }
+    candidates[i] = position;
+    return c;
+  }
+
+  private void siftCandidates(int c) {
+    if (c == 0) return;
+    int position = candidates[0];
+    int i = 0;
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= c) break;
+      if (child + 1 < c && before(heap[candidates[child + 1]], heap[candidates[child]])) child++;
+      if (!before(heap[candidates[child]], heap[position])) break;
+      candidates[i] = candidates[child];
+      i = child;
+    }
+    candidates[i] = position;
+  }
+}
@@ -0,0 +1,25 @@
+package co.eci.snake.stats;
+
+import java.util.List;
+
+/**
+ * Foto inmutable de las estadísticas de una carrera que publica {@link RaceStats}.
+ * @param tick último tick observado
+ * @param firstDead id de la primera serpiente que murió, o -1
+ * @param top las serpientes vivas más largas, de mayor a menor
+ * @param lostEvents eventos que se perdieron por atraso; si no es 0 las cifras son aproximadas
+ */
+public record Leaderboard(long tick, int alive, int dead, int firstDead, long mice, long turbos,
+                          List<Entry> top, long lostEvents) {
+
+  /** Estadísticas de una serpiente */
+  public record Entry(int id, int length, long mice, long turbos, long moves, long survivalTicks,
+                      double movesPerSecond) {}
+
+  static final Leaderboard EMPTY = new Leaderboard(0, 0, 0, -1, 0, 0, List.of(), 0);
+
+  /** Retorna la serpiente viva más larga, o null */
+  public Entry longest() {
+    return top.isEmpty() ? null : top.get(0);
+  }
+}
@@ -0,0 +1,205 @@
+package co.eci.snake.stats;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import co.eci.snake.core.events.EventBus;
+import co.eci.snake.core.events.GameEvent;
+import co.eci.snake.core.events.GameEventHandler;
+
+/**
+ * Estadísticas de una carrera calculadas de forma incremental a partir de los eventos de
+ * {@link EventBus}: cada evento actualiza los contadores de su serpiente y, si cambia el
+ * largo, su puesto en un montículo indexado, en O(log n). Al final de cada lote se publica
+ * un {@link Leaderboard} inmutable con las k más largas, así que leerlo desde cualquier
+ * hilo (p. ej. en cada cuadro) es O(1) y no toma los locks del tablero. Todo el estado
+ * mutable vive en el hilo de la suscripción; se limpia al empezar cada carrera.
+ */
+public final class RaceStats implements GameEventHandler {
+  public static final int DEFAULT_TOP = 10;
+  private static final long RATE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final int k;
+  private volatile Leaderboard leaderboard = Leaderboard.EMPTY;
+
+  // Estado del hilo de la suscripción; una serpiente ocupa un puesto en los arreglos
+  private final Map<Integer, Integer> slots = new HashMap<>();
+  private final IndexedHeap byLength = new IndexedHeap();
+  private int[] ids = new int[16];
+  private int[] length = new int[16];
+  private long[] mice = new long[16];
+  private long[] turbos = new long[16];
+  private long[] moves = new long[16];
+  private long[] addedTick = new long[16];
+  private long[] diedTick = new long[16];  // -1 mientras vive
+  private long[] windowMoves = new long[16];  // Movimientos al empezar la ventana de la tasa
+  private double[] rate = new double[16];
+  private final int[] top;
+  private int count;
+  private int dead;
+  private int firstDead;
+  private long firstDeathOrder;
+  private long tick;
+  private long totalMice;
+  private long totalTurbos;
+  private long lost;
+  private long windowStart;
+  private boolean dirty;
+
+  public RaceStats() {
+    this(DEFAULT_TOP);
+  }
+
+  /** @param k cuántas serpientes publica el ranking */
+  public RaceStats(int k) {
+    if (k <= 0) {
+      throw new IllegalArgumentException("k must be positive");
+    }
+    this.k = k;
+    this.top = new int[k];
+  }
+
+  /** Retorna la última foto publicada; no bloquea */
+  public Leaderboard leaderboard() {
+    return leaderboard;
+  }
+
+  @Override
+  public void onSubscribe() {
+    slots.clear();
+    byLength.clear();
+    count = 0;
+    dead = 0;
+    firstDead = -1;
+    firstDeathOrder = Long.MAX_VALUE;
+    tick = 0;
+    totalMice = 0;
+    totalTurbos = 0;
+    lost = 0;
+    windowStart = System.nanoTime();
+    leaderboard = Leaderboard.EMPTY;
+  }
+
+  @Override
+  public void onEvent(GameEvent e, boolean endOfBatch) {
+    switch (e.type()) {
+      case SNAKE_ADDED -> {
+        int slot = slotOf(e.snake());
+        length[slot] = e.length();
+        byLength.set(slot, e.length());
+        dirty = true;
+      }
+      case MOVED -> {
+        int slot = slotOf(e.snake());
+        moves[slot]++;
+        if (length[slot] != e.length() && diedTick[slot] < 0) {
+          length[slot] = e.length();
+          byLength.set(slot, e.length());
+        }
+        dirty = true;
+      }
+      case ATE_MOUSE -> {
+        mice[slotOf(e.snake())]++;
+        totalMice++;
+        dirty = true;
+      }
+      case ATE_TURBO -> {
+        turbos[slotOf(e.snake())]++;
+        totalTurbos++;
+        dirty = true;
+      }
+      case DIED -> {
+        int slot = slotOf(e.snake());
+        if (diedTick[slot] < 0) {
+          diedTick[slot] = tick;
+          byLength.remove(slot);
+          dead++;
+          // Las particiones no llegan en orden; el de las muertes viene en el evento
+          if (e.deathOrder() < firstDeathOrder) {
+            firstDeathOrder = e.deathOrder();
+            firstDead = e.snake();
+          }
+        }
+        dirty = true;
+      }
+      case TICK -> {
+        tick = e.tick();
+        dirty = true;
+      }
+      default -> {}
+    }
+    if (endOfBatch) {
+      long now = System.nanoTime();
+      if (now - windowStart >= RATE_WINDOW_NANOS) {
+        updateRates(now);
+      }
+      if (dirty) publish();
+    }
+  }
+
+  @Override
+  public void onLost(long n) {
+    lost += n;
+    dirty = true;
+  }
+
+  /** Retorna el puesto de la serpiente, y le asigna uno si es nueva */
+  private int slotOf(int id) {
+    Integer slot = slots.get(id);
+    if (slot != null) return slot;
+    if (count == ids.length) grow();
+    int s = count++;
+    slots.put(id, s);
+    ids[s] = id;
+    length[s] = 1;
+    mice[s] = 0;
+    turbos[s] = 0;
+    moves[s] = 0;
+    addedTick[s] = tick;
+    diedTick[s] = -1;
+    windowMoves[s] = 0;
+    rate[s] = 0;
+    byLength.set(s, 1);
+    return s;
+  }
+
+  private void grow() {
+    int n = ids.length * 2;
+    ids = Arrays.copyOf(ids, n);
+    length = Arrays.copyOf(length, n);
+    mice = Arrays.copyOf(mice, n);
+    turbos = Arrays.copyOf(turbos, n);
+    moves = Arrays.copyOf(moves, n);
+    addedTick = Arrays.copyOf(addedTick, n);
+    diedTick = Arrays.copyOf(diedTick, n);
+    windowMoves = Arrays.copyOf(windowMoves, n);
+    rate = Arrays.copyOf(rate, n);
+  }
+
+  /** Cierra la ventana de la tasa de movimientos; O(n) una vez por segundo */
+  private void updateRates(long now) {
+    double seconds = (now - windowStart) / 1e9;
+    for (int s = 0; s < count; s++) {
+      rate[s] = diedTick[s] < 0 ? (moves[s] - windowMoves[s]) / seconds : 0;
+      windowMoves[s] = moves[s];
+    }
+    windowStart = now;
+    dirty = true;
+  }
+
+  private void publish() {
+    int n = byLength.top(k, top);
+    Leaderboard.Entry[] entries = new Leaderboard.Entry[n];
+    for (int i = 0; i < n; i++) {
+      int s = top[i];
+      entries[i] = new Leaderboard.Entry(ids[s], length[s], mice[s], turbos[s], moves[s],
+          tick - addedTick[s], rate[s]);
+    }
+    leaderboard = new Leaderboard(tick, count - dead, dead, firstDead, totalMice, totalTurbos,
+        List.of(entries), lost);
+    dirty = false;
+  }
+}
@@ -5,11 +5,19 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.event.ActionEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.Executors;
+import java.util.Set;
 
 import javax.swing.AbstractAction;
 import javax.swing.ActionMap;
@@ -22,41 +30,61 @@ import javax.swing.JPanel;
 import javax.swing.KeyStroke;
 import javax.swing.SwingUtilities;
 
-import co.eci.snake.concurrency.SnakeRunner;
-import co.eci.snake.core.Board;
+import co.eci.snake.concurrency.Race;
 import co.eci.snake.core.Direction;
 import co.eci.snake.core.Position;
 import co.eci.snake.core.Snake;
-import co.eci.snake.core.engine.GameClock;
+import co.eci.snake.core.WorldSnapshot;
+import co.eci.snake.core.WorldSnapshot.SnakeView;
+import co.eci.snake.core.events.GameEvent;
+import co.eci.snake.core.events.GameEventHandler;
+import co.eci.snake.metrics.Metrics;
+import co.eci.snake.server.GameServer;
+import co.eci.snake.stats.Leaderboard;
+import co.eci.snake.stats.RaceStats;
 
 public final class SnakeApp extends JFrame {
 
-  private final Board board;
+  private final Race race;
+  private final GameServer server;  // Null si no se transmite la carrera por red
   private final GamePanel gamePanel;
   private final JButton actionButton;
   private final JLabel statsLabel;
-  private final GameClock clock;
+  private final RaceStats stats = new RaceStats(3);
   private boolean gameEnded = false;
 
   public SnakeApp() {
     super("The Snake Race");
-    this.board = new Board(35, 28);
-
     int N = Integer.getInteger("snakes", 2);
-    for (int i = 0; i < N; i++) {
-      int x = 2 + (i * 3) % board.width();
-      int y = 2 + (i * 2) % board.height();
-      var dir = Direction.values()[i % Direction.values().length];
-      board.addSnake(Snake.of(x, y, dir, i+1));
-    }
+    String record = System.getProperty("record");
+    var settings = new Race.Settings(35, 28, N, "tick".equals(System.getProperty("engine")),
+        "greedy".equals(System.getProperty("steering")), Integer.getInteger("tickMs", 80),
+        Integer.getInteger("frameMs", 60), record != null ? Path.of(record) : null);
+
+    // Cada cuadro publica una foto del tablero fuera del EDT; el EDT la lee sin locks.
+    // En pausa el reloj no programa nada
+    this.race = new Race(settings, SwingUtilities::invokeLater, this::onFrame);
+    // El fin de la carrera llega como evento; la ventana ya no lo consulta en cada cuadro.
+    // Si se perdieron eventos pudo perderse el fin: se revisa el tablero una vez
+    race.subscribe("ui-events", new GameEventHandler() {
+      @Override
+      public void onEvent(GameEvent event, boolean endOfBatch) {
+        if (event.type() == GameEvent.Type.GAME_OVER) SwingUtilities.invokeLater(SnakeApp.this::onGameOver);
+      }
+
+      @Override
+      public void onLost(long count) {
+        SwingUtilities.invokeLater(SnakeApp.this::onGameOver);
+      }
+    });
+    race.subscribe("ui-stats", stats);
+    race.start();  // La carrera comienza pausada, esperando que el usuario presione Iniciar
+    this.server = openServer(Integer.getInteger("serve", -1));
 
-    this.gamePanel = new GamePanel(board, board::getSnakes);
+    this.gamePanel = new GamePanel(() -> race.board().snapshot(), "incremental".equals(System.getProperty("render")));
     this.actionButton = new JButton("Iniciar");
     this.statsLabel = new JLabel("Presiona Iniciar para comenzar");
 
-    // El juego comienza pausado, esperando que el usuario presione Iniciar
-    board.setPaused(true);
-
     // Panel inferior con botón y estadísticas
     JPanel bottomPanel = new JPanel(new BorderLayout());
     bottomPanel.add(actionButton, BorderLayout.WEST);
@@ -66,18 +94,17 @@ public final class SnakeApp extends JFrame {
     add(gamePanel, BorderLayout.CENTER);
     add(bottomPanel, BorderLayout.SOUTH);
 
-    setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+    setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+    addWindowListener(new WindowAdapter() {
+      @Override
+      public void windowClosed(WindowEvent e) {
+        race.close();  // Termina los hilos de la carrera y del reloj
+        if (server != null) server.close();
+      }
+    });
     pack();
     setLocationRelativeTo(null);
 
-    this.clock = new GameClock(60, () -> SwingUtilities.invokeLater(() -> {
-      gamePanel.repaint();
-      checkGameOver();
-    }));
-
-    var exec = Executors.newVirtualThreadPerTaskExecutor();
-    board.getSnakes().forEach(s -> exec.submit(new SnakeRunner(s, board)));
-
     actionButton.addActionListener((ActionEvent e) -> togglePause());
 
     gamePanel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke("SPACE"), "pause");
@@ -88,74 +115,69 @@ public final class SnakeApp extends JFrame {
       }
     });
 
-    InputMap im = gamePanel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW);
-    ActionMap am = gamePanel.getActionMap();
-    var player = board.getSnake(0);
-    if(player.getId() == 1){
-    im.put(KeyStroke.getKeyStroke("LEFT"), "left");
-    im.put(KeyStroke.getKeyStroke("RIGHT"), "right");
-    im.put(KeyStroke.getKeyStroke("UP"), "up");
-    im.put(KeyStroke.getKeyStroke("DOWN"), "down");
-    am.put("left", new AbstractAction() {
-      @Override
-      public void actionPerformed(ActionEvent e) {
-        player.turn(Direction.LEFT);
-      }
-    });
-    am.put("right", new AbstractAction() {
-      @Override
-      public void actionPerformed(ActionEvent e) {
-        player.turn(Direction.RIGHT);
-      }
-    });
-    am.put("up", new AbstractAction() {
-      @Override
-      public void actionPerformed(ActionEvent e) {
-        player.turn(Direction.UP);
-      }
-    });
-    am.put("down", new AbstractAction() {
-      @Override
-      public void actionPerformed(ActionEvent e) {
-        player.turn(Direction.DOWN);
-      }
-    });
+    // Las teclas buscan la serpiente en la carrera actual, así que siguen sirviendo al reiniciar
+    if (N >= 1) {
+      bindKeys("LEFT", "RIGHT", "UP", "DOWN", 1);
+    }
+    if (N >= 2) {
+      bindKeys("A", "D", "W", "S", 2);
     }
 
-    if (board.snakeCount() > 1 && (board.getSnake(1).getId() == 2 || board.getSnake(0).getId() == 2)) {
-      var p2 = board.getSnake(1);
-      im.put(KeyStroke.getKeyStroke('A',0), "p2-left");
-      im.put(KeyStroke.getKeyStroke('D',0), "p2-right");
-      im.put(KeyStroke.getKeyStroke('W',0), "p2-up");
-      im.put(KeyStroke.getKeyStroke('S',0), "p2-down");
-      am.put("p2-left", new AbstractAction() {
-        @Override
-        public void actionPerformed(ActionEvent e) {
-          p2.turn(Direction.LEFT);
-        }
-      });
-      am.put("p2-right", new AbstractAction() {
-        @Override
-        public void actionPerformed(ActionEvent e) {
-          p2.turn(Direction.RIGHT);
-        }
-      });
-      am.put("p2-up", new AbstractAction() {
-        @Override
-        public void actionPerformed(ActionEvent e) {
-          p2.turn(Direction.UP);
-        }
-      });
-      am.put("p2-down", new AbstractAction() {
+    setVisible(true);
+  }
+
+  /** Transmite la carrera a clientes remotos en el puerto dado; null si port es negativo */
+  private GameServer openServer(int port) {
+    if (port < 0) return null;
+    try {
+      GameServer gs = GameServer.open(new InetSocketAddress(port));
+      gs.attach(race.board());
+      return gs;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Asocia cuatro teclas a los giros de la serpiente con el id dado */
+  private void bindKeys(String left, String right, String up, String down, int id) {
+    InputMap im = gamePanel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW);
+    ActionMap am = gamePanel.getActionMap();
+    String[] keys = {left, right, up, down};
+    Direction[] dirs = {Direction.LEFT, Direction.RIGHT, Direction.UP, Direction.DOWN};
+    for (int i = 0; i < keys.length; i++) {
+      String name = "p" + id + "-" + dirs[i];
+      Direction dir = dirs[i];
+      im.put(KeyStroke.getKeyStroke(keys[i]), name);
+      am.put(name, new AbstractAction() {
         @Override
         public void actionPerformed(ActionEvent e) {
-          p2.turn(Direction.DOWN);
+          Snake s = race.snake(id);
+          if (s != null) s.turn(dir);
         }
       });
     }
+  }
 
-    setVisible(true);
-    clock.start();
+  /** Pinta el cuadro publicado y, mientras corre, el ranking en vivo (en el EDT) */
+  private void onFrame() {
+    gamePanel.refresh();
+    if ("Pausar".equals(actionButton.getText()) && !gameEnded) showLiveStats();
+  }
+
+  /**
+   * Cifras en vivo del ranking incremental: leerlo no toma locks del tablero, pero va un
+   * poco atrás de la carrera y, si se perdieron eventos, es aproximado.
+   */
+  private void showLiveStats() {
+    Leaderboard stats = this.stats.leaderboard();
+    Leaderboard.Entry longest = stats.longest();
+    StringBuilder sb = new StringBuilder("  Juego en curso...");
+    if (longest != null) {
+      sb.append("  |  Más larga: Serpiente ").append(longest.id()).append(" (").append(longest.length()).append(" celdas)");
+    }
+    sb.append("  |  Ratones: ").append(stats.mice());
+    if (stats.lostEvents() > 0) sb.append(" (aprox.)");
+    statsLabel.setText(sb.toString());
   }
 
   private void togglePause() {
@@ -164,166 +186,370 @@ public final class SnakeApp extends JFrame {
       // Estado: Iniciar -> el juego comienza
       actionButton.setText("Pausar");
       statsLabel.setText("Juego en curso...");
-      board.setPaused(false);
-      clock.resume();
+      race.resume();
     } else if ("Pausar".equals(currentText)) {
       // Estado: Pausar -> el juego se pausa
       actionButton.setText("Reanudar");
-      clock.pause();
-      board.setPaused(true);
+      race.pause();
       showStats();
+    } else if ("Reiniciar".equals(currentText)) {
+      // Estado: Reiniciar -> carrera nueva en la misma ventana
+      race.restart(Race.DEFAULT_SHUTDOWN);
+      if (server != null) server.attach(race.board());
+      gameEnded = false;
+      actionButton.setText("Pausar");
+      statsLabel.setText("Juego en curso...");
+      race.resume();
     } else {
       // Estado: Reanudar -> el juego continúa
       actionButton.setText("Pausar");
       statsLabel.setText("Juego en curso...");
-      clock.resume();
-      board.setPaused(false);
+      race.resume();
     }
   }
 
   private void showStats() {
+    // Foto tomada después de pausar: todas las cifras salen del mismo estado, sin el atraso
+    // ni las pérdidas del ranking incremental
+    WorldSnapshot world = race.board().publish();
+
     // Encontrar la serpiente viva más larga
-    List<Snake> snakes = board.getSnakes();
-    Snake longest = null;
-    int maxLen = 0;
+    List<SnakeView> snakes = world.snakes();
+    SnakeView longest = null;
     for (int i = 0; i < snakes.size(); i++) {
-      Snake s = snakes.get(i);
-      int len = s.length();
-      if (len > maxLen) {
-        maxLen = len;
-        longest = s;
-      }
+      SnakeView s = snakes.get(i);
+      if (longest == null || s.length() > longest.length()) longest = s;
     }
-    int longestIdx = longest != null ? longest.getId() : -1;
 
-    // Obtener la primera serpiente que murió
-    List<Snake> dead = board.getDeadSnakes();
-    Snake firstDead = dead.isEmpty() ? null : dead.get(0);
-    int firstDeadIdx = firstDead != null ? firstDead.getId() : -1;
+    // Las muertas están en el orden en que murieron
+    List<SnakeView> dead = world.deadSnakes();
 
     // Construir mensaje de estadísticas
     StringBuilder sb = new StringBuilder("  ");
     if (longest != null) {
-      sb.append("Más larga: Serpiente ").append(longestIdx).append(" (").append(maxLen).append(" celdas)");
+      sb.append("Más larga: Serpiente ").append(longest.id()).append(" (").append(longest.length()).append(" celdas)");
     }
-    if (firstDead != null) {
-      sb.append("  |  Primera en morir: Serpiente ").append(firstDeadIdx);
+    if (!dead.isEmpty()) {
+      sb.append("  |  Primera en morir: Serpiente ").append(dead.get(0).id());
     } else {
       sb.append("  |  Ninguna ha muerto aún");
     }
+    sb.append("  |  Pausa en ").append(race.board().pauseGate().lastPauseLatencyNanos() / 1_000).append(" µs");
     statsLabel.setText(sb.toString());
   }
 
-  private void checkGameOver() {
+  /** Muestra el resultado al llegar el evento de fin de carrera (en el EDT) */
+  private void onGameOver() {
     if (gameEnded) return;
-    
-    if (board.isGameOver() && !"Iniciar".equals(actionButton.getText())) {
+
+    // El evento pudo ser de una carrera anterior a un reinicio: se confirma con el tablero actual
+    WorldSnapshot world = race.board().publish();
+    if (world.isGameOver() && !"Iniciar".equals(actionButton.getText())) {
       gameEnded = true;
-      clock.pause();
-      board.setPaused(true);
+      race.pause();
       
-      Snake winner = board.getWinner();
+      SnakeView winner = world.winner();
       if (winner != null) {
-        statsLabel.setText("  ¡JUEGO TERMINADO! Ganador: Serpiente " + winner.getId() + 
+        statsLabel.setText("  ¡JUEGO TERMINADO! Ganador: Serpiente " + winner.id() + 
             " (longitud: " + winner.length() + ")");
       } else {
         statsLabel.setText("  ¡JUEGO TERMINADO! Todas las serpientes murieron.");
       }
-      actionButton.setText("Fin");
-      actionButton.setEnabled(false);
+      actionButton.setText("Reiniciar");
     }
   }
 
   public static final class GamePanel extends JPanel {
-    private final Board board;
-    private final Supplier snakesSupplier;
+    private static final Color GRID = new Color(220, 220, 220);
+    private static final Color OBSTACLE = new Color(255, 102, 0);
+    // Paleta precalculada por color base de serpiente: el tono se aclara en los 10 primeros segmentos
+    private static final int SHADES = 11;
+    private static final Color[][] PALETTES = {
+        palette(new Color(0, 170, 0)), palette(new Color(182, 103, 191)), palette(new Color(0, 160, 180))
+    };
+    // Claves de lo que se ve en cada celda en el modo incremental (0 = solo el fondo)
+    private static final int KEY_MOUSE = 1;
+    private static final int KEY_TELEPORT = 2;
+    private static final int KEY_TURBO = 3;
+    private static final int KEY_SNAKE = 16;
+
+    private final Supplier world;
     private final int cell = 20;
-
+    private final boolean incremental;
+
+    // Estado del modo incremental: fondo (grilla + obstáculos), cuadro compuesto y claves por celda
+    private BufferedImage background;
+    private BufferedImage frame;
+    private Set<Position> drawnObstacles = Set.of();
+    private int[] shown;  // Clave pintada actualmente en cada celda
+    private int[] pending;  // Clave que debe verse en este cuadro
+    private int[] touched = new int[16];  // Celdas con entidades en el cuadro anterior
+    private int[] spare = new int[16];  // Lista reutilizada para las celdas del cuadro actual
+    private int touchedCount = 0;
+    private long drawnVersion = -1;
+
+    /** Fuente de la última foto publicada del tablero */
     @FunctionalInterface
     public interface Supplier {
-      List<Snake> get();
+      WorldSnapshot get();
+    }
+
+    /** Panel que repinta toda la grilla en cada cuadro */
+    public GamePanel(Supplier world) {
+      this(world, false);
     }
 
-    public GamePanel(Board board, Supplier snakesSupplier) {
-      this.board = board;
-      this.snakesSupplier = snakesSupplier;
-      setPreferredSize(new Dimension(board.width() * cell + 1, board.height() * cell + 40));
+    /**
+     * Panel de juego. En modo incremental guarda en caché la grilla con los obstáculos y
+     * en cada cuadro solo vuelve a pintar las celdas que cambiaron desde el anterior.
+     */
+    public GamePanel(Supplier world, boolean incremental) {
+      this.world = world;
+      this.incremental = incremental;
+      var initial = world.get();
+      setPreferredSize(new Dimension(initial.width() * cell + 1, initial.height() * cell + 40));
       setBackground(Color.WHITE);
     }
 
+    /** Pide pintar la última foto: en modo incremental solo la región de las celdas que cambiaron */
+    public void refresh() {
+      if (!incremental) {
+        repaint();
+        return;
+      }
+      Rectangle dirty = updateFrame(world.get());
+      if (dirty != null) repaint(dirty);
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
+      long start = Metrics.ENABLED ? System.nanoTime() : 0;
+      paintFrame(g);
+      if (Metrics.ENABLED) Metrics.REPAINT.record(System.nanoTime() - start);
+    }
+
+    /** Pinta la última foto: la caché en modo incremental o toda la grilla */
+    private void paintFrame(Graphics g) {
       super.paintComponent(g);
+      if (incremental) {
+        updateFrame(world.get());
+        g.drawImage(frame, 0, 0, null);
+        return;
+      }
       var g2 = (Graphics2D) g.create();
       g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+      // Una sola foto por cuadro: sin locks y sin mezclar estados distintos
+      var snapshot = world.get();
+      var items = snapshot.items();
 
-      g2.setColor(new Color(220, 220, 220));
-      for (int x = 0; x <= board.width(); x++)
-        g2.drawLine(x * cell, 0, x * cell, board.height() * cell);
-      for (int y = 0; y <= board.height(); y++)
-        g2.drawLine(0, y * cell, board.width() * cell, y * cell);
+      paintGrid(g2, snapshot.width(), snapshot.height());
 
       // Obstáculos
-      g2.setColor(new Color(255, 102, 0));
-      for (var p : board.obstacles()) {
-        int x = p.x() * cell, y = p.y() * cell;
-        g2.fillRect(x + 2, y + 2, cell - 4, cell - 4);
-        g2.setColor(Color.RED);
-        g2.drawLine(x + 4, y + 4, x + cell - 6, y + 4);
-        g2.drawLine(x + 4, y + 8, x + cell - 6, y + 8);
-        g2.drawLine(x + 4, y + 12, x + cell - 6, y + 12);
-        g2.setColor(new Color(255, 102, 0));
-      }
+      for (var p : items.obstacles()) paintObstacle(g2, p.x() * cell, p.y() * cell);
 
       // Ratones
-      g2.setColor(Color.BLACK);
-      for (var p : board.mice()) {
-        int x = p.x() * cell, y = p.y() * cell;
-        g2.fillOval(x + 4, y + 4, cell - 8, cell - 8);
-        g2.setColor(Color.WHITE);
-        g2.fillOval(x + 8, y + 8, cell - 16, cell - 16);
-        g2.setColor(Color.BLACK);
-      }
+      for (var p : items.mice()) paintMouse(g2, p.x() * cell, p.y() * cell);
 
       // Teleports (flechas rojas)
-      Map<Position, Position> tp = board.teleports();
-      g2.setColor(Color.RED);
-      for (var entry : tp.entrySet()) {
-        Position from = entry.getKey();
-        int x = from.x() * cell, y = from.y() * cell;
-        int[] xs = { x + 4, x + cell - 4, x + cell - 10, x + cell - 10, x + 4 };
-        int[] ys = { y + cell / 2, y + cell / 2, y + 4, y + cell - 4, y + cell / 2 };
-        g2.fillPolygon(xs, ys, xs.length);
-      }
+      for (var from : items.teleports().keySet()) paintTeleport(g2, from.x() * cell, from.y() * cell);
 
       // Turbo (rayos)
-      g2.setColor(Color.BLACK);
-      for (var p : board.turbo()) {
-        int x = p.x() * cell, y = p.y() * cell;
-        int[] xs = { x + 8, x + 12, x + 10, x + 14, x + 6, x + 10 };
-        int[] ys = { y + 2, y + 2, y + 8, y + 8, y + 16, y + 10 };
-        g2.fillPolygon(xs, ys, xs.length);
-      }
+      for (var p : items.turbo()) paintTurbo(g2, p.x() * cell, p.y() * cell);
 
       // Serpientes
-      var snakes = snakesSupplier.get();
-      for (Snake s : snakes) {
-        var body = s.snapshot().toArray(new Position[0]);
-        for (int i = 0; i < body.length; i++) {
-          var p = body[i];
-          Color base = (s.getId() == 1) ? 
-              ((s.getId() == 1) ? new Color(0, 170, 0) : new Color(182, 103, 191)) :
-              (s.getId() == 2) ? new Color(182, 103, 191) : new Color(0, 160, 180);
-          int shade = Math.max(0, 40 - i * 4);
-          g2.setColor(new Color(
-              Math.min(255, base.getRed() + shade),
-              Math.min(255, base.getGreen() + shade),
-              Math.min(255, base.getBlue() + shade)));
-          g2.fillRect(p.x() * cell + 2, p.y() * cell + 2, cell - 4, cell - 4);
+      for (SnakeView s : snapshot.snakes()) {
+        Color[] palette = paletteOf(s.id());
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+          int c = s.cellAt(i);
+          paintSegment(g2, Position.packedX(c) * cell, Position.packedY(c) * cell, palette[Math.min(i, SHADES - 1)]);
         }
       }
       g2.dispose();
     }
+
+    /**
+     * Lleva el cuadro en caché a la foto dada pintando solo las celdas cuya clave cambió.
+     * @return región que cambió, o null si no cambió nada
+     */
+    private Rectangle updateFrame(WorldSnapshot snapshot) {
+      int w = snapshot.width();
+      int h = snapshot.height();
+      if (frame == null || shown.length != w * h) {
+        background = new BufferedImage(w * cell + 1, h * cell + 1, BufferedImage.TYPE_INT_RGB);
+        frame = new BufferedImage(w * cell + 1, h * cell + 1, BufferedImage.TYPE_INT_RGB);
+        shown = new int[w * h];
+        pending = new int[w * h];
+        touchedCount = 0;
+        drawnObstacles = Set.of();
+        drawnVersion = -1;
+        var g = background.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, background.getWidth(), background.getHeight());
+        paintGrid(g, w, h);
+        g.dispose();
+        var fg = frame.createGraphics();
+        fg.drawImage(background, 0, 0, null);
+        fg.dispose();
+      }
+      if (snapshot.version() == drawnVersion) return null;
+      drawnVersion = snapshot.version();
+
+      var items = snapshot.items();
+      Rectangle dirty = null;
+      if (items.obstacles() != drawnObstacles) {
+        // Los obstáculos solo aparecen: se agregan al fondo sin redibujarlo
+        boolean onlyAdded = items.obstacles().containsAll(drawnObstacles);
+        var g = background.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        if (!onlyAdded) {
+          g.setColor(Color.WHITE);
+          g.fillRect(0, 0, background.getWidth(), background.getHeight());
+          paintGrid(g, w, h);
+        }
+        var fg = frame.createGraphics();
+        for (var p : items.obstacles()) {
+          if (onlyAdded && drawnObstacles.contains(p)) continue;
+          int x = p.x() * cell;
+          int y = p.y() * cell;
+          paintObstacle(g, x, y);
+          if (onlyAdded) {
+            // La celda queda mostrando solo el fondo; si tiene una entidad se repinta abajo
+            fg.drawImage(background, x, y, x + cell + 1, y + cell + 1, x, y, x + cell + 1, y + cell + 1, null);
+            shown[p.y() * w + p.x()] = 0;
+            dirty = union(dirty, new Rectangle(x, y, cell + 1, cell + 1));
+          }
+        }
+        g.dispose();
+        if (!onlyAdded) {
+          fg.drawImage(background, 0, 0, null);
+          Arrays.fill(shown, 0);
+          dirty = new Rectangle(0, 0, frame.getWidth(), frame.getHeight());
+        }
+        fg.dispose();
+        drawnObstacles = items.obstacles();
+      }
+
+      // Claves de este cuadro, en el mismo orden de pintura que el modo completo
+      int[] current = spare;
+      int count = 0;
+      for (var p : items.mice()) current = mark(current, count++, p.y() * w + p.x(), KEY_MOUSE);
+      for (var p : items.teleports().keySet()) current = mark(current, count++, p.y() * w + p.x(), KEY_TELEPORT);
+      for (var p : items.turbo()) current = mark(current, count++, p.y() * w + p.x(), KEY_TURBO);
+      for (SnakeView s : snapshot.snakes()) {
+        int base = KEY_SNAKE + paletteIndex(s.id()) * SHADES;
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+          int c = s.cellAt(i);
+          current = mark(current, count++, Position.packedY(c) * w + Position.packedX(c), base + Math.min(i, SHADES - 1));
+        }
+      }
+
+      var g = frame.createGraphics();
+      g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+      for (int k = 0; k < touchedCount; k++) dirty = repaintCell(g, touched[k], w, dirty);
+      for (int k = 0; k < count; k++) dirty = repaintCell(g, current[k], w, dirty);
+      g.dispose();
+      for (int k = 0; k < count; k++) pending[current[k]] = 0;
+      spare = touched;
+      touched = current;
+      touchedCount = count;
+      return dirty;
+    }
+
+    /** Registra la clave de una celda para este cuadro, agrandando la lista si hace falta */
+    private int[] mark(int[] list, int at, int c, int key) {
+      if (at == list.length) list = Arrays.copyOf(list, list.length * 2);
+      list[at] = c;
+      pending[c] = key;
+      return list;
+    }
+
+    /** Recompone una celda desde el fondo si su clave cambió y amplía la región sucia */
+    private Rectangle repaintCell(Graphics2D g, int c, int w, Rectangle dirty) {
+      int key = pending[c];
+      if (shown[c] == key) return dirty;
+      shown[c] = key;
+      int x = (c % w) * cell;
+      int y = (c / w) * cell;
+      g.drawImage(background, x, y, x + cell + 1, y + cell + 1, x, y, x + cell + 1, y + cell + 1, null);
+      if (key == KEY_MOUSE) paintMouse(g, x, y);
+      else if (key == KEY_TELEPORT) paintTeleport(g, x, y);
+      else if (key == KEY_TURBO) paintTurbo(g, x, y);
+      else if (key >= KEY_SNAKE) paintSegment(g, x, y, PALETTES[(key - KEY_SNAKE) / SHADES][(key - KEY_SNAKE) % SHADES]);
+      return union(dirty, new Rectangle(x, y, cell + 1, cell + 1));
+    }
+
+    private static Rectangle union(Rectangle dirty, Rectangle r) {
+      if (dirty == null) return r;
+      dirty.add(r);
+      return dirty;
+    }
+
+    private void paintGrid(Graphics2D g2, int width, int height) {
+      g2.setColor(GRID);
+      for (int x = 0; x <= width; x++)
+        g2.drawLine(x * cell, 0, x * cell, height * cell);
+      for (int y = 0; y <= height; y++)
+        g2.drawLine(0, y * cell, width * cell, y * cell);
+    }
+
+    private void paintObstacle(Graphics2D g2, int x, int y) {
+      g2.setColor(OBSTACLE);
+      g2.fillRect(x + 2, y + 2, cell - 4, cell - 4);
+      g2.setColor(Color.RED);
+      g2.drawLine(x + 4, y + 4, x + cell - 6, y + 4);
+      g2.drawLine(x + 4, y + 8, x + cell - 6, y + 8);
+      g2.drawLine(x + 4, y + 12, x + cell - 6, y + 12);
+    }
+
+    private void paintMouse(Graphics2D g2, int x, int y) {
+      g2.setColor(Color.BLACK);
+      g2.fillOval(x + 4, y + 4, cell - 8, cell - 8);
+      g2.setColor(Color.WHITE);
+      g2.fillOval(x + 8, y + 8, cell - 16, cell - 16);
+    }
+
+    private void paintTeleport(Graphics2D g2, int x, int y) {
+      int[] xs = { x + 4, x + cell - 4, x + cell - 10, x + cell - 10, x + 4 };
+      int[] ys = { y + cell / 2, y + cell / 2, y + 4, y + cell - 4, y + cell / 2 };
+      g2.setColor(Color.RED);
+      g2.fillPolygon(xs, ys, xs.length);
+    }
+
+    private void paintTurbo(Graphics2D g2, int x, int y) {
+      int[] xs = { x + 8, x + 12, x + 10, x + 14, x + 6, x + 10 };
+      int[] ys = { y + 2, y + 2, y + 8, y + 8, y + 16, y + 10 };
+      g2.setColor(Color.BLACK);
+      g2.fillPolygon(xs, ys, xs.length);
+    }
+
+    private void paintSegment(Graphics2D g2, int x, int y, Color color) {
+      g2.setColor(color);
+      g2.fillRect(x + 2, y + 2, cell - 4, cell - 4);
+    }
+
+    /** Serpiente 1 verde, serpiente 2 morada y el resto cian */
+    private static int paletteIndex(int id) {
+      return id == 1 ? 0 : id == 2 ? 1 : 2;
+    }
+
+    private static Color[] paletteOf(int id) {
+      return PALETTES[paletteIndex(id)];
+    }
+
+    private static Color[] palette(Color base) {
+      Color[] shades = new Color[SHADES];
+      for (int i = 0; i < SHADES; i++) {
+        int shade = Math.max(0, 40 - i * 4);
+        shades[i] = new Color(
+            Math.min(255, base.getRed() + shade),
+            Math.min(255, base.getGreen() + shade),
+            Math.min(255, base.getBlue() + shade));
+      }
+      return shades;
+    }
   }
 
   public static void launch() {
@@ -0,0 +1,40 @@
+package co.eci.snake.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedWriter;
+import java.io.StringWriter;
+import java.util.HashSet;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/** Con la misma semilla el CSV no depende del número de hilos ni del orden en que terminan */
+class BatchRunnerTest {
+  private static final int RACES = 40;
+
+  @ParameterizedTest(name = "greedy={0}")
+  @ValueSource(booleans = {false, true})
+  void csvIsTheSameWithOneOrManyThreads(boolean greedy) throws Exception {
+    String single = csv(1, greedy);
+    String[] lines = single.split("\\R");
+    assertEquals(RACES + 1, lines.length);
+    for (int i = 1; i <= RACES; i++) assertTrue(lines[i].startsWith((i - 1) + ","), lines[i]);
+    // Las carreras duran distinto, así que con varios hilos terminan en otro orden
+    var ticks = new HashSet<String>();
+    for (int i = 1; i <= RACES; i++) ticks.add(lines[i].split(",")[3]);
+    assertTrue(ticks.size() > 1);
+
+    assertEquals(single, csv(4, greedy));
+    assertEquals(single, csv(16, greedy));
+  }
+
+  private static String csv(int threads, boolean greedy) throws Exception {
+    StringWriter text = new StringWriter();
+    try (BufferedWriter out = new BufferedWriter(text)) {
+      BatchRunner.runAll(out, RACES, 42, 20, 16, 6, 5_000, threads, greedy, false);
+    }
+    return text.toString();
+  }
+}
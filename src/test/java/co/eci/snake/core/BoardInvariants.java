@@ -0,0 +1,53 @@
+package co.eci.snake.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/** Invariantes del tablero que deben valer cada vez que no hay movimientos en curso */
+final class BoardInvariants {
+  private BoardInvariants() {}
+
+  /**
+   * Verifica que la grilla, el índice de cuerpos y el pool de celdas libres coincidan con
+   * las serpientes vivas y que ninguna celda tenga cuerpos de dos serpientes.
+   */
+  static void check(Board board) {
+    int width = board.width();
+    Map<Integer, Integer> owners = new HashMap<>();
+    for (Snake s : board.getSnakes()) {
+      for (int i = 0; i < s.length(); i++) {
+        int p = s.cellAt(i);
+        int cell = Position.packedY(p) * width + Position.packedX(p);
+        Integer prev = owners.putIfAbsent(cell, s.indexKey());
+        assertTrue(prev == null || prev == s.indexKey(),
+            "cell " + cell + " holds bodies of keys " + prev + " and " + s.indexKey());
+      }
+    }
+
+    CellGrid grid = board.grid();
+    int area = width * board.height();
+    for (int cell = 0; cell < area; cell++) {
+      Integer key = owners.get(cell);
+      // La clave 0 no es de ninguna serpiente: "otra" que ocupa la celda es cualquier cuerpo
+      assertEquals(key != null, grid.occupiedByOther(cell, 0), "body index at cell " + cell);
+      if (key != null) {
+        assertFalse(grid.occupiedByOther(cell, key), "body index owner at cell " + cell);
+      }
+    }
+
+    FreeCellPool pool = board.freeCells();
+    if (pool != null) {
+      int empty = 0;
+      for (int cell = 0; cell < area; cell++) {
+        boolean isEmpty = grid.item(cell) == 0;
+        if (isEmpty) empty++;
+        assertEquals(isEmpty, pool.contains(cell), "free cell pool at cell " + cell);
+      }
+      assertEquals(empty, pool.size(), "free cell pool size");
+    }
+  }
+}
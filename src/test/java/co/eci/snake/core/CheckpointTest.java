@@ -0,0 +1,147 @@
+package co.eci.snake.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import co.eci.snake.core.engine.TickEngine;
+import co.eci.snake.core.steering.SteeringStrategy;
+
+/**
+ * Ida y vuelta de {@link Board#checkpoint(Path)} y {@link Board#restore(Path)} en tableros
+ * densos y dispersos con teletransportadores, serpientes muertas y elementos comidos y
+ * reaparecidos, y rechazo de archivos truncados o corruptos.
+ */
+class CheckpointTest {
+  private static final int TELEPORT_COUNT_OFFSET = 4 * 5 + 1 + 8;
+
+  @TempDir
+  Path dir;
+
+  @ParameterizedTest(name = "sparse={0}")
+  @ValueSource(booleans = {false, true})
+  void restoredBoardMatchesTheSavedOne(boolean sparse) throws IOException {
+    Board board = playedBoard(sparse);
+    assertFalse(board.teleports().isEmpty());
+    assertTrue(board.deadSnakeCount() > 0);
+    assertTrue(board.getSnakes().size() > 0);
+    Path file = dir.resolve("board.ckpt");
+    board.checkpoint(file);
+
+    Board restored = Board.restore(file, new SplittableRandom(1));
+    assertEquals(sparse, restored.isSparse());
+    assertEquals(state(board), state(restored));
+    BoardInvariants.check(restored);
+
+    // Un punto de control del tablero restaurado es idéntico byte a byte
+    Path again = dir.resolve("again.ckpt");
+    restored.checkpoint(again);
+    assertTrue(Arrays.equals(Files.readAllBytes(file), Files.readAllBytes(again)));
+  }
+
+  @ParameterizedTest(name = "sparse={0}")
+  @ValueSource(booleans = {false, true})
+  void truncatedCheckpointsAreRejected(boolean sparse) throws IOException {
+    Path file = dir.resolve("board.ckpt");
+    playedBoard(sparse).checkpoint(file);
+    byte[] bytes = Files.readAllBytes(file);
+    Path cut = dir.resolve("cut.ckpt");
+    for (int length : new int[] {0, 3, 7, TELEPORT_COUNT_OFFSET + 2, bytes.length / 3, bytes.length / 2,
+        bytes.length - 5, bytes.length - 1}) {
+      Files.write(cut, Arrays.copyOf(bytes, length));
+      assertThrows(IOException.class, () -> Board.restore(cut), "length " + length);
+    }
+  }
+
+  @Test
+  void corruptCheckpointsAreRejected() throws IOException {
+    Path file = dir.resolve("board.ckpt");
+    playedBoard(false).checkpoint(file);
+    byte[] bytes = Files.readAllBytes(file);
+
+    assertCorrupt(bytes, b -> b.putInt(0, 0x12345678));  // Magia
+    assertCorrupt(bytes, b -> b.putInt(4, 99));  // Versión
+    assertCorrupt(bytes, b -> b.putInt(8, -4));  // Ancho
+    assertCorrupt(bytes, b -> b.putInt(16, 0));  // Tamaño de región
+    assertCorrupt(bytes, b -> b.putInt(TELEPORT_COUNT_OFFSET, -1));
+    assertCorrupt(bytes, b -> b.putInt(TELEPORT_COUNT_OFFSET, Integer.MIN_VALUE));
+    assertCorrupt(bytes, b -> b.putInt(TELEPORT_COUNT_OFFSET, 1 << 20));
+    assertCorrupt(bytes, b -> b.putInt(TELEPORT_COUNT_OFFSET + 4, -7));  // Celda de un teletransportador
+  }
+
+  @Test
+  void corruptSparseItemsAreRejected() throws IOException {
+    Path file = dir.resolve("board.ckpt");
+    Board board = playedBoard(true);
+    board.checkpoint(file);
+    byte[] bytes = Files.readAllBytes(file);
+    int items = TELEPORT_COUNT_OFFSET + 4 + 8 * board.teleports().size();
+
+    assertCorrupt(bytes, b -> b.putInt(items, -1));  // Cantidad de elementos
+    assertCorrupt(bytes, b -> b.putInt(items + 4, Integer.MAX_VALUE));  // Celda del primer elemento
+    assertCorrupt(bytes, b -> b.put(items + 8, (byte) 9));  // Código del primer elemento
+  }
+
+  private void assertCorrupt(byte[] original, Consumer<ByteBuffer> damage) throws IOException {
+    ByteBuffer b = ByteBuffer.wrap(original.clone());
+    damage.accept(b);
+    Path file = dir.resolve("corrupt.ckpt");
+    Files.write(file, b.array());
+    assertThrows(IOException.class, () -> Board.restore(file));
+  }
+
+  /** Tablero con semilla fija tras una carrera corta: hay muertas, comidas y reapariciones */
+  private static Board playedBoard(boolean sparse) {
+    var rnd = new SplittableRandom(sparse ? 11 : 7);
+    Board board = sparse ? Board.sparse(64, 48, 16, rnd.split()) : new Board(64, 48, 16, rnd.split());
+    var dirs = Direction.values();
+    for (int i = 0; i < 60; i++) {
+      board.addSnake(Snake.of(rnd.nextInt(64), rnd.nextInt(48), dirs[rnd.nextInt(4)], i + 1));
+    }
+    TickEngine engine = new TickEngine(board, SteeringStrategy.random());
+    for (int t = 0; t < 40; t++) engine.tick();
+    return board;
+  }
+
+  /** Estado comparable: dimensiones, elementos, teletransportadores y serpientes en orden */
+  private static String state(Board b) {
+    StringBuilder sb = new StringBuilder();
+    sb.append(b.width()).append('x').append(b.height()).append('\n');
+    sb.append(new TreeSet<>(b.mice().stream().map(Object::toString).toList())).append('\n');
+    sb.append(new TreeSet<>(b.obstacles().stream().map(Object::toString).toList())).append('\n');
+    sb.append(new TreeSet<>(b.turbo().stream().map(Object::toString).toList())).append('\n');
+    var tp = new TreeMap<String, String>();
+    b.teleports().forEach((from, to) -> tp.put(from.toString(), to.toString()));
+    sb.append(tp).append('\n');
+    appendSnakes(sb, b.getSnakes());
+    sb.append("dead\n");
+    appendSnakes(sb, b.getDeadSnakes());
+    return sb.toString();
+  }
+
+  private static void appendSnakes(StringBuilder sb, List<Snake> snakes) {
+    for (Snake s : snakes) {
+      sb.append(s.getId()).append(' ').append(s.direction()).append(' ').append(s.targetLength())
+          .append(' ').append(s.moves()).append(':');
+      for (int i = 0; i < s.length(); i++) sb.append(s.cellAt(i)).append(',');
+      sb.append('\n');
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package co.eci.snake.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * {@link Board#freeCell(SplittableRandom)} nunca entrega una celda con un elemento o con el
+ * cuerpo de otra serpiente, aun cuando el tablero se llena, y no consume el pool de celdas libres.
+ */
+class FreeCellTest {
+  private static final int WIDTH = 12;
+  private static final int HEIGHT = 10;
+
+  @ParameterizedTest(name = "sparse={0}")
+  @ValueSource(booleans = {false, true})
+  void snakesStartOnCellsWithoutItemsOrBodies(boolean sparse) {
+    var rnd = new SplittableRandom(5);
+    Board board = sparse ? Board.sparse(WIDTH, HEIGHT, 4, rnd.split()) : new Board(WIDTH, HEIGHT, 4, rnd.split());
+    int freeBefore = sparse ? -1 : board.freeCells().size();
+    int empty = 0;
+    for (int cell = 0; cell < WIDTH * HEIGHT; cell++) {
+      if (board.itemAt(cell) == 0) empty++;
+    }
+
+    for (int id = 1; id <= empty; id++) {
+      Position p = board.freeCell(rnd);
+      assertNotNull(p, "serpiente " + id);
+      int cell = board.cellIndex(Position.pack(p.x(), p.y()));
+      assertEquals(0, board.itemAt(cell), p.toString());
+      assertFalse(board.grid().occupiedByOther(cell, 0), p.toString());
+      board.addSnake(Snake.of(p.x(), p.y(), Direction.RIGHT, id));
+    }
+    // Todas las celdas sin elementos tienen ya una serpiente
+    assertNull(board.freeCell(rnd));
+    if (!sparse) assertEquals(freeBefore, board.freeCells().size());
+    BoardInvariants.check(board);
+  }
+}
@@ -0,0 +1,182 @@
+package co.eci.snake.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import co.eci.snake.core.engine.TickEngine;
+import co.eci.snake.core.steering.SteeringStrategy;
+
+/**
+ * El mismo tablero con semilla fija movido por {@link TickEngine} en secuencia y repartido
+ * en un ForkJoinPool debe quedar igual después de cada tick. Además de serpientes al azar
+ * se arman a propósito los conflictos que {@link ParallelStep} resuelve en el orden dado:
+ * choques de cabezas, serpientes que persiguen colas que se retiran y varias serpientes
+ * que entran a la vez a la celda de un elemento.
+ */
+class ParallelStepTest {
+  private static final int WIDTH = 160;
+  private static final int HEIGHT = 120;
+  private static final int SPACING = 8;
+  private static final int SNAKES = 600;
+  private static final int TICKS = 200;
+  /** Ticks iniciales sin giros, para que los conflictos armados ocurran tal cual */
+  private static final int STRAIGHT_TICKS = 4;
+
+  private static ForkJoinPool pool;
+
+  @BeforeAll
+  static void startPool() {
+    pool = new ForkJoinPool(4);
+  }
+
+  @AfterAll
+  static void stopPool() {
+    pool.shutdown();
+  }
+
+  @ParameterizedTest(name = "sparse={0}")
+  @ValueSource(booleans = {false, true})
+  void parallelTicksMatchSequentialTicks(boolean sparse) {
+    Board sequential = craftedBoard(sparse);
+    Board parallel = craftedBoard(sparse);
+    assertTrue(sequential.snakeCount() >= 256, "el paso paralelo necesita al menos 256 serpientes");
+    assertEquals(state(sequential), state(parallel));
+
+    long[] tick = {0};
+    SteeringStrategy steering = (snake, turbo, random) ->
+        tick[0] < STRAIGHT_TICKS ? null : SteeringStrategy.random().steer(snake, turbo, random);
+    TickEngine seqEngine = new TickEngine(sequential, steering);
+    TickEngine parEngine = new TickEngine(parallel, steering, pool);
+    Set<Position> mice = sequential.mice();
+
+    for (tick[0] = 0; tick[0] < TICKS; tick[0]++) {
+      seqEngine.tick();
+      parEngine.tick();
+      assertEquals(state(sequential), state(parallel), "tick " + (tick[0] + 1));
+      if (tick[0] == 0) {
+        // Los choques de cabezas armados mueren en el primer tick y alguien se comió un ratón
+        assertTrue(sequential.deadSnakeCount() > 0);
+        assertNotEquals(mice, sequential.mice());
+      }
+    }
+    assertEquals(seqEngine.moves(), parEngine.moves());
+    BoardInvariants.check(parallel);
+  }
+
+  /**
+   * Tablero con escenarios armados en una grilla de casillas separadas y el resto de las
+   * serpientes al azar. Con la misma semilla construye el mismo tablero.
+   */
+  private static Board craftedBoard(boolean sparse) {
+    var rnd = new SplittableRandom(2024);
+    Board board = sparse ? Board.sparse(WIDTH, HEIGHT, 16, rnd.split()) : new Board(WIDTH, HEIGHT, 16, rnd.split());
+    Layout layout = new Layout(board);
+
+    // Varias serpientes entran a la vez a la celda de cada elemento comestible
+    Set<Position> edible = new TreeSet<>((a, b) -> a.y() != b.y() ? a.y() - b.y() : a.x() - b.x());
+    edible.addAll(board.mice());
+    edible.addAll(board.turbo());
+    for (Position p : edible) {
+      int x = p.x();
+      int y = p.y();
+      layout.add(Direction.RIGHT, cell(x - 1, y));
+      layout.add(Direction.LEFT, cell(x + 1, y));
+      layout.add(Direction.DOWN, cell(x, y - 1));
+    }
+
+    int kind = 0;
+    for (int by = 2; by + SPACING <= HEIGHT; by += SPACING) {
+      for (int bx = 2; bx + SPACING <= WIDTH; bx += SPACING) {
+        switch (kind++ % 4) {
+          case 0 -> {
+            // Cabezas que llegan a la misma celda
+            layout.add(Direction.RIGHT, cell(bx, by));
+            layout.add(Direction.LEFT, cell(bx + 2, by));
+          }
+          case 1 -> {
+            // Cabezas que se cruzan: cada una entra donde está la otra
+            layout.add(Direction.RIGHT, cell(bx + 1, by), cell(bx, by));
+            layout.add(Direction.LEFT, cell(bx + 2, by), cell(bx + 3, by));
+          }
+          case 2 -> {
+            // Una fila: cada serpiente entra a la cola que retira la de adelante
+            layout.add(Direction.RIGHT, cell(bx + 5, by), cell(bx + 4, by));
+            layout.add(Direction.RIGHT, cell(bx + 3, by), cell(bx + 2, by));
+            layout.add(Direction.RIGHT, cell(bx + 1, by), cell(bx, by));
+          }
+          default -> {
+            // Un ciclo: cuatro serpientes girando en un cuadrado de 2x2, cada una tras la cola de otra
+            layout.add(Direction.RIGHT, cell(bx, by));
+            layout.add(Direction.DOWN, cell(bx + 1, by));
+            layout.add(Direction.LEFT, cell(bx + 1, by + 1));
+            layout.add(Direction.UP, cell(bx, by + 1));
+          }
+        }
+      }
+    }
+
+    var dirs = Direction.values();
+    while (board.snakeCount() < SNAKES) {
+      layout.add(dirs[rnd.nextInt(4)], cell(rnd.nextInt(WIDTH), rnd.nextInt(HEIGHT)));
+    }
+    BoardInvariants.check(board);
+    return board;
+  }
+
+  private static int cell(int x, int y) {
+    return x < 0 || y < 0 || x >= WIDTH || y >= HEIGHT ? -1 : Position.pack(x, y);
+  }
+
+  /** Agrega serpientes que no crecen (su cola se retira en cada paso) solo donde caben */
+  private static final class Layout {
+    private final Board board;
+    private final Set<Integer> used = new HashSet<>();
+    private int nextId = 1;
+
+    Layout(Board board) {
+      this.board = board;
+    }
+
+    /** cells va de la cabeza a la cola; si alguna celda no está libre no agrega nada */
+    void add(Direction dir, int... cells) {
+      for (int c : cells) {
+        if (c < 0 || used.contains(c) || board.itemAt(board.cellIndex(c)) != 0) return;
+      }
+      for (int c : cells) used.add(c);
+      board.addSnake(Snake.restore(nextId++, dir, cells.length, 0, cells));
+    }
+  }
+
+  /** Estado comparable: serpientes vivas y muertas en orden con sus cuerpos y los elementos */
+  private static String state(Board b) {
+    StringBuilder sb = new StringBuilder();
+    appendSnakes(sb, b.getSnakes());
+    sb.append("dead\n");
+    appendSnakes(sb, b.getDeadSnakes());
+    sb.append(new TreeSet<>(b.mice().stream().map(Object::toString).toList())).append('\n');
+    sb.append(new TreeSet<>(b.obstacles().stream().map(Object::toString).toList())).append('\n');
+    sb.append(new TreeSet<>(b.turbo().stream().map(Object::toString).toList())).append('\n');
+    return sb.toString();
+  }
+
+  private static void appendSnakes(StringBuilder sb, List<Snake> snakes) {
+    for (Snake s : snakes) {
+      sb.append(s.getId()).append(' ').append(s.direction()).append(':');
+      for (int i = 0; i < s.length(); i++) sb.append(s.cellAt(i)).append(',');
+      sb.append('\n');
+    }
+  }
+}
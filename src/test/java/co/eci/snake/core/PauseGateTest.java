@@ -0,0 +1,85 @@
+package co.eci.snake.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class PauseGateTest {
+  private static final int RUNNERS = 8;
+  private static final int CYCLES = 20000;
+
+  @Test
+  void pauseIsAConsistentCutWhileRunnersComeAndGo() throws Exception {
+    PauseGate gate = new PauseGate();
+    AtomicInteger inside = new AtomicInteger();
+    AtomicLong sections = new AtomicLong();
+    AtomicBoolean stop = new AtomicBoolean();
+    List<Thread> runners = new ArrayList<>();
+    for (int i = 0; i < RUNNERS; i++) {
+      runners.add(Thread.ofPlatform().start(() -> {
+        while (!stop.get()) {
+          if (!gate.tryEnter()) {
+            try {
+              gate.awaitResume();
+            } catch (InterruptedException e) {
+              return;
+            }
+            continue;
+          }
+          inside.incrementAndGet();
+          Thread.yield();
+          inside.decrementAndGet();
+          sections.incrementAndGet();
+          gate.exit();
+        }
+      }));
+    }
+
+    for (int c = 0; c < CYCLES; c++) {
+      gate.pause();
+      assertEquals(0, inside.get(), "a section is running after pause() returned, cycle " + c);
+      Thread.yield();
+      assertEquals(0, inside.get(), "a section started while paused, cycle " + c);
+      gate.resume();
+      if (c % 4 == 0) Thread.yield();
+    }
+
+    // Después de tantas vueltas la paridad de las fases debe seguir bien: una pausa más
+    long before = sections.get();
+    TimeUnit.MILLISECONDS.sleep(20);
+    assertTrue(sections.get() > before, "runners progress after the last resume");
+    gate.pause();
+    assertEquals(0, inside.get());
+    stop.set(true);
+    gate.resume();
+    for (Thread t : runners) t.join(10_000);
+  }
+
+  @Test
+  void sectionsInFlightAreNotLimited() throws Exception {
+    // Más secciones abiertas a la vez que las 65535 partes de un Phaser
+    PauseGate gate = new PauseGate();
+    int open = 70_000;
+    for (int i = 0; i < open; i++) assertTrue(gate.tryEnter());
+    Thread pauser = Thread.ofPlatform().start(gate::pause);
+    TimeUnit.MILLISECONDS.sleep(20);
+    assertTrue(pauser.isAlive(), "pause() returned with sections still running");
+    for (int i = 0; i < open; i++) gate.exit();
+    pauser.join(10_000);
+    assertFalse(pauser.isAlive());
+    assertTrue(gate.isPaused());
+    assertFalse(gate.tryEnter());
+    gate.resume();
+    assertTrue(gate.tryEnter());
+    gate.exit();
+  }
+}
@@ -0,0 +1,122 @@
+package co.eci.snake.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Muchas serpientes movidas desde muchos hilos a la vez, con locks por regiones y con una
+ * sola región (el lock global de antes), en tableros densos y dispersos: al terminar,
+ * todos los modos deben dejar el tablero con las mismas invariantes.
+ */
+class RegionLocksStressTest {
+  private static final int SIDE = 96;
+  private static final int SNAKES = 400;
+  private static final int THREADS = 16;
+  private static final int MOVES = 400;
+  /** Lado del tablero disperso: muchos bloques, la mayoría sin reservar al empezar */
+  private static final int SPARSE_SIDE = 640;
+  private static final int PROBERS = 4;
+  private static final int MIN_PROBES = 20_000;
+
+  @ParameterizedTest(name = "regionSize={0}")
+  @ValueSource(ints = {8, 16, SIDE})
+  void concurrentStepsKeepTheBoardConsistent(int regionSize) throws Exception {
+    Board board = new Board(SIDE, SIDE, regionSize, new SplittableRandom(regionSize));
+    stress(board, SIDE, 0);
+  }
+
+  /**
+   * Tablero disperso amplio: las serpientes entran a bloques que aún no tienen contadores de
+   * cuerpos mientras otros hilos consultan {@link Board#probe} sin locks, como la estrategia.
+   */
+  @ParameterizedTest(name = "regionSize={0}")
+  @ValueSource(ints = {SparseGrid.CHUNK, SPARSE_SIDE})
+  void sparseStepsWithConcurrentProbes(int regionSize) throws Exception {
+    Board board = Board.sparse(SPARSE_SIDE, SPARSE_SIDE, regionSize, new SplittableRandom(regionSize));
+    stress(board, SPARSE_SIDE, PROBERS);
+  }
+
+  private static void stress(Board board, int side, int probers) throws Exception {
+    var rnd = new SplittableRandom(7);
+    var dirs = Direction.values();
+    for (int i = 0; i < SNAKES; i++) {
+      board.addSnake(Snake.of(rnd.nextInt(side), rnd.nextInt(side), dirs[rnd.nextInt(4)], i + 1));
+    }
+    // Las posiciones al azar pueden solaparse: se descartan las que nacen sobre otra
+    for (Snake s : board.getSnakes()) {
+      if (board.grid().occupiedByOther(board.cellIndex(s.headCell()), s.indexKey())) board.addDeadSnake(s);
+    }
+    BoardInvariants.check(board);
+
+    List<Snake> snakes = board.getSnakes();
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS + probers);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicBoolean done = new AtomicBoolean();
+    List<Future<Long>> workers = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      final int first = t;
+      workers.add(pool.submit(() -> {
+        var turns = new SplittableRandom(first);
+        List<Snake> mine = new ArrayList<>();
+        for (int i = first; i < snakes.size(); i += THREADS) mine.add(snakes.get(i));
+        start.await();
+        long moves = 0;
+        for (int m = 0; m < MOVES && !mine.isEmpty(); m++) {
+          for (int i = mine.size() - 1; i >= 0; i--) {
+            Snake s = mine.get(i);
+            if (turns.nextInt(10) == 0) s.turn(dirs[turns.nextInt(4)]);
+            moves++;
+            if (board.step(s) == Board.MoveResult.HIT_OBSTACLE) {
+              board.addDeadSnake(s);
+              mine.remove(i);
+            }
+          }
+        }
+        return moves;
+      }));
+    }
+    List<Future<Long>> probes = new ArrayList<>();
+    for (int t = 0; t < probers; t++) {
+      final int seed = 100 + t;
+      probes.add(pool.submit(() -> {
+        var pick = new SplittableRandom(seed);
+        start.await();
+        long n = 0;
+        // Al menos MIN_PROBES aunque con pocos núcleos los movimientos terminen antes
+        while (!done.get() || n < MIN_PROBES) {
+          Snake s = snakes.get(pick.nextInt(snakes.size()));
+          int cell = board.probe(s, dirs[pick.nextInt(4)]);
+          assertTrue(cell == -1 || (Position.packedX(cell) < side && Position.packedY(cell) < side));
+          n++;
+        }
+        return n;
+      }));
+    }
+    start.countDown();
+    long moves = 0;
+    try {
+      for (Future<Long> w : workers) moves += w.get(60, TimeUnit.SECONDS);
+    } finally {
+      done.set(true);
+    }
+    for (Future<Long> p : probes) p.get(60, TimeUnit.SECONDS);
+    pool.shutdown();
+
+    assertTrue(moves > SNAKES, "the stress run moved snakes");
+    assertEquals(SNAKES, board.getSnakes().size() + board.getDeadSnakes().size(), "every snake is alive or dead");
+    BoardInvariants.check(board);
+  }
+}
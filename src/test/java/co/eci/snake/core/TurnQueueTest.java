@@ -0,0 +1,121 @@
+package co.eci.snake.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/** Orden, descartes con la cola llena y varios productores contra el único consumidor */
+class TurnQueueTest {
+
+  @Test
+  void pollsInOfferOrder() {
+    TurnQueue q = new TurnQueue();
+    assertNull(q.poll());
+    Direction[] dirs = {Direction.UP, Direction.LEFT, Direction.DOWN, Direction.RIGHT, Direction.UP};
+    for (Direction d : dirs) assertTrue(q.offer(d));
+    for (Direction d : dirs) assertEquals(d, q.poll());
+    assertNull(q.poll());
+  }
+
+  @Test
+  void dropsOffersWhileFullAndKeepsOrderAcrossTheWrap() {
+    TurnQueue q = new TurnQueue();
+    Direction[] dirs = Direction.values();
+    for (int i = 0; i < TurnQueue.CAPACITY; i++) assertTrue(q.offer(dirs[i % 4]));
+    assertFalse(q.offer(Direction.UP));
+    assertEquals(dirs[0], q.poll());
+    assertTrue(q.offer(dirs[TurnQueue.CAPACITY % 4]));
+    assertFalse(q.offer(Direction.UP));
+    // Varias vueltas completas al arreglo circular
+    for (int i = 1; i < 5 * TurnQueue.CAPACITY; i++) {
+      assertEquals(dirs[i % 4], q.poll(), "turno " + i);
+      assertTrue(q.offer(dirs[(i + TurnQueue.CAPACITY) % 4]));
+    }
+  }
+
+  /** Cada productor encola una sola dirección: el consumidor debe ver todas, sin perder ni repetir */
+  @Test
+  void concurrentProducersAgainstTheSingleConsumer() throws Exception {
+    final int perProducer = 20_000;
+    TurnQueue q = new TurnQueue();
+    Direction[] dirs = Direction.values();
+    ExecutorService pool = Executors.newFixedThreadPool(dirs.length);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> producers = new ArrayList<>();
+    for (Direction d : dirs) {
+      producers.add(pool.submit(() -> {
+        start.await();
+        for (int i = 0; i < perProducer; i++) {
+          while (!q.offer(d)) Thread.yield();  // Llena: reintenta hasta que el consumidor libere un puesto
+        }
+        return null;
+      }));
+    }
+    int[] seen = new int[dirs.length];
+    start.countDown();
+    for (int received = 0; received < dirs.length * perProducer; ) {
+      Direction d = q.poll();
+      if (d == null) {
+        Thread.yield();
+        continue;
+      }
+      seen[d.ordinal()]++;
+      received++;
+    }
+    for (Future<?> f : producers) f.get();
+    pool.shutdown();
+    assertNull(q.poll());
+    for (Direction d : dirs) assertEquals(perProducer, seen[d.ordinal()], d.name());
+  }
+
+  @Test
+  void snakeAppliesOneTurnPerMove() {
+    Snake s = Snake.of(5, 5, Direction.RIGHT, 1);
+    assertEquals(Direction.RIGHT, s.nextDirection());
+    s.turn(Direction.UP);
+    s.turn(Direction.LEFT);
+    assertEquals(Direction.UP, s.nextDirection());
+    assertEquals(Direction.LEFT, s.nextDirection());
+    assertEquals(Direction.LEFT, s.nextDirection());
+    assertEquals(Direction.LEFT, s.direction());
+  }
+
+  @Test
+  void snakeSkipsReversalsOfTheLastMove() {
+    Snake s = Snake.of(5, 5, Direction.RIGHT, 1);
+    s.turn(Direction.LEFT);
+    assertEquals(Direction.RIGHT, s.nextDirection());
+    // La inversa se descarta y se aplica el siguiente giro válido en el mismo movimiento
+    s.turn(Direction.LEFT);
+    s.turn(Direction.DOWN);
+    assertEquals(Direction.DOWN, s.nextDirection());
+    // Dos teclas rápidas (izquierda y luego derecha) no dan media vuelta
+    s.turn(Direction.LEFT);
+    s.turn(Direction.RIGHT);
+    assertEquals(Direction.LEFT, s.nextDirection());
+    assertEquals(Direction.LEFT, s.nextDirection());
+  }
+
+  @Test
+  void snakeDropsTurnsBeyondTheQueueCapacity() {
+    Snake s = Snake.of(5, 5, Direction.RIGHT, 1);
+    for (int i = 0; i < TurnQueue.CAPACITY; i++) s.turn(i % 2 == 0 ? Direction.UP : Direction.RIGHT);
+    s.turn(Direction.DOWN);  // Cola llena: se pierde
+    for (int i = 0; i < TurnQueue.CAPACITY; i++) {
+      assertEquals(i % 2 == 0 ? Direction.UP : Direction.RIGHT, s.nextDirection());
+    }
+    assertEquals(Direction.RIGHT, s.nextDirection());
+    assertThrows(NullPointerException.class, () -> s.turn(null));
+  }
+}
@@ -0,0 +1,51 @@
+package co.eci.snake.core.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.Snake;
+
+/** Un suscriptor sin eventos se estaciona sin plazo y el siguiente evento lo despierta */
+class EventBusTest {
+
+  @Test
+  void idleSubscriberParksUntilTheNextEvent() throws Exception {
+    Board board = new Board(20, 20, new SplittableRandom(1));
+    var received = new LinkedBlockingQueue<Integer>();
+    try (EventBus bus = EventBus.attach(board)) {
+      bus.subscribe("idle-subscriber", (event, endOfBatch) -> {
+        if (event.type() == GameEvent.Type.SNAKE_ADDED) received.add(event.snake());
+      });
+      Thread subscriber = threadNamed("idle-subscriber");
+      for (int id = 1; id <= 5; id++) {
+        awaitState(subscriber, Thread.State.WAITING);
+        // Sin eventos no vuelve a mirar por su cuenta: sigue estacionado sin plazo
+        Thread.sleep(20);
+        assertEquals(Thread.State.WAITING, subscriber.getState());
+
+        board.addSnake(Snake.of(id, id, Direction.RIGHT, id));
+        assertEquals(id, received.poll(5, TimeUnit.SECONDS));
+      }
+    }
+    assertTrue(received.isEmpty());
+  }
+
+  private static Thread threadNamed(String name) {
+    return Thread.getAllStackTraces().keySet().stream()
+        .filter(t -> t.getName().equals(name)).findFirst().orElseThrow();
+  }
+
+  private static void awaitState(Thread thread, Thread.State state) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (thread.getState() != state && System.nanoTime() < deadline) Thread.sleep(1);
+    assertEquals(state, thread.getState());
+  }
+}
@@ -0,0 +1,122 @@
+package co.eci.snake.core.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+/** Seqlock de las particiones: escritores que llegan tarde y lecturas con escritores cruzados */
+class EventShardTest {
+
+  @Test
+  void eventsAreReadInOrder() {
+    EventShard shard = new EventShard(8);
+    for (int k = 0; k < 5; k++) shard.publish(GameEvent.Type.MOVED, k, k, k, k);
+    GameEvent e = new GameEvent();
+    for (int k = 0; k < 5; k++) {
+      assertEquals(EventShard.READ, shard.read(k, e));
+      assertEquals(k, e.snake());
+    }
+    assertEquals(EventShard.PENDING, shard.read(5, e));
+  }
+
+  /** Un escritor que se demoró una vuelta entera no pisa el evento más nuevo de su puesto */
+  @Test
+  void lateWriterIsRejectedBeforeTouchingTheSlot() {
+    EventShard shard = new EventShard(8);
+    long late = shard.claim();
+    assertEquals(EventShard.PENDING, shard.read(late, new GameEvent()));
+    for (int k = 1; k <= 8; k++) shard.publish(GameEvent.Type.MOVED, k, k, k, k);  // El 8 cae en el puesto del 0
+
+    assertFalse(shard.write(late, GameEvent.Type.DIED, 99, 99, 99, 99));
+    GameEvent e = new GameEvent();
+    assertEquals(EventShard.LOST, shard.read(late, e));
+    assertEquals(EventShard.READ, shard.read(8, e));
+    assertEquals(GameEvent.Type.MOVED, e.type());
+    assertEquals(8, e.snake());
+    assertEquals(8, e.cell());
+  }
+
+  @Test
+  void lateWriterWithinTheLapStillWrites() {
+    EventShard shard = new EventShard(8);
+    long late = shard.claim();
+    for (int k = 1; k < 8; k++) shard.publish(GameEvent.Type.MOVED, k, k, k, k);
+    assertTrue(shard.write(late, GameEvent.Type.MOVED, 0, 0, 0, 0));
+    GameEvent e = new GameEvent();
+    for (int k = 0; k < 8; k++) {
+      assertEquals(EventShard.READ, shard.read(k, e));
+      assertEquals(k, e.cell());
+    }
+  }
+
+  /**
+   * Muchos escritores dando vueltas a un buffer diminuto mientras un lector lo recorre:
+   * cada evento leído debe tener todos sus campos del mismo escritor.
+   */
+  @Test
+  void concurrentWritersNeverProduceTornReads() throws Exception {
+    final int writers = 4;
+    final int perWriter = 200_000;
+    EventShard shard = new EventShard(4);
+    ExecutorService pool = Executors.newFixedThreadPool(writers);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicBoolean done = new AtomicBoolean();
+    List<Future<?>> futures = new ArrayList<>();
+    for (int w = 0; w < writers; w++) {
+      final int base = w * perWriter;
+      futures.add(pool.submit(() -> {
+        start.await();
+        for (int k = base; k < base + perWriter; k++) shard.publish(GameEvent.Type.MOVED, k, k, k, k);
+        return null;
+      }));
+    }
+    start.countDown();
+    Thread closer = Thread.ofPlatform().start(() -> {
+      try {
+        for (Future<?> f : futures) f.get();
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      } finally {
+        done.set(true);
+      }
+    });
+    GameEvent e = new GameEvent();
+    long reads = 0;
+    long seq = 0;
+    while (!done.get() || seq < shard.cursor()) {
+      long cursor = shard.cursor();
+      if (seq >= cursor) {
+        Thread.yield();
+        continue;
+      }
+      seq = Math.max(seq, cursor - shard.capacity());
+      int r = shard.read(seq, e);
+      if (r == EventShard.PENDING) {
+        Thread.yield();
+        continue;
+      }
+      if (r == EventShard.READ) {
+        reads++;
+        assertEquals(e.snake(), e.cell(), "evento " + seq);
+        assertEquals(e.snake(), e.from(), "evento " + seq);
+        assertEquals(e.snake(), e.value, "evento " + seq);
+      }
+      seq++;
+    }
+    closer.join();
+    pool.shutdown();
+    for (Future<?> f : futures) f.get();
+    assertEquals((long) writers * perWriter, shard.cursor());
+    assertTrue(reads > 0);
+  }
+}
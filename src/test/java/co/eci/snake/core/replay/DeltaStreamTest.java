@@ -0,0 +1,101 @@
+package co.eci.snake.core.replay;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.Snake;
+import co.eci.snake.core.WorldSnapshot;
+import co.eci.snake.core.engine.TickEngine;
+import co.eci.snake.core.steering.SteeringStrategy;
+
+/**
+ * Ida y vuelta de la transmisión en vivo: los registros de {@link DeltaStream} aplicados en
+ * un {@link DeltaReader} reconstruyen la foto del tablero en cada tick, tanto para un lector
+ * que está desde el inicio como para uno que entra con un cuadro clave a mitad de carrera.
+ * Los buffers devueltos con recycle se reutilizan en lugar de crear uno por tick.
+ */
+class DeltaStreamTest {
+  private static final int TICKS = 200;
+  private static final int JOIN_TICK = 37;
+
+  private DeltaReader late;  // Lector que entra con el cuadro clave de JOIN_TICK
+  private int keyframes;
+
+  @Test
+  void readersRebuildTheBoardEveryTick() {
+    var rnd = new SplittableRandom(17);
+    Board board = new Board(60, 45, 12, rnd.split());
+    var dirs = Direction.values();
+    for (int id = 1; id <= 80; id++) {
+      board.addSnake(Snake.of(rnd.nextInt(60), rnd.nextInt(45), dirs[rnd.nextInt(4)], id));
+    }
+    DeltaReader reader = new DeltaReader(DeltaStream.header(board));
+    Set<ByteBuffer> buffers = Collections.newSetFromMap(new IdentityHashMap<>());
+    DeltaStream[] stream = new DeltaStream[1];
+    stream[0] = DeltaStream.attach(board, (tick, delta, keyframe) -> {
+      buffers.add(delta);
+      reader.apply(delta);
+      if (keyframe != null) {
+        keyframes++;
+        late = new DeltaReader(DeltaStream.header(board));
+        late.apply(keyframe);
+      } else if (late != null) {
+        late.apply(delta.rewind());
+      }
+      stream[0].recycle(delta);
+      stream[0].recycle(keyframe);
+    });
+    TickEngine engine = new TickEngine(board, SteeringStrategy.random());
+    try {
+      for (int t = 1; t <= TICKS && !board.isGameOver(); t++) {
+        if (t == JOIN_TICK) stream[0].requestKeyframe();
+        engine.tick();
+        String live = canonical(board.publish());
+        assertEquals(engine.ticks(), reader.tick());
+        assertEquals(live, canonical(reader.snapshot()), "tick " + t);
+        if (t < JOIN_TICK) {
+          assertNull(late);
+        } else {
+          assertNotNull(late);
+          assertEquals(engine.ticks(), late.tick());
+          assertEquals(live, canonical(late.snapshot()), "lector tardío, tick " + t);
+        }
+      }
+      assertTrue(engine.ticks() > JOIN_TICK, "la carrera terminó antes del cuadro clave");
+    } finally {
+      stream[0].detach();
+    }
+    assertEquals(1, keyframes);
+    assertTrue(buffers.size() <= 3, "buffers distintos: " + buffers.size());
+  }
+
+  /** Foto sin versión ni muertas (el cuadro clave en vivo no las trae): vivas por id y elementos ordenados */
+  private static String canonical(WorldSnapshot s) {
+    StringBuilder sb = new StringBuilder();
+    sb.append(s.width()).append('x').append(s.height()).append('\n');
+    for (WorldSnapshot.SnakeView v : s.snakes().stream().sorted(Comparator.comparingInt(WorldSnapshot.SnakeView::id)).toList()) {
+      sb.append(v.id()).append(':');
+      v.forEachCell(c -> sb.append(c).append(','));
+      sb.append('\n');
+    }
+    var items = s.items();
+    sb.append(new TreeSet<>(items.mice().stream().map(Object::toString).toList())).append('\n');
+    sb.append(new TreeSet<>(items.obstacles().stream().map(Object::toString).toList())).append('\n');
+    sb.append(new TreeSet<>(items.turbo().stream().map(Object::toString).toList())).append('\n');
+    return sb.append(new TreeSet<>(items.teleports().keySet().stream().map(Object::toString).toList())).toString();
+  }
+}
@@ -0,0 +1,133 @@
+package co.eci.snake.core.replay;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.Snake;
+import co.eci.snake.core.WorldSnapshot;
+import co.eci.snake.core.engine.TickEngine;
+import co.eci.snake.core.steering.SteeringStrategy;
+
+/**
+ * Graba una carrera con semilla fija guardando la foto del tablero en vivo de cada tick y
+ * luego comprueba que {@link ReplayPlayer#seek(long)} reconstruye exactamente esas fotos,
+ * avanzando, retrocediendo y saltando entre cuadros clave, con índice y sin él.
+ */
+class ReplayPlayerTest {
+  private static final int TICKS = 300;
+  private static final int KEYFRAME_INTERVAL = 5;
+
+  @TempDir
+  static Path dir;
+  private static Path file;
+  private static final List<String> live = new ArrayList<>();  // live.get(t - 1) = foto del tick t
+
+  @BeforeAll
+  static void record() throws IOException {
+    var rnd = new SplittableRandom(42);
+    Board board = new Board(120, 90, 16, rnd.split());
+    var dirs = Direction.values();
+    for (int i = 0; i < 300; i++) {
+      board.addSnake(Snake.of(rnd.nextInt(120), rnd.nextInt(90), dirs[rnd.nextInt(4)], i + 1));
+    }
+    file = dir.resolve("race.replay");
+    TickEngine engine = new TickEngine(board, SteeringStrategy.random());
+    ReplayRecorder recorder = ReplayRecorder.start(board, file, KEYFRAME_INTERVAL);
+    try (recorder) {
+      for (int t = 1; t <= TICKS; t++) {
+        engine.tick();
+        live.add(canonical(board.publish()));
+      }
+    }
+  }
+
+  @Test
+  void seeksForwardTickByTick() throws IOException {
+    try (ReplayPlayer player = ReplayPlayer.open(file)) {
+      assertEquals(1, player.firstTick());
+      assertEquals(TICKS, player.lastTick());
+      for (long t = 1; t <= TICKS; t++) assertSeek(player, t);
+    }
+  }
+
+  @Test
+  void seeksBackwardAndAcrossKeyframes() throws IOException {
+    try (ReplayPlayer player = ReplayPlayer.open(file)) {
+      for (long t = TICKS; t >= 1; t--) assertSeek(player, t);
+      long[] jumps = {TICKS, 1, 2 * KEYFRAME_INTERVAL, 2 * KEYFRAME_INTERVAL - 1,
+          5 * KEYFRAME_INTERVAL + 3, KEYFRAME_INTERVAL + 1, TICKS - 1, KEYFRAME_INTERVAL};
+      for (long t : jumps) assertSeek(player, t);
+      var rnd = new SplittableRandom(3);
+      for (int i = 0; i < 200; i++) assertSeek(player, 1 + rnd.nextInt(TICKS));
+    }
+  }
+
+  @Test
+  void rejectsTicksOutsideTheRecording() throws IOException {
+    try (ReplayPlayer player = ReplayPlayer.open(file)) {
+      assertThrows(IllegalArgumentException.class, () -> player.seek(0));
+      assertThrows(IllegalArgumentException.class, () -> player.seek(TICKS + 1));
+    }
+  }
+
+  /** Sin índice (grabación cortada a media escritura) el reproductor lo reconstruye recorriendo el archivo */
+  @Test
+  void truncatedFileIsScannedUpToTheLastCompleteTick() throws IOException {
+    byte[] bytes = Files.readAllBytes(file);
+    Path truncated = dir.resolve("truncated.replay");
+    Files.write(truncated, Arrays.copyOf(bytes, bytes.length * 2 / 3));
+    try (ReplayPlayer player = ReplayPlayer.open(truncated)) {
+      long last = player.lastTick();
+      assertTrue(last > 3 * KEYFRAME_INTERVAL && last < TICKS, "lastTick=" + last);
+      for (long t = last; t >= 1; t -= 7) assertSeek(player, t);
+      for (long t = 1; t <= last; t++) assertSeek(player, t);
+      assertThrows(IllegalArgumentException.class, () -> player.seek(last + 1));
+    }
+  }
+
+  private static void assertSeek(ReplayPlayer player, long tick) {
+    assertEquals(live.get((int) tick - 1), canonical(player.seek(tick)), "tick " + tick);
+  }
+
+  /** Foto sin versión: vivas por id, muertas en orden de muerte y elementos ordenados */
+  private static String canonical(WorldSnapshot s) {
+    StringBuilder sb = new StringBuilder();
+    sb.append(s.width()).append('x').append(s.height()).append('\n');
+    for (WorldSnapshot.SnakeView v : s.snakes().stream().sorted(Comparator.comparingInt(WorldSnapshot.SnakeView::id)).toList()) {
+      append(sb, v);
+    }
+    sb.append("dead\n");
+    for (WorldSnapshot.SnakeView v : s.deadSnakes()) append(sb, v);
+    var items = s.items();
+    sb.append(new TreeSet<>(items.mice().stream().map(Object::toString).toList())).append('\n');
+    sb.append(new TreeSet<>(items.obstacles().stream().map(Object::toString).toList())).append('\n');
+    sb.append(new TreeSet<>(items.turbo().stream().map(Object::toString).toList())).append('\n');
+    var tp = new TreeMap<String, String>();
+    items.teleports().forEach((a, b) -> tp.put(a.toString(), b.toString()));
+    return sb.append(tp).toString();
+  }
+
+  private static void append(StringBuilder sb, WorldSnapshot.SnakeView v) {
+    sb.append(v.id()).append(':');
+    v.forEachCell(c -> sb.append(c).append(','));
+    sb.append('\n');
+  }
+}
@@ -0,0 +1,97 @@
+package co.eci.snake.core.steering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.Position;
+import co.eci.snake.core.Snake;
+import co.eci.snake.core.engine.TickEngine;
+
+/**
+ * El campo incremental coincide en cada celda con un BFS hacia adelante hecho a fuerza
+ * bruta desde esa celda, con la grilla toroidal, los obstáculos y los teletransportadores,
+ * mientras una carrera come ratones y hace aparecer ratones y obstáculos en cada tick.
+ */
+class DistanceFieldTest {
+  private static final int TICKS = 60;
+
+  @ParameterizedTest(name = "sparse={0} radius={1}")
+  @CsvSource({"false, 64", "false, 5", "true, 64", "true, 5"})
+  void matchesBruteForceWhileItemsChange(boolean sparse, int radius) {
+    var rnd = new SplittableRandom(sparse ? 31 : 13);
+    int width = 40;
+    int height = 30;
+    Board board = sparse ? Board.sparse(width, height, 32, rnd.split()) : new Board(width, height, 10, rnd.split());
+    assertFalse(board.teleports().isEmpty());
+    var dirs = Direction.values();
+    for (int id = 1; id <= 40; id++) {
+      Position p = board.freeCell(rnd);
+      board.addSnake(Snake.of(p.x(), p.y(), dirs[rnd.nextInt(4)], id));
+    }
+    DistanceField field = new DistanceField(board, radius);
+    TickEngine engine = new TickEngine(board, new GreedySteering(board));
+
+    long version = board.itemsVersion();
+    int changes = 0;
+    for (int t = 0; t < TICKS && !board.isGameOver(); t++) {
+      field.refresh();
+      assertMatches(board, field, radius, "tick " + t);
+      engine.tick();
+      if (board.itemsVersion() != version) changes++;
+      version = board.itemsVersion();
+    }
+    assertTrue(changes > 0, "la carrera no cambió ningún elemento");
+  }
+
+  private static void assertMatches(Board board, DistanceField field, int radius, String when) {
+    Set<Position> mice = board.mice();
+    Set<Position> obstacles = board.obstacles();
+    Map<Position, Position> teleports = board.teleports();
+    for (int y = 0; y < board.height(); y++) {
+      for (int x = 0; x < board.width(); x++) {
+        int expected = bruteForce(board, new Position(x, y), mice, obstacles, teleports, radius);
+        assertEquals(expected, field.distance(Position.pack(x, y)), when + " en (" + x + "," + y + ")");
+      }
+    }
+  }
+
+  /** Movimientos desde la celda hasta pisar un ratón, o UNREACHABLE si no hay uno dentro del radio */
+  private static int bruteForce(Board board, Position from, Set<Position> mice, Set<Position> obstacles,
+                                Map<Position, Position> teleports, int radius) {
+    if (obstacles.contains(from)) return DistanceField.UNREACHABLE;
+    if (mice.contains(from)) return 0;
+    int w = board.width();
+    int h = board.height();
+    Map<Position, Integer> seen = new HashMap<>();
+    ArrayDeque<Position> queue = new ArrayDeque<>();
+    seen.put(from, 0);
+    queue.add(from);
+    while (!queue.isEmpty()) {
+      Position u = queue.poll();
+      int d = seen.get(u) + 1;
+      if (d > radius) break;
+      for (Direction dir : Direction.values()) {
+        Position stepped = new Position(Math.floorMod(u.x() + dir.dx, w), Math.floorMod(u.y() + dir.dy, h));
+        if (obstacles.contains(stepped)) continue;
+        Position landing = teleports.getOrDefault(stepped, stepped);
+        if (seen.containsKey(landing)) continue;
+        if (mice.contains(landing)) return d;
+        seen.put(landing, d);
+        queue.add(landing);
+      }
+    }
+    return DistanceField.UNREACHABLE;
+  }
+}
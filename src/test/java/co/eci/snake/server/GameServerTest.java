@@ -0,0 +1,125 @@
+package co.eci.snake.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.Snake;
+import co.eci.snake.core.WorldSnapshot;
+import co.eci.snake.core.engine.TickEngine;
+import co.eci.snake.core.replay.DeltaReader;
+import co.eci.snake.core.steering.SteeringStrategy;
+
+/**
+ * Un espectador conectado por loopback recibe HELLO, un cuadro clave y un STATE por tick, y
+ * con {@link DeltaReader} reconstruye la foto del tablero del servidor en cada tick, también
+ * cuando el servidor pasa a transmitir otro tablero. El espectador lee con atraso, así que
+ * los mensajes de varios ticks viajan juntos y los buffers del servidor se reutilizan.
+ */
+class GameServerTest {
+  private static final int TICKS = 200;
+  private static final int LAG = 40;  // Ticks que corre el servidor entre lecturas del espectador
+
+  @Test
+  void spectatorRebuildsTheBoardOverLoopback() throws Exception {
+    try (GameServer server = GameServer.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+         Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.port())) {
+      socket.setSoTimeout(10_000);
+      DataInputStream in = new DataInputStream(socket.getInputStream());
+      long deadline = System.nanoTime() + 10_000_000_000L;
+      while (server.clients() == 0 && System.nanoTime() < deadline) Thread.sleep(1);
+      assertEquals(1, server.clients());
+
+      Spectator spectator = new Spectator(in);
+      for (long seed : new long[] {5, 6}) {
+        Board board = race(seed);
+        server.attach(board);
+        spectator.reader = null;  // Ya leyó todo el tablero anterior; el siguiente mensaje es HELLO
+        TickEngine engine = new TickEngine(board, SteeringStrategy.random());
+        Map<Long, String> live = new HashMap<>();
+        int read = 0;
+        while (engine.ticks() < TICKS && !board.isGameOver()) {
+          for (int i = 0; i < LAG && !board.isGameOver(); i++) {
+            engine.tick();
+            live.put(engine.ticks(), canonical(board.publish()));
+          }
+          while (spectator.reader == null || spectator.reader.tick() < engine.ticks()) {
+            spectator.readTick();
+            long t = spectator.reader.tick();
+            assertEquals(live.get(t), canonical(spectator.reader.snapshot()), "semilla " + seed + ", tick " + t);
+            read++;
+          }
+          assertEquals(engine.ticks(), spectator.reader.tick());
+        }
+        assertEquals(engine.ticks(), read, "el espectador perdió ticks");
+      }
+    }
+  }
+
+  /** Lee los mensajes del servidor hasta aplicar un STATE */
+  private static final class Spectator {
+    final DataInputStream in;
+    DeltaReader reader;
+
+    Spectator(DataInputStream in) {
+      this.in = in;
+    }
+
+    void readTick() throws IOException {
+      while (true) {
+        byte[] body = new byte[in.readInt() - 1];
+        byte type = in.readByte();
+        in.readFully(body);
+        if (type == NetProtocol.HELLO) {
+          reader = new DeltaReader(ByteBuffer.wrap(body));
+        } else {
+          assertEquals(NetProtocol.STATE, type);
+          assertNotNull(reader, "STATE antes de HELLO");
+          reader.apply(ByteBuffer.wrap(body));
+          return;
+        }
+      }
+    }
+  }
+
+  private static Board race(long seed) {
+    var rnd = new SplittableRandom(seed);
+    Board board = new Board(120, 90, 16, rnd.split());
+    var dirs = Direction.values();
+    for (int id = 1; id <= 300; id++) {
+      board.addSnake(Snake.of(rnd.nextInt(120), rnd.nextInt(90), dirs[rnd.nextInt(4)], id));
+    }
+    return board;
+  }
+
+  /** Foto sin versión ni muertas (el cuadro clave en vivo no las trae): vivas por id y elementos ordenados */
+  private static String canonical(WorldSnapshot s) {
+    StringBuilder sb = new StringBuilder();
+    sb.append(s.width()).append('x').append(s.height()).append('\n');
+    for (WorldSnapshot.SnakeView v : s.snakes().stream().sorted(Comparator.comparingInt(WorldSnapshot.SnakeView::id)).toList()) {
+      sb.append(v.id()).append(':');
+      v.forEachCell(c -> sb.append(c).append(','));
+      sb.append('\n');
+    }
+    var items = s.items();
+    sb.append(new TreeSet<>(items.mice().stream().map(Object::toString).toList())).append('\n');
+    sb.append(new TreeSet<>(items.obstacles().stream().map(Object::toString).toList())).append('\n');
+    sb.append(new TreeSet<>(items.turbo().stream().map(Object::toString).toList())).append('\n');
+    return sb.append(new TreeSet<>(items.teleports().keySet().stream().map(Object::toString).toList())).toString();
+  }
+}
@@ -0,0 +1,43 @@
+package co.eci.snake.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.Snake;
+import co.eci.snake.core.steering.SteeringStrategy;
+
+/**
+ * Un tablero que ya terminó acaba en la primera tajada, que puede correr antes de que
+ * {@link HostedRace#schedule} guarde la tarea: aun así la tarea periódica queda cancelada.
+ */
+class HostedRaceTest {
+  private static final int BOARDS = 300;
+
+  @Test
+  void finishedRacesStopTheirPeriodicTask() throws Exception {
+    var rnd = new SplittableRandom(9);
+    List<HostedRace> races = new ArrayList<>();
+    try (RaceManager manager = new RaceManager(new RaceManager.Limits(2, BOARDS, BOARDS, 1, 8))) {
+      for (int i = 0; i < BOARDS; i++) {
+        Board board = new Board(8, 8, rnd.split());
+        board.addSnake(Snake.of(0, 0, Direction.RIGHT, 1));
+        races.add(manager.host(board, SteeringStrategy.random()));
+      }
+      for (HostedRace race : races) {
+        race.finished().get(10, TimeUnit.SECONDS);
+        assertFalse(race.isScheduled());
+      }
+      assertEquals(0, manager.boards());
+      assertEquals(0, manager.snakes());
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package co.eci.snake.stats;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link IndexedHeap} comparado con un orden calculado a mano: cambios de clave hacia
+ * arriba y hacia abajo, quitar puestos del medio, empates (gana el puesto menor) y el
+ * recorrido de los k mayores sin tocar el resto del montículo.
+ */
+class IndexedHeapTest {
+
+  @Test
+  void keyIncreaseAndDecreaseMoveTheSlot() {
+    IndexedHeap heap = new IndexedHeap();
+    for (int slot = 0; slot < 10; slot++) heap.set(slot, slot);
+    assertTop(heap, 9, 8, 7);
+
+    heap.set(2, 100);  // Sube desde una hoja hasta la raíz
+    assertTop(heap, 2, 9, 8);
+    heap.set(2, -1);  // Baja desde la raíz hasta el fondo
+    assertTop(heap, 9, 8, 7);
+    heap.set(9, 5);  // Baja a mitad del montículo y empata con el puesto 5
+    assertTop(heap, 8, 7, 6, 5, 9, 4);
+    assertEquals(10, heap.size());
+  }
+
+  @Test
+  void removingFromTheMiddleKeepsTheOrder() {
+    IndexedHeap heap = new IndexedHeap();
+    for (int slot = 0; slot < 15; slot++) heap.set(slot, slot * 10);
+    heap.remove(7);
+    heap.remove(12);
+    heap.remove(0);
+    heap.remove(7);  // Ya no está: no tiene efecto
+    assertFalse(heap.contains(7));
+    assertTrue(heap.contains(8));
+    assertEquals(12, heap.size());
+    assertTop(heap, 14, 13, 11, 10, 9, 8, 6, 5, 4, 3, 2, 1);
+
+    // El último de la última hoja y la raíz
+    heap.remove(1);
+    heap.remove(14);
+    assertTop(heap, 13, 11, 10, 9, 8, 6, 5, 4, 3, 2);
+  }
+
+  @Test
+  void tiesAreBrokenByTheSmallerSlot() {
+    IndexedHeap heap = new IndexedHeap();
+    int[] slots = {6, 3, 9, 0, 4, 1};
+    for (int slot : slots) heap.set(slot, 7);
+    heap.set(5, 8);
+    assertTop(heap, 5, 0, 1, 3, 4, 6, 9);
+    heap.set(0, 7);  // Misma clave: no se mueve
+    heap.set(5, 7);
+    assertTop(heap, 0, 1, 3, 4, 5, 6, 9);
+  }
+
+  @Test
+  void topIsLimitedByKSizeAndOutput() {
+    IndexedHeap heap = new IndexedHeap();
+    assertEquals(0, heap.top(3, new int[3]));
+    for (int slot = 0; slot < 40; slot++) heap.set(slot, slot % 7);  // Crece más allá de 16
+    int[] out = new int[5];
+    assertEquals(5, heap.top(10, out));
+    assertArrayEquals(new int[] {6, 13, 20, 27, 34}, out);
+    assertEquals(2, heap.top(2, out));
+    assertEquals(0, heap.top(0, out));
+
+    heap.clear();
+    assertEquals(0, heap.size());
+    assertFalse(heap.contains(6));
+    heap.set(3, 1);
+    assertTop(heap, 3);
+  }
+
+  @Test
+  void randomOperationsMatchAFullSort() {
+    var rnd = new SplittableRandom(17);
+    IndexedHeap heap = new IndexedHeap();
+    Map<Integer, Long> model = new HashMap<>();
+    for (int op = 0; op < 20_000; op++) {
+      int slot = rnd.nextInt(200);
+      if (rnd.nextInt(4) == 0) {
+        heap.remove(slot);
+        model.remove(slot);
+      } else {
+        long key = rnd.nextInt(50);  // Claves chicas: muchos empates
+        heap.set(slot, key);
+        model.put(slot, key);
+      }
+      if (op % 97 == 0) {
+        assertEquals(model.size(), heap.size());
+        int k = 1 + rnd.nextInt(30);
+        int[] expected = model.entrySet().stream()
+            .sorted(Comparator.<Map.Entry<Integer, Long>>comparingLong(Map.Entry::getValue).reversed()
+                .thenComparing(Map.Entry::getKey))
+            .limit(k).mapToInt(Map.Entry::getKey).toArray();
+        int[] out = new int[k];
+        int n = heap.top(k, out);
+        assertArrayEquals(expected, Arrays.copyOf(out, n), "op " + op);
+      }
+    }
+  }
+
+  private static void assertTop(IndexedHeap heap, int... expected) {
+    int[] out = new int[expected.length];
+    assertEquals(expected.length, heap.top(expected.length, out));
+    assertArrayEquals(expected, out);
+  }
+}
@@ -0,0 +1,101 @@
+package co.eci.snake.stats;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.Item;
+import co.eci.snake.core.Position;
+import co.eci.snake.core.Snake;
+import co.eci.snake.core.events.EventBus;
+
+/**
+ * {@link RaceStats} alimentado por un {@link EventBus} de una sola partición, así que los
+ * eventos llegan en el orden publicado: el ranking sigue a las serpientes que crecen, saca
+ * a las que mueren y a igual largo deja primero a la que se agregó antes.
+ */
+class RaceStatsTest {
+
+  @Test
+  void leaderboardFollowsGrowthDeathsAndTies() throws Exception {
+    Board board = new Board(30, 30, new SplittableRandom(4));
+    RaceStats stats = new RaceStats(3);
+    try (EventBus bus = EventBus.attach(board, 1, 4096)) {
+      bus.subscribe("race-stats", stats);
+      Snake[] s = new Snake[6];
+      for (int id = 1; id <= 5; id++) {
+        s[id] = Snake.of(0, id, Direction.RIGHT, id);
+        bus.snakeAdded(s[id]);
+      }
+      grow(bus, s[1], 2);
+      grow(bus, s[2], 4);
+      grow(bus, s[3], 4);
+      grow(bus, s[4], 1);
+      grow(bus, s[5], 5);
+      Leaderboard lb = awaitTick(bus, stats, 1);
+      assertEquals(List.of(5, 2, 3), ids(lb));
+      assertEquals(List.of(6, 5, 5), lengths(lb));
+      assertEquals(5, lb.alive());
+      assertEquals(-1, lb.firstDead());
+
+      // La última sube hasta el primer puesto
+      grow(bus, s[4], 5);
+      bus.itemEaten(s[5], Item.MOUSE, s[5].headCell());
+      lb = awaitTick(bus, stats, 2);
+      assertEquals(List.of(4, 5, 2), ids(lb));
+      assertEquals(1, lb.top().get(1).mice());
+      assertEquals(1, lb.mice());
+      assertEquals(6, lb.longest().moves());
+
+      // Las muertas salen del ranking; la primera muerte queda registrada
+      bus.snakeDied(s[5]);
+      bus.snakeDied(s[2]);
+      lb = awaitTick(bus, stats, 3);
+      assertEquals(List.of(4, 3, 1), ids(lb));
+      assertEquals(3, lb.alive());
+      assertEquals(2, lb.dead());
+      assertEquals(5, lb.firstDead());
+
+      // Empate con una serpiente agregada después: va primero la más antigua
+      grow(bus, s[1], 2);
+      lb = awaitTick(bus, stats, 4);
+      assertEquals(List.of(4, 1, 3), ids(lb));
+      assertEquals(List.of(7, 5, 5), lengths(lb));
+      assertEquals(0, lb.lostEvents());
+    }
+  }
+
+  /** Avanza la serpiente n celdas creciendo en cada una y publica los movimientos */
+  private static void grow(EventBus bus, Snake snake, int n) {
+    for (int i = 0; i < n; i++) {
+      int from = snake.headCell();
+      int to = Position.pack(Position.packedX(from) + 1, Position.packedY(from));
+      snake.advance(to, true);
+      bus.snakeMoved(snake, from, to, true);
+    }
+  }
+
+  /** Cierra el tick y espera a que las estadísticas publiquen su foto */
+  private static Leaderboard awaitTick(EventBus bus, RaceStats stats, long tick) throws InterruptedException {
+    bus.tickCompleted(tick);
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (stats.leaderboard().tick() < tick && System.nanoTime() < deadline) Thread.sleep(1);
+    Leaderboard lb = stats.leaderboard();
+    assertEquals(tick, lb.tick());
+    return lb;
+  }
+
+  private static List<Integer> ids(Leaderboard lb) {
+    return lb.top().stream().map(Leaderboard.Entry::id).toList();
+  }
+
+  private static List<Integer> lengths(Leaderboard lb) {
+    return lb.top().stream().map(Leaderboard.Entry::length).toList();
+  }
+}